@@ -0,0 +1,202 @@
+/**
+ * This is the AnalyticsPanel class which is responsible for showing the
+ * attendance broken down by group in the analytics dialog. The students may
+ * be grouped by program or level and the dates by date or week, and every
+ * summary computed by the AttendanceAnalytics class is a row of the table.
+ * The summaries are cached by the model, so switching between the groupings
+ * only computes each one once.
+ * Architecture:MVC-View
+ * @author Xiang Luo
+ */
+import java.awt.*;
+import java.awt.event.*;
+import java.util.*;
+import java.util.List;
+import javax.swing.*;
+import javax.swing.event.*;
+import javax.swing.table.*;
+
+/**
+* This is the SummaryTableModel class which is responsible for giving the
+* JTable the columns of a list of AttendanceSummary.
+*/
+class SummaryTableModel extends AbstractTableModel {
+	private static final String[] COLUMNS = {"Students", "Dates", "Count", "Days", "Total", "Average", "25%", "Median", "75%", "90%", "Below", "Trend"};
+
+	private List<AttendanceSummary> summaries;
+
+   /**
+   * This is SummaryTableModel's constructor which initializes member
+   * variables.
+   */
+	public SummaryTableModel()
+	{
+		summaries = new ArrayList<AttendanceSummary>();
+	}
+
+   /**
+   * This is the setSummaries method which shows the given summaries.
+   * @param summaries the summaries, one per row.
+   */
+	public void setSummaries(List<AttendanceSummary> summaries) {
+		this.summaries = summaries;
+		fireTableDataChanged();
+	}
+
+   /**
+   * This is the getRowCount getter which gets the number of summaries.
+   * @return the number of rows.
+   */
+	@Override
+	public int getRowCount() {
+		return summaries.size();
+	}
+
+   /**
+   * This is the getColumnCount getter which gets the number of columns.
+   * @return the number of columns.
+   */
+	@Override
+	public int getColumnCount() {
+		return COLUMNS.length;
+	}
+
+   /**
+   * This is the getColumnName getter which gets the name of a column.
+   * @param column the index of the column.
+   * @return the name of the column.
+   */
+	@Override
+	public String getColumnName(int column) {
+		return COLUMNS[column];
+	}
+
+   /**
+   * This is the getColumnClass method which gets the class of the values of a
+   * column, so numbers are sorted and aligned as numbers.
+   * @param column the index of the column.
+   * @return the class of the values.
+   */
+	@Override
+	public Class<?> getColumnClass(int column) {
+		if(column < 2) {
+			return String.class;
+		}
+		if(column == 4) {
+			return Long.class;
+		}
+		if(column < 5 || column == 10) {
+			return Integer.class;
+		}
+		return Double.class;
+	}
+
+   /**
+   * This is the getValueAt method which gets a value of a summary.
+   * @param row the index of the summary.
+   * @param column the index of the column.
+   * @return the value.
+   */
+	@Override
+	public Object getValueAt(int row, int column) {
+		AttendanceSummary summary = summaries.get(row);
+		switch(column) {
+			case 0:
+				return summary.getGroup();
+			case 1:
+				return summary.getDates();
+			case 2:
+				return summary.getStudentCount();
+			case 3:
+				return summary.getDateCount();
+			case 4:
+				return summary.getTotalMinutes();
+			case 5:
+				return round(summary.getAverageMinutes());
+			case 10:
+				return summary.getBelowCount();
+			case 11:
+				return round(summary.getTrend());
+			default:
+				return round(summary.getPercentile(column - 6));
+		}
+	}
+
+   /**
+   * This is the round method which rounds a number of minutes to two
+   * decimals for the table.
+   * @param minutes the minutes.
+   * @return the rounded minutes.
+   */
+	private static double round(double minutes) {
+		return Math.round(minutes * 100) / 100.0;
+	}
+}
+
+
+public class AnalyticsPanel extends JPanel {
+
+	private static final String[] STUDENT_GROUPS = {"All students", "By program", "By level"};
+	private static final int[] STUDENT_GROUPINGS = {AttendanceAnalytics.ALL, AttendanceAnalytics.PROGRAM, AttendanceAnalytics.LEVEL};
+	private static final String[] DATE_GROUPS = {"All dates", "By date", "By week"};
+	private static final int[] DATE_GROUPINGS = {AttendanceAnalytics.ALL, AttendanceAnalytics.DATE, AttendanceAnalytics.WEEK};
+
+	private AttendanceAnalytics analytics;
+	private SummaryTableModel model;
+	private JComboBox<String> studentBox;
+	private JComboBox<String> dateBox;
+	private JSpinner percentSpinner;
+
+   /**
+   * This is AnalyticsPanel's constructor which creates the grouping
+   * JComboBoxes, the percentage JSpinner and the JTable of the summaries.
+   * @param analytics the AttendanceAnalytics of the attendance data.
+   */
+	public AnalyticsPanel(AttendanceAnalytics analytics)
+	{
+		this.analytics = analytics;
+		model = new SummaryTableModel();
+		studentBox = new JComboBox<String>(STUDENT_GROUPS);
+		studentBox.setSelectedIndex(1);
+		dateBox = new JComboBox<String>(DATE_GROUPS);
+		percentSpinner = new JSpinner(new SpinnerNumberModel(50, 0, 100, 5));
+		ActionListener listener = new ActionListener() {
+			public void actionPerformed(ActionEvent evt) {
+				refresh();
+			}
+		};
+		studentBox.addActionListener(listener);
+		dateBox.addActionListener(listener);
+		percentSpinner.addChangeListener(new ChangeListener() {
+			public void stateChanged(ChangeEvent evt) {
+				refresh();
+			}
+		});
+		JTable table = new JTable(model);
+		table.setAutoCreateRowSorter(true);
+		table.getColumnModel().getColumn(0).setPreferredWidth(150);
+		table.getColumnModel().getColumn(1).setPreferredWidth(130);
+		JPanel bar = new JPanel();
+		bar.add(studentBox);
+		bar.add(dateBox);
+		bar.add(new JLabel("Below %"));
+		bar.add(percentSpinner);
+		setLayout(new BorderLayout());
+		add(bar, BorderLayout.NORTH);
+		add(new JScrollPane(table), BorderLayout.CENTER);
+		add(new JLabel("Minutes per student per date; Below counts the students under the percentage of the session; Trend is the change per date."), BorderLayout.SOUTH);
+		refresh();
+	}
+
+   /**
+   * This is the refresh method which shows the summaries of the selected
+   * groupings.
+   */
+	private void refresh() {
+		int students = STUDENT_GROUPINGS[studentBox.getSelectedIndex()];
+		int dates = DATE_GROUPINGS[dateBox.getSelectedIndex()];
+		int percent = (Integer)percentSpinner.getValue();
+		model.setSummaries(analytics.summarize(students, dates, percent));
+	}
+
+}
@@ -0,0 +1,405 @@
+/**
+ * This is the AttendanceAnalytics class which is responsible for breaking the
+ * attendance down by group: the students may be grouped by program or by
+ * level, and the dates by date or by week, and every group of students gets
+ * an AttendanceSummary for every group of dates. The columns of each group of
+ * dates are read once, in chunks of rows summed in parallel on the common
+ * ForkJoinPool, which gives the minutes of every student and the totals of
+ * every group on every date; the students of each group are then sorted by
+ * minutes for the percentiles and the count under the threshold.
+ *
+ * The summaries are kept until the AttendanceStatistics of the data change,
+ * so showing the same breakdown again does not read anything. The dates have
+ * no year, so the weeks are counted from the first date of the term, which
+ * may start in one year and end in the next.
+ * Architecture:MVC-Model
+ * @author Xiang Luo
+ */
+import java.text.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+
+public class AttendanceAnalytics {
+
+	public static final int ALL = 0;
+	public static final int PROGRAM = 1;
+	public static final int LEVEL = 2;
+	public static final int DATE = 3;
+	public static final int WEEK = 4;
+	public static final int[] PERCENTILES = {25, 50, 75, 90};
+
+	private static final int CHUNK_ROWS = 1 << 14;
+
+	private AttendanceData data;
+	private AttendanceStatistics statistics;
+	private int modCount;
+	private HashMap<String, List<AttendanceSummary>> cache;
+
+   /**
+   * This is AttendanceAnalytics's constructor which initializes member
+   * variables. Nothing is computed yet.
+   * @param data the AttendanceData to analyze.
+   */
+	public AttendanceAnalytics(AttendanceData data)
+	{
+		this.data = data;
+		cache = new HashMap<String, List<AttendanceSummary>>();
+	}
+
+   /**
+   * This is the summarize method which gets the summary of every group of
+   * students for every group of dates. They are computed the first time they
+   * are asked for and kept until the attendance data changes.
+   * @param students ALL, PROGRAM or LEVEL.
+   * @param dates ALL, DATE or WEEK.
+   * @param percent the percentage of the sessions of the dates under which
+   *		 the students are counted.
+   * @return the summaries, for each group of students in the order they first
+   *		 appear in the roster, one for each group of dates in date order.
+   *		 The list cannot be changed.
+   */
+	public synchronized List<AttendanceSummary> summarize(int students, int dates, int percent) {
+		if(students != ALL && students != PROGRAM && students != LEVEL) {
+			throw new IllegalArgumentException("Students cannot be grouped by " + students);
+		}
+		if(dates != ALL && dates != DATE && dates != WEEK) {
+			throw new IllegalArgumentException("Dates cannot be grouped by " + dates);
+		}
+		AttendanceStatistics current = data.getStatistics();
+		if(current != statistics || current.getModCount() != modCount) {
+			statistics = current;
+			modCount = current.getModCount();
+			cache.clear();
+		}
+		String key = students + ":" + dates + ":" + percent;
+		List<AttendanceSummary> summaries = cache.get(key);
+		if(summaries == null) {
+			summaries = Collections.unmodifiableList(compute(students, dates, percent));
+			cache.put(key, summaries);
+		}
+		return summaries;
+	}
+
+   /**
+   * This is the compute method which computes the summaries of every group of
+   * students, one group of dates at a time.
+   * @param students ALL, PROGRAM or LEVEL.
+   * @param dates ALL, DATE or WEEK.
+   * @param percent the percentage of the session.
+   * @return the summaries.
+   */
+	private ArrayList<AttendanceSummary> compute(int students, int dates, int percent) {
+		AttendanceMatrix matrix = data.getMatrix();
+		int[] groupOfRow = new int[matrix.getRowCount()];
+		String[] groupNames = {"All students"};
+		GroupStatistics groups = null;
+		if(students == PROGRAM) {
+			groups = statistics.getPrograms();
+		} else if(students == LEVEL) {
+			groups = statistics.getLevels();
+		}
+		if(groups != null) {
+			groupNames = new String[groups.getGroupCount()];
+			for(int g = 0; g < groupNames.length; g++) {
+				groupNames[g] = groups.getName(g);
+			}
+			for(int i = 0; i < groupOfRow.length; i++) {
+				groupOfRow[i] = groups.getGroupOfRow(i);
+			}
+		}
+		ArrayList<String> dateNames = new ArrayList<String>();
+		ArrayList<int[]> dateColumns = new ArrayList<int[]>();
+		groupDates(matrix.getDates(), dates, dateNames, dateColumns);
+		AttendanceSummary[][] summaries = new AttendanceSummary[dateColumns.size()][];
+		for(int d = 0; d < summaries.length; d++) {
+			summaries[d] = summarizeDates(matrix, dateColumns.get(d), dateNames.get(d), groupOfRow, groupNames, percent);
+		}
+		ArrayList<AttendanceSummary> result = new ArrayList<AttendanceSummary>();
+		for(int g = 0; g < groupNames.length; g++) {
+			for(int d = 0; d < summaries.length; d++) {
+				result.add(summaries[d][g]);
+			}
+		}
+		return result;
+	}
+
+   /**
+   * This is the groupDates method which puts the columns of the dates in
+   * groups, each in date order. The dates that cannot be read as "MMM dd" come
+   * after the others, in the order they were added.
+   * @param labels the dates of the AttendanceMatrix.
+   * @param dates ALL, DATE or WEEK.
+   * @param names the list to fill with the name of every group.
+   * @param columns the list to fill with the columns of every group.
+   */
+	private static void groupDates(ArrayList<String> labels, int dates, ArrayList<String> names, ArrayList<int[]> columns) {
+		final int[] days = new int[labels.size()];
+		Integer[] order = new Integer[labels.size()];
+		for(int j = 0; j < days.length; j++) {
+			days[j] = dayOfYear(labels.get(j));
+			order[j] = j;
+		}
+		int first = wrapYear(days);
+		Arrays.sort(order, new Comparator<Integer>() {
+			public int compare(Integer a, Integer b) {
+				if(days[a] < 0 || days[b] < 0) {
+					return Boolean.compare(days[a] < 0, days[b] < 0);
+				}
+				return Integer.compare(days[a], days[b]);
+			}
+		});
+		if(dates == ALL) {
+			int[] all = new int[order.length];
+			for(int j = 0; j < all.length; j++) {
+				all[j] = order[j];
+			}
+			names.add("All dates");
+			columns.add(all);
+			return;
+		}
+		int start = 0;
+		while(start < order.length) {
+			int end = start + 1;
+			int week = -1;
+			if(dates == WEEK && days[order[start]] >= 0) {
+				week = (days[order[start]] - first) / 7;
+				while(end < order.length && days[order[end]] >= 0 && (days[order[end]] - first) / 7 == week) {
+					end++;
+				}
+			}
+			int[] group = new int[end - start];
+			for(int j = start; j < end; j++) {
+				group[j - start] = order[j];
+			}
+			if(week < 0) {
+				names.add(labels.get(order[start]));
+			} else {
+				names.add("Week " + (week + 1) + " (" + formatDay(first + week * 7) + ")");
+			}
+			columns.add(group);
+			start = end;
+		}
+	}
+
+   /**
+   * This is the wrapYear method which finds where the dates start when they
+   * cross the end of a year, such as a term from November to February: the
+   * dates start after the longest gap between two dates, counting the gap
+   * from the last date of the year to the first. The days before that gap are
+   * moved to the next year.
+   * @param days the day of the year of every date, or -1, which is changed
+   *		 for the dates of the next year.
+   * @return the first day, or 0 if no date could be read.
+   */
+	private static int wrapYear(int[] days) {
+		int[] sorted = new int[days.length];
+		int count = 0;
+		for(int j = 0; j < days.length; j++) {
+			if(days[j] >= 0) {
+				sorted[count++] = days[j];
+			}
+		}
+		if(count == 0) {
+			return 0;
+		}
+		Arrays.sort(sorted, 0, count);
+		int gap = sorted[0] + 366 - sorted[count - 1];
+		int last = -1;
+		for(int i = 0; i + 1 < count; i++) {
+			if(sorted[i + 1] - sorted[i] > gap) {
+				gap = sorted[i + 1] - sorted[i];
+				last = i;
+			}
+		}
+		if(last < 0) {
+			return sorted[0];
+		}
+		for(int j = 0; j < days.length; j++) {
+			if(days[j] >= 0 && days[j] <= sorted[last]) {
+				days[j] += 366;
+			}
+		}
+		return sorted[last + 1];
+	}
+
+   /**
+   * This is the dayOfYear method which reads a date as "MMM dd" in a leap
+   * year.
+   * @param date the date.
+   * @return the day of the year, from 1, or -1 if the date cannot be read.
+   */
+	private static int dayOfYear(String date) {
+		SimpleDateFormat format = new SimpleDateFormat("MMM dd yyyy");
+		format.setLenient(false);
+		try {
+			Calendar cal = Calendar.getInstance();
+			cal.setTime(format.parse(date + " 2000"));
+			return cal.get(Calendar.DAY_OF_YEAR);
+		} catch(ParseException e) {
+			return -1;
+		}
+	}
+
+   /**
+   * This is the formatDay method which formats a day of a leap year as
+   * "MMM dd".
+   * @param day the day of the year, from 1, or more than 366 for the next
+   *		 year.
+   * @return the date.
+   */
+	private static String formatDay(int day) {
+		Calendar cal = Calendar.getInstance();
+		cal.clear();
+		cal.set(Calendar.YEAR, 2000);
+		if(day > 366) {
+			day -= 366;
+		}
+		cal.set(Calendar.DAY_OF_YEAR, day);
+		return new SimpleDateFormat("MMM dd").format(cal.getTime());
+	}
+
+   /**
+   * This is the summarizeDates method which summarizes every group of
+   * students over one group of dates. The rows are summed in chunks in
+   * parallel, each chunk writing the minutes of its own rows and returning
+   * the totals of its groups on every date.
+   * @param matrix the AttendanceMatrix.
+   * @param columns the columns of the dates, in date order.
+   * @param name the name of the group of dates.
+   * @param groupOfRow the group of every student.
+   * @param groupNames the name of every group of students.
+   * @param percent the percentage of the session.
+   * @return the summary of every group of students.
+   */
+	private static AttendanceSummary[] summarizeDates(AttendanceMatrix matrix, int[] columns, String name, final int[] groupOfRow, String[] groupNames, int percent) {
+		final int groupCount = groupNames.length;
+		final int rowCount = groupOfRow.length;
+		final int[][] minutes = new int[columns.length][];
+		for(int c = 0; c < columns.length; c++) {
+			minutes[c] = matrix.getColumn(columns[c]);
+		}
+		final long[] sums = new long[rowCount];
+		ArrayList<ForkJoinTask<long[][]>> tasks = new ArrayList<ForkJoinTask<long[][]>>();
+		for(int from = 0; from < rowCount; from += CHUNK_ROWS) {
+			final int start = from;
+			final int end = Math.min(rowCount, from + CHUNK_ROWS);
+			tasks.add(ForkJoinTask.adapt(new Callable<long[][]>() {
+				public long[][] call() {
+					return sumRows(minutes, groupOfRow, groupCount, start, end, sums);
+				}
+			}));
+		}
+		ForkJoinTask.invokeAll(tasks);
+		long[][] dateTotals = new long[groupCount][columns.length];
+		for(ForkJoinTask<long[][]> task : tasks) {
+			long[][] partial = task.join();
+			for(int g = 0; g < groupCount; g++) {
+				for(int c = 0; c < columns.length; c++) {
+					dateTotals[g][c] += partial[g][c];
+				}
+			}
+		}
+
+		int[] starts = new int[groupCount + 1];
+		for(int i = 0; i < rowCount; i++) {
+			starts[groupOfRow[i] + 1]++;
+		}
+		for(int g = 0; g < groupCount; g++) {
+			starts[g + 1] += starts[g];
+		}
+		long[] values = new long[rowCount];
+		int[] next = Arrays.copyOf(starts, groupCount);
+		for(int i = 0; i < rowCount; i++) {
+			values[next[groupOfRow[i]]++] = sums[i];
+		}
+		AttendanceSummary[] summaries = new AttendanceSummary[groupCount];
+		long sessionMinutes = 0;
+		for(int c = 0; c < columns.length; c++) {
+			sessionMinutes += matrix.getSessionMinutes(columns[c]);
+		}
+		long limit = percent * sessionMinutes;
+		for(int g = 0; g < groupCount; g++) {
+			Arrays.parallelSort(values, starts[g], starts[g + 1]);
+			summaries[g] = summarize(groupNames[g], name, values, starts[g], starts[g + 1], dateTotals[g], limit);
+		}
+		return summaries;
+	}
+
+   /**
+   * This is the sumRows method which adds up the minutes of a chunk of rows
+   * over the given columns.
+   * @param minutes the columns of the dates.
+   * @param groupOfRow the group of every student.
+   * @param groupCount the number of groups of students.
+   * @param start the first row of the chunk.
+   * @param end the row after the chunk.
+   * @param sums the array to write the minutes of every row of the chunk in.
+   * @return the minutes of every group of students on every date.
+   */
+	private static long[][] sumRows(int[][] minutes, int[] groupOfRow, int groupCount, int start, int end, long[] sums) {
+		long[][] totals = new long[groupCount][minutes.length];
+		for(int c = 0; c < minutes.length; c++) {
+			int[] column = minutes[c];
+			for(int i = start; i < end; i++) {
+				sums[i] += column[i];
+				totals[groupOfRow[i]][c] += column[i];
+			}
+		}
+		return totals;
+	}
+
+   /**
+   * This is the summarize method which creates the summary of one group of
+   * students from their sorted minutes.
+   * @param group the name of the group of students.
+   * @param dates the name of the group of dates.
+   * @param values the minutes of the students over the dates.
+   * @param start the index of the first student of the group in values.
+   * @param end the index after the last student of the group.
+   * @param dateTotals the minutes of the group on each date.
+   * @param limit the percentage times the minutes of the sessions of the
+   *		 dates; a student is under the percentage if 100 times its minutes
+   *		 are less.
+   * @return the summary.
+   */
+	private static AttendanceSummary summarize(String group, String dates, long[] values, int start, int end, long[] dateTotals, long limit) {
+		int count = end - start;
+		int dateCount = dateTotals.length;
+		double[] percentiles = new double[PERCENTILES.length];
+		if(count > 0 && dateCount > 0) {
+			for(int p = 0; p < PERCENTILES.length; p++) {
+				int rank = Math.max(1, (int)Math.ceil(PERCENTILES[p] / 100.0 * count));
+				percentiles[p] = values[start + rank - 1] / (double)dateCount;
+			}
+		}
+		int low = start;
+		int high = end;
+		while(low < high) {
+			int middle = (low + high) >>> 1;
+			if(values[middle] * 100 < limit) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		long total = 0;
+		for(int c = 0; c < dateCount; c++) {
+			total += dateTotals[c];
+		}
+		double trend = 0;
+		if(count > 0 && dateCount > 1) {
+			double meanX = (dateCount - 1) / 2.0;
+			double meanY = total / ((double)count * dateCount);
+			double covariance = 0;
+			double variance = 0;
+			for(int c = 0; c < dateCount; c++) {
+				covariance += (c - meanX) * (dateTotals[c] / (double)count - meanY);
+				variance += (c - meanX) * (c - meanX);
+			}
+			trend = covariance / variance;
+		}
+		return new AttendanceSummary(group, dates, count, dateCount, total, percentiles, low - start, trend);
+	}
+
+}
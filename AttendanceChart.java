@@ -0,0 +1,160 @@
+/**
+ * This is the AttendanceChart class which is responsible for the scatter plot
+ * of the histogram of every date. The JFreeChart is created once and kept, and
+ * every time it is shown the histogram is counted again and only the series
+ * whose counts changed are refilled, with one change event for the whole
+ * chart. When there are more than MAX_SERIES dates, consecutive dates are
+ * combined into one series of their average counts, so a semester of dates
+ * draws MAX_SERIES series instead of one per date. The chart can also be
+ * saved as a PNG file without a display, for reports.
+ * Architecture:MVC-View
+ * @author Xiang Luo
+ */
+import java.awt.Color;
+import java.io.*;
+import java.util.*;
+import org.jfree.chart.*;
+import org.jfree.chart.plot.XYPlot;
+import org.jfree.data.xy.*;
+
+
+public class AttendanceChart {
+
+	public static final int MAX_SERIES = 12;
+	public static final int PNG_WIDTH = 800;
+	public static final int PNG_HEIGHT = 400;
+
+	private AttendanceData data;
+	private XYSeriesCollection dataset;
+	private JFreeChart chart;
+	private ArrayList<double[]> shown;
+	private int shownWidth;
+
+   /**
+   * This is AttendanceChart's constructor which creates the JFreeChart with
+   * no series.
+   * @param data the AttendanceData to plot.
+   */
+	public AttendanceChart(AttendanceData data)
+	{
+		this.data = data;
+		dataset = new XYSeriesCollection();
+		chart = ChartFactory.createScatterPlot("", "Percentage of Attendance", "Count", dataset);
+		XYPlot plot = (XYPlot)chart.getPlot();
+		plot.setBackgroundPaint(new Color(255, 228, 196));
+		shown = new ArrayList<double[]>();
+	}
+
+   /**
+   * This is the getChart getter which gets the JFreeChart. It is only
+   * updated by the update method.
+   * @return the JFreeChart.
+   */
+	public JFreeChart getChart() {
+		return chart;
+	}
+
+   /**
+   * This is the update method which counts the histogram of the dates and
+   * refills the series that changed: a series whose name and counts are the
+   * same is kept as it is, and the series from the first one whose name
+   * differs are replaced.
+   */
+	public void update() {
+		ArrayList<String> dates = data.getDates();
+		int[][] histogram = data.getHistogram();
+		int bucketWidth = data.getBucketWidth();
+		int groupSize = Math.max(1, (dates.size() + MAX_SERIES - 1) / MAX_SERIES);
+		chart.setNotify(false);
+		try {
+			int series = 0;
+			for(int first = 0; first < dates.size(); first += groupSize) {
+				int last = Math.min(dates.size(), first + groupSize) - 1;
+				String name = dates.get(first);
+				if(last > first) {
+					name += " to " + dates.get(last);
+				}
+				double[] counts = average(histogram, first, last);
+				if(series < dataset.getSeriesCount() && !dataset.getSeriesKey(series).equals(name)) {
+					while(dataset.getSeriesCount() > series) {
+						dataset.removeSeries(dataset.getSeriesCount() - 1);
+						shown.remove(shown.size() - 1);
+					}
+				}
+				if(series == dataset.getSeriesCount()) {
+					dataset.addSeries(new XYSeries(name));
+					shown.add(null);
+				}
+				if(bucketWidth != shownWidth || !Arrays.equals(counts, shown.get(series))) {
+					fill(dataset.getSeries(series), counts, bucketWidth);
+					shown.set(series, counts);
+				}
+				series++;
+			}
+			while(dataset.getSeriesCount() > series) {
+				dataset.removeSeries(dataset.getSeriesCount() - 1);
+				shown.remove(shown.size() - 1);
+			}
+			shownWidth = bucketWidth;
+			String label = "Count";
+			if(groupSize > 1) {
+				label = "Average count";
+			}
+			((XYPlot)chart.getPlot()).getRangeAxis().setLabel(label);
+		} finally {
+			chart.setNotify(true);
+		}
+	}
+
+   /**
+   * This is the average method which averages the counts of consecutive
+   * dates, bucket by bucket.
+   * @param histogram the counts of every date.
+   * @param first the column index of the first date.
+   * @param last the column index of the last date.
+   * @return the average count of every bucket.
+   */
+	private static double[] average(int[][] histogram, int first, int last) {
+		double[] counts = new double[histogram[first].length];
+		for(int j = first; j <= last; j++) {
+			for(int k = 0; k < counts.length; k++) {
+				counts[k] += histogram[j][k];
+			}
+		}
+		for(int k = 0; k < counts.length; k++) {
+			counts[k] /= last - first + 1;
+		}
+		return counts;
+	}
+
+   /**
+   * This is the fill method which replaces the points of a series without an
+   * event for every point.
+   * @param series the XYSeries.
+   * @param counts the count of every bucket.
+   * @param bucketWidth the width of a bucket, in percent of the session.
+   */
+	private static void fill(XYSeries series, double[] counts, int bucketWidth) {
+		series.setNotify(false);
+		series.clear();
+		for(int k = 0; k < counts.length; k++) {
+			series.add(AttendanceHistogram.getBucketPercent(k, bucketWidth), counts[k], false);
+		}
+		series.setNotify(true);
+	}
+
+   /**
+   * This is the saveAsPNG method which updates the chart and saves it as a
+   * PNG image. It needs no display, so it also works in the headless Batch
+   * class.
+   * @param file the PNG file.
+   * @param width the width of the image in pixels.
+   * @param height the height of the image in pixels.
+   * @throws IOException if the file cannot be written.
+   */
+	public void saveAsPNG(File file, int width, int height) throws IOException {
+		update();
+		ChartUtils.saveChartAsPNG(file, chart, width, height);
+	}
+
+}
@@ -0,0 +1,995 @@
+/**
+ * This is the AttendanceData class which is responsible for storing the roster
+ * and attendance data, for parsing and saving the CSV files, and for saving
+ * and restoring snapshots. The roster and the attendees of every date are also
+ * kept in an AttendanceStore, in memory by default or in the directory named
+ * by the attendance.store system property, in which case they are restored the
+ * next time the program starts. With a memory budget set by the
+ * attendance.memory system property, attendance files that are too large to
+ * sum in memory are spilled to disk by the SpillingAttendanceParser class.
+ * It does not use Swing or AWT, so it is shared
+ * by the Repository class and the headless Batch class.
+ * Architecture:MVC-Model
+ * @author Xiang Luo
+ */
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.CancellationException;
+
+
+public class AttendanceData {
+
+	public static final String STORE_PROPERTY = "attendance.store";
+	public static final String MEMORY_PROPERTY = "attendance.memory";
+	public static final int MAX_DETAIL = 1000;
+
+	private static final int PROGRESS_LINES = 4096;
+
+	private ArrayList<Student> students;
+	private HashMap<String, Student> studentsByASURITE;
+	private StringDictionary programs;
+	private StringDictionary levels;
+	private AttendanceMatrix matrix;
+	private AttendanceStatistics statistics;
+	private AttendanceIndex index;
+	private AttendanceAnalytics analytics;
+	private int bucketWidth;
+	private int riskWindow;
+	private AttendanceStore store;
+	private boolean rosterLoaded;
+	private boolean attendanceAdded;
+	private int studentsCount;
+	private int additionalCount;
+	private int linesRead;
+	private String loadedMessage;
+	private String additionalMessage;
+	private UnmatchedAttendees unmatched;
+
+   /**
+   * This is one of AttendanceData's constructors which keeps the roster and
+   * the attendees in a MemoryAttendanceStore.
+   */
+	public AttendanceData()
+	{
+		this(new MemoryAttendanceStore());
+	}
+
+   /**
+   * This is one of AttendanceData's constructors which allocates memory for
+   * the ArrayList, the AttendanceMatrix and its AttendanceStatistics and
+   * initializes member variables. The data in the store is only restored by
+   * the openStore method.
+   * @param store the AttendanceStore that keeps the roster and the attendees.
+   */
+	public AttendanceData(AttendanceStore store)
+	{
+		this.store = store;
+		students = new ArrayList<Student>();
+		studentsByASURITE = new HashMap<String, Student>();
+		programs = new StringDictionary();
+		levels = new StringDictionary();
+		matrix = new AttendanceMatrix(0);
+		statistics = new AttendanceStatistics(students, matrix, programs, levels);
+		index = new AttendanceIndex(this);
+		analytics = new AttendanceAnalytics(this);
+		bucketWidth = AttendanceHistogram.BUCKET_WIDTH;
+		riskWindow = AttendanceRisk.DEFAULT_WINDOW;
+		rosterLoaded = false;
+		attendanceAdded = false;
+		loadedMessage = "";
+		additionalMessage = "";
+		unmatched = new UnmatchedAttendees();
+	}
+
+   /**
+   * This is the getDates getter which gets the dates ArrayList of the
+   * AttendanceMatrix.
+   * @return the dates ArrayList.
+   */
+	public ArrayList<String> getDates() {
+		return matrix.getDates();
+	}
+
+   /**
+   * This is the getMatrix getter which gets the AttendanceMatrix that holds
+   * the minutes of every student for every date.
+   * @return the AttendanceMatrix.
+   */
+	public AttendanceMatrix getMatrix() {
+		return matrix;
+	}
+
+   /**
+   * This is the getHistogram method which gets the number of students in each
+   * bucket of attendance for every date, with the session length of every
+   * date and the bucket width set by the setBucketWidth method. The minutes
+   * of every date are sorted by the AttendanceHistogram of the
+   * AttendanceStatistics, so a new session length or bucket width is counted
+   * by binary search.
+   * @return the counts of each date in the order of the dates.
+   */
+	public int[][] getHistogram() {
+		return statistics.getHistogram().getCounts(bucketWidth);
+	}
+
+   /**
+   * This is the getBucketWidth getter which gets the width of the buckets of
+   * the histogram.
+   * @return the width of a bucket, in percent of the session.
+   */
+	public int getBucketWidth() {
+		return bucketWidth;
+	}
+
+   /**
+   * This is the setBucketWidth setter which sets the width of the buckets of
+   * the histogram.
+   * @param bucketWidth the width of a bucket, in percent of the session, from
+   *		 1 to 100.
+   */
+	public void setBucketWidth(int bucketWidth) {
+		if(bucketWidth < 1 || bucketWidth > 100) {
+			throw new IllegalArgumentException("Bucket width must be from 1 to 100%: " + bucketWidth);
+		}
+		this.bucketWidth = bucketWidth;
+	}
+
+   /**
+   * This is the setSessionMinutes method which sets the length of the
+   * session of a date, in the AttendanceStore too.
+   * @param column the column index of the date.
+   * @param minutes the length of the session in minutes, at least 1.
+   * @throws IOException if the store cannot be written.
+   */
+	public void setSessionMinutes(int column, int minutes) throws IOException {
+		matrix.setSessionMinutes(column, minutes);
+		statistics.sessionChanged();
+		storeSessionMinutes();
+	}
+
+   /**
+   * This is the setSessionMinutes method which sets the length of the
+   * session of every date, and of the dates that are added from now on, for
+   * this roster and the next ones, in the AttendanceStore too.
+   * @param minutes the length of the session in minutes, at least 1.
+   * @throws IOException if the store cannot be written.
+   */
+	public void setSessionMinutes(int minutes) throws IOException {
+		matrix.setDefaultSessionMinutes(minutes);
+		for(int j = 0; j < matrix.getDates().size(); j++) {
+			matrix.setSessionMinutes(j, minutes);
+		}
+		statistics.sessionChanged();
+		storeSessionMinutes();
+	}
+
+   /**
+   * This is the storeSessionMinutes method which writes the length of the
+   * session of every date to the AttendanceStore, if it has any dates.
+   * @throws IOException if the store cannot be written.
+   */
+	private void storeSessionMinutes() throws IOException {
+		if(store.getDateCount() == 0) {
+			return;
+		}
+		int[] sessionMinutes = new int[matrix.getDates().size()];
+		for(int j = 0; j < sessionMinutes.length; j++) {
+			sessionMinutes[j] = matrix.getSessionMinutes(j);
+		}
+		store.setSessionMinutes(sessionMinutes);
+	}
+
+   /**
+   * This is the getSessionMinutes method which gets the length of the
+   * session a date has, or will have once it is added.
+   * @param date the date of attendance.
+   * @return the length of the session in minutes.
+   */
+	private int getSessionMinutes(String date) {
+		int column = matrix.getDateIndex(date);
+		if(column < 0) {
+			return matrix.getDefaultSessionMinutes();
+		}
+		return matrix.getSessionMinutes(column);
+	}
+
+   /**
+   * This is the getRisk method which gets the AttendanceRisk of the students,
+   * with the window set by the setRiskWindow method.
+   * @return the AttendanceRisk.
+   */
+	public AttendanceRisk getRisk() {
+		AttendanceRisk risk = statistics.getRisk();
+		risk.setWindow(riskWindow);
+		return risk;
+	}
+
+   /**
+   * This is the getRiskWindow getter which gets the number of dates in the
+   * window of the AttendanceRisk.
+   * @return the number of dates.
+   */
+	public int getRiskWindow() {
+		return riskWindow;
+	}
+
+   /**
+   * This is the setRiskWindow setter which sets the number of dates in the
+   * window of the AttendanceRisk, for this roster and the next ones.
+   * @param riskWindow the number of dates, from 1 to 100.
+   */
+	public void setRiskWindow(int riskWindow) {
+		statistics.getRisk().setWindow(riskWindow);
+		this.riskWindow = riskWindow;
+	}
+
+   /**
+   * This is the getStatistics getter which gets the statistics of the roster
+   * and the attendance data.
+   * @return the AttendanceStatistics.
+   */
+	public AttendanceStatistics getStatistics() {
+		return statistics;
+	}
+
+   /**
+   * This is the getIndex getter which gets the AttendanceIndex that finds and
+   * sorts the rows of the roster.
+   * @return the AttendanceIndex.
+   */
+	public AttendanceIndex getIndex() {
+		return index;
+	}
+
+   /**
+   * This is the getAnalytics getter which gets the AttendanceAnalytics that
+   * breaks the attendance down by program, level, date and week.
+   * @return the AttendanceAnalytics.
+   */
+	public AttendanceAnalytics getAnalytics() {
+		return analytics;
+	}
+
+   /**
+   * This is the getStudents getter which gets the students ArrayList.
+   * @return the students ArrayList.
+   */
+	public ArrayList<Student> getStudents() {
+		return students;
+	}
+
+   /**
+   * This is the getStudent method which looks up a student on the roster by
+   * ASURITE.
+   * @param ASURITE the ASURITE of the student.
+   * @return the student, or null if the ASURITE is not on the roster.
+   */
+	public Student getStudent(String ASURITE) {
+		return studentsByASURITE.get(ASURITE);
+	}
+
+   /**
+   * This is the createStore method which creates the AttendanceStore named by
+   * the attendance.store system property: a LogAttendanceStore in that
+   * directory, or a MemoryAttendanceStore if the property is not set.
+   * @return the AttendanceStore.
+   * @throws IOException if the store cannot be opened.
+   */
+	public static AttendanceStore createStore() throws IOException {
+		String directory = System.getProperty(STORE_PROPERTY);
+		if(directory == null || directory.length() == 0) {
+			return new MemoryAttendanceStore();
+		}
+		return new LogAttendanceStore(new File(directory));
+	}
+
+   /**
+   * This is the getMemoryBudget method which reads the memory budget for
+   * parsing one attendance file from the attendance.memory system property,
+   * in bytes or with a k, m or g suffix.
+   * @return the budget in bytes, or 0 if there is no budget.
+   */
+	public static long getMemoryBudget() {
+		String budget = System.getProperty(MEMORY_PROPERTY);
+		if(budget == null || budget.trim().length() == 0) {
+			return 0;
+		}
+		budget = budget.trim().toLowerCase();
+		long unit = 1;
+		char suffix = budget.charAt(budget.length() - 1);
+		if(suffix == 'k') {
+			unit = 1L << 10;
+		} else if(suffix == 'm') {
+			unit = 1L << 20;
+		} else if(suffix == 'g') {
+			unit = 1L << 30;
+		}
+		if(unit > 1) {
+			budget = budget.substring(0, budget.length() - 1);
+		}
+		try {
+			return Math.max(Long.parseLong(budget.trim()) * unit, 0);
+		} catch(NumberFormatException e) {
+			return 0;
+		}
+	}
+
+   /**
+   * This is the getStore getter which gets the AttendanceStore that keeps the
+   * roster and the attendees of every date.
+   * @return the AttendanceStore.
+   */
+	public AttendanceStore getStore() {
+		return store;
+	}
+
+   /**
+   * This is the getHistory method which gets the minutes of one attendee on
+   * every date, looked up in the AttendanceStore.
+   * @param ASURITE the ASURITE of the attendee.
+   * @return the minutes keyed by date, in the order of the dates.
+   * @throws IOException if the store cannot be read.
+   */
+	public LinkedHashMap<String, Integer> getHistory(String ASURITE) throws IOException {
+		return store.getHistory(ASURITE);
+	}
+
+   /**
+   * This is the close method which closes the AttendanceStore.
+   * @throws IOException if the store cannot be closed.
+   */
+	public void close() throws IOException {
+		store.close();
+	}
+
+   /**
+   * This is the rosterIsLoaded getter which gets the boolean rosterLoaded.
+   * @return a boolean which indicates whether a roster file is loaded.
+   */
+	public boolean rosterIsLoaded() {
+		return rosterLoaded;
+	}
+
+   /**
+   * This is the attendanceIsAdded getter which gets the boolean
+   * attendanceAdded.
+   * @return a boolean which indicates whether an attendance file is loaded.
+   */
+	public boolean attendanceIsAdded() {
+		return attendanceAdded;
+	}
+
+   /**
+   * This is the getStudentsCount getter which gets the number of roster
+   * students found in the last attendance file.
+   * @return the number of roster students found in the last attendance file.
+   */
+	public int getStudentsCount() {
+		return studentsCount;
+	}
+
+   /**
+   * This is the getAdditionalCount getter which gets the number of attendees
+   * in the last attendance file that are not on the roster.
+   * @return the number of additional attendees in the last attendance file.
+   */
+	public int getAdditionalCount() {
+		return additionalCount;
+	}
+
+   /**
+   * This is the getLinesRead getter which gets the number of lines parsed
+   * from the last roster or attendance file.
+   * @return the number of lines parsed from the last file.
+   */
+	public int getLinesRead() {
+		return linesRead;
+	}
+
+   /**
+   * This is the getAttendanceLoadedMessage method which creates and returns
+   * the message that is shown to the user after attendance file is loaded,
+   * with the average attendance so far read from the AttendanceStatistics.
+   * The additional attendees are not in the message but in the
+   * UnmatchedAttendees, which the dialog lists one page at a time.
+   * @return the message that is shown to the user after attendance file is
+   *		 loaded.
+   */
+	public String getAttendanceLoadedMessage() {
+		int dateCount = matrix.getDates().size();
+		String s = "";
+		if(dateCount > 1) {
+			s = "s";
+		}
+		String summary = String.format("Average attendance: %.1f minutes per student over %d date" + s + ".", statistics.getAverageMinutes(), dateCount);
+		String message = "<html>" + loadedMessage + "<br>" + summary + "<br><br>" + additionalMessage + "</html>";
+		return message;
+	}
+
+   /**
+   * This is the getUnmatched getter which gets the attendees of the last
+   * loaded attendance files that are not in the roster.
+   * @return the UnmatchedAttendees.
+   */
+	public UnmatchedAttendees getUnmatched() {
+		return unmatched;
+	}
+
+   /**
+   * This is the openRosterFile method which parses the given roster file and
+   * replaces the roster with it.
+   * @param file the file to open as the roster file.
+   * @return true if the roster was loaded, false if the file is not valid.
+   * @throws IOException if the file cannot be read.
+   */
+	public boolean openRosterFile(File file) throws IOException {
+		RosterFile roster = parseRosterFile(file, null);
+		if(roster == null) {
+			return false;
+		}
+		setRoster(roster);
+		return true;
+	}
+
+   /**
+   * This is the openAttendanceFile method which parses the given attendance
+   * file and adds it for the given date.
+   * @param file the file to open as the attendance file.
+   * @param selectedDate the date of the attendance file.
+   * @return true if the attendance was added, false if the file is not valid.
+   * @throws IOException if the file cannot be read.
+   */
+	public boolean openAttendanceFile(File file, String selectedDate) throws IOException {
+		AttendanceFile attendance = parseAttendanceFile(file, selectedDate, null);
+		if(attendance == null) {
+			return false;
+		}
+		addAttendance(attendance);
+		return true;
+	}
+
+   /**
+   * This is the openSnapshot method which reads the given snapshot file and
+   * restores the state that was saved in it.
+   * @param file the snapshot file.
+   * @return true if the snapshot was restored, false if the file is not a
+   *		 valid snapshot.
+   * @throws IOException if the file cannot be read.
+   */
+	public boolean openSnapshot(File file) throws IOException {
+		SnapshotFile snapshot = SnapshotFile.read(file, null);
+		if(snapshot == null) {
+			return false;
+		}
+		restore(snapshot);
+		return true;
+	}
+
+   /**
+   * This is the saveSnapshot method which saves the roster, the dates, the
+   * attendance data and the attendee lists in a snapshot file.
+   * @param file the file to save the snapshot in.
+   * @throws IOException if the file cannot be written.
+   */
+	public void saveSnapshot(File file) throws IOException {
+		SnapshotFile.write(this, file);
+	}
+
+   /**
+   * This is the openStore method which restores the roster and the
+   * attendance data kept in the AttendanceStore, matching the attendees of
+   * every stored date to the roster again, with its stored session length.
+   * @return true if the store had a roster, false if it is empty.
+   * @throws IOException if the store cannot be read.
+   */
+	public boolean openStore() throws IOException {
+		RosterFile roster = store.getRoster();
+		if(roster == null) {
+			return false;
+		}
+		replaceRoster(roster);
+		studentsCount = 0;
+		additionalCount = 0;
+		for(int j = 0; j < store.getDateCount(); j++) {
+			int column = matrix.addDate(store.getDate(j));
+			if(store.getSessionMinutes(j) > 0) {
+				matrix.setSessionMinutes(column, store.getSessionMinutes(j));
+			}
+			statistics.dateAdded();
+			matchAttendees(column, store.getAttendees(j), store.getAttendeesTimes(j));
+			getRisk().update();
+		}
+		attendanceAdded = store.getDateCount() > 0;
+		createMessages(store.getDateCount());
+		return true;
+	}
+
+   /**
+   * This is the parseRosterFile method which parses the given file as a roster
+   * file into a RosterFile with the CSVReader class, so quoted fields such as
+   * "Computer Science, Minor" are kept whole. The ASURITE index is used to skip duplicate
+   * ASURITEs and later to match attendees in constant time. It does not change
+   * the current data, so it can run on a background thread.
+   * @param file the file to parse as a roster file.
+   * @param progress the LoadProgress to report to, or null.
+   * @return the parsed roster, or null if the file is not a valid roster file.
+   * @throws IOException if the file cannot be read.
+   * @throws CancellationException if the progress was cancelled.
+   */
+	public static RosterFile parseRosterFile(File file, LoadProgress progress) throws IOException {
+		CSVReader reader = new CSVReader(file);
+		ArrayList<Student> roster = new ArrayList<Student>();
+		HashMap<String, Student> rosterByASURITE = new HashMap<String, Student>();
+		StringDictionary programs = new StringDictionary();
+		StringDictionary levels = new StringDictionary();
+		int lines = 0;
+		try {
+			while(reader.next()) {
+				lines++;
+				if(progress != null && lines % PROGRESS_LINES == 0) {
+					report(progress, reader.getBytesRead(), lines);
+				}
+				if(reader.getFieldCount() != 6) {
+					return null;
+				}
+				String ASURITE = reader.getField(5);
+				if(!rosterByASURITE.containsKey(ASURITE)) {
+					Student student = new Student(reader.getField(0), reader.getField(1), reader.getField(2), reader.getField(3), reader.getField(4), ASURITE, programs, levels);
+					roster.add(student);
+					rosterByASURITE.put(ASURITE, student);
+				}
+			}
+			if(progress != null) {
+				report(progress, reader.getBytesRead(), lines);
+			}
+		} finally {
+			reader.close();
+		}
+		return new RosterFile(roster, rosterByASURITE, lines, programs, levels);
+	}
+
+   /**
+   * This is the parseAttendanceFile method which parses the given file as the
+   * attendance file for the given date and sums the minutes of every attendee
+   * into a map keyed by ASURITE. Files of MappedAttendanceParser.MIN_SIZE
+   * bytes or more are memory-mapped and parsed in parallel chunks by the
+   * MappedAttendanceParser class; smaller files are read with a CSVReader. A
+   * file that is not valid because its lines are join and leave events
+   * (ASURITE,join,leave) is parsed again by the AttendanceEvents class, which
+   * merges the overlapping connections of each attendee instead of summing
+   * them. A file that is too large for the memory budget is parsed by the
+   * SpillingAttendanceParser class instead. It does not change the current
+   * data, so it can run on a background thread.
+   * @param file the file to parse as an attendance file.
+   * @param selectedDate the date of the attendance file.
+   * @param progress the LoadProgress to report to, or null.
+   * @return the parsed attendance, or null if the file is not a valid
+   *		 attendance file.
+   * @throws IOException if the file cannot be read.
+   * @throws CancellationException if the progress was cancelled.
+   */
+	public static AttendanceFile parseAttendanceFile(File file, String selectedDate, LoadProgress progress) throws IOException {
+		long budget = getMemoryBudget();
+		if(SpillingAttendanceParser.needsSpilling(file, budget)) {
+			return SpillingAttendanceParser.parse(file, selectedDate, budget, progress);
+		}
+		return parseInMemory(file, selectedDate, progress);
+	}
+
+   /**
+   * This is the parseInMemory method which parses the given file as the
+   * attendance file for the given date with the minutes of every attendee in
+   * memory, whatever the memory budget.
+   * @param file the file to parse as an attendance file.
+   * @param selectedDate the date of the attendance file.
+   * @param progress the LoadProgress to report to, or null.
+   * @return the parsed attendance, or null if the file is not a valid
+   *		 attendance file.
+   * @throws IOException if the file cannot be read.
+   * @throws CancellationException if the progress was cancelled.
+   */
+	static AttendanceFile parseInMemory(File file, String selectedDate, LoadProgress progress) throws IOException {
+		AttendanceFile attendance;
+		if(file.length() >= MappedAttendanceParser.MIN_SIZE) {
+			attendance = MappedAttendanceParser.parse(file, selectedDate, progress);
+		} else {
+			attendance = sumAttendanceFile(file, selectedDate, progress);
+		}
+		if(attendance == null && AttendanceEvents.isEventFile(file)) {
+			return AttendanceEvents.parse(file, selectedDate, progress);
+		}
+		return attendance;
+	}
+
+   /**
+   * This is the sumAttendanceFile method which reads the given file with a
+   * CSVReader and sums the minutes of every attendee.
+   * @param file the file to parse as an attendance file.
+   * @param selectedDate the date of the attendance file.
+   * @param progress the LoadProgress to report to, or null.
+   * @return the parsed attendance, or null if a line is not valid.
+   * @throws IOException if the file cannot be read.
+   * @throws CancellationException if the progress was cancelled.
+   */
+	private static AttendanceFile sumAttendanceFile(File file, String selectedDate, LoadProgress progress) throws IOException {
+		CSVReader reader = new CSVReader(file);
+		LinkedHashMap<String, Integer> attendeesMinutes = new LinkedHashMap<String, Integer>();
+		int lines;
+		try {
+			lines = sumAttendance(reader, attendeesMinutes, progress);
+		} finally {
+			reader.close();
+		}
+		if(lines < 0) {
+			return null;
+		}
+		return new AttendanceFile(selectedDate, attendeesMinutes, lines);
+	}
+
+   /**
+   * This is the sumAttendance method which reads the ASURITE,minutes records
+   * of the given CSVReader and adds the minutes of every attendee to the given
+   * map keyed by ASURITE.
+   * @param reader the CSVReader to read the records from.
+   * @param attendeesMinutes the minutes of every attendee, in the order they
+   *		 first appear.
+   * @param progress the LoadProgress to report to, or null.
+   * @return the number of lines read, or -1 if a line is not valid or its
+   *		 minutes are not a number, like the header of a spreadsheet.
+   * @throws IOException if the records cannot be read.
+   * @throws CancellationException if the progress was cancelled.
+   */
+	static int sumAttendance(CSVReader reader, LinkedHashMap<String, Integer> attendeesMinutes, LoadProgress progress) throws IOException {
+		int lines = 0;
+		while(reader.next()) {
+			lines++;
+			if(progress != null && lines % PROGRESS_LINES == 0) {
+				report(progress, reader.getBytesRead(), lines);
+			}
+			if(reader.getFieldCount() != 2) {
+				return -1;
+			}
+			String ASURITE = reader.getField(0);
+			int time;
+			try {
+				time = reader.getInt(1);
+			} catch(NumberFormatException e) {
+				return -1;
+			}
+			Integer previousTime = attendeesMinutes.get(ASURITE);
+			if(previousTime != null) {
+				time += previousTime;
+			}
+			attendeesMinutes.put(ASURITE, time);
+		}
+		if(progress != null) {
+			report(progress, reader.getBytesRead(), lines);
+		}
+		return lines;
+	}
+
+   /**
+   * This is the report method which sends the number of bytes and rows parsed
+   * so far to the given LoadProgress and stops the parsing if it was
+   * cancelled.
+   * @param progress the LoadProgress to report to.
+   * @param bytes the number of bytes parsed so far.
+   * @param rows the number of rows parsed so far.
+   * @throws CancellationException if the progress was cancelled.
+   */
+	static void report(LoadProgress progress, long bytes, long rows) {
+		if(progress.isCancelled()) {
+			throw new CancellationException();
+		}
+		progress.update(bytes, rows);
+	}
+
+   /**
+   * This is the setRoster method which replaces the roster with the given
+   * parsed roster, in the AttendanceStore too, and places every student in
+   * its row of a new AttendanceMatrix. Loading a roster clears the dates and
+   * the attendance data of the previous roster.
+   * @param roster the parsed roster.
+   * @throws IOException if the store cannot be written.
+   */
+	public void setRoster(RosterFile roster) throws IOException {
+		store.setRoster(roster.getStudents());
+		replaceRoster(roster);
+	}
+
+   /**
+   * This is the replaceRoster method which replaces the roster in memory with
+   * the given roster and clears the dates, without changing the store.
+   * @param roster the roster.
+   */
+	private void replaceRoster(RosterFile roster) {
+		students = roster.getStudents();
+		studentsByASURITE = roster.getStudentsByASURITE();
+		programs = roster.getPrograms();
+		levels = roster.getLevels();
+		linesRead = roster.getLines();
+		int sessionMinutes = matrix.getDefaultSessionMinutes();
+		matrix = new AttendanceMatrix(students.size());
+		matrix.setDefaultSessionMinutes(sessionMinutes);
+		statistics = new AttendanceStatistics(students, matrix, programs, levels);
+		for(int i = 0; i < students.size(); i++) {
+			students.get(i).setRow(matrix, i);
+		}
+		loadedMessage = "";
+		additionalMessage = "";
+		unmatched.clear();
+		rosterLoaded = true;
+		attendanceAdded = false;
+	}
+
+   /**
+   * This is the restore method which replaces the roster, the dates, the
+   * attendance data and the attendee lists with the ones of the given
+   * snapshot, in the AttendanceStore too, and counts the AttendanceStatistics
+   * of the restored data.
+   * @param snapshot the snapshot read by the SnapshotFile class.
+   * @throws IOException if the store cannot be written.
+   */
+	public void restore(SnapshotFile snapshot) throws IOException {
+		setRoster(snapshot.getRoster());
+		ArrayList<String> dates = snapshot.getDates();
+		int[][] columns = snapshot.getColumns();
+		int[] sessionMinutes = snapshot.getSessionMinutes();
+		for(int j = 0; j < dates.size(); j++) {
+			int column = matrix.addDate(dates.get(j));
+			System.arraycopy(columns[j], 0, matrix.getColumn(column), 0, matrix.getRowCount());
+			if(sessionMinutes[j] > 0) {
+				matrix.setSessionMinutes(column, sessionMinutes[j]);
+			}
+		}
+		statistics = new AttendanceStatistics(students, matrix, programs, levels);
+		ArrayList<ArrayList<String>> attendeesLists = snapshot.getAttendeesLists();
+		ArrayList<ArrayList<Integer>> attendeesTimesLists = snapshot.getAttendeesTimesLists();
+		for(int j = 0; j < attendeesLists.size() && j < dates.size(); j++) {
+			store.addDate(dates.get(j), attendeesLists.get(j), attendeesTimesLists.get(j), matrix.getSessionMinutes(j));
+		}
+		attendanceAdded = snapshot.attendanceIsAdded();
+		String s = "";
+		if(students.size() > 1) {
+			s = "s";
+		}
+		loadedMessage = "Snapshot restored for " + students.size() + " user" + s + " in the roster.";
+	}
+
+   /**
+   * This is the addAttendance method which adds the given parsed attendance
+   * file: it stores the attendees and their minutes in the AttendanceStore,
+   * writes the minutes of the students into a new column of the
+   * AttendanceMatrix, and generates a report about the loaded attendance file.
+   * @param attendance the parsed attendance file.
+   * @throws IOException if the store or the spill file cannot be accessed.
+   */
+	public void addAttendance(AttendanceFile attendance) throws IOException {
+		studentsCount = 0;
+		additionalCount = 0;
+		unmatched.clear();
+		addFile(attendance);
+		createMessages(1);
+	}
+
+   /**
+   * This is the addFile method which adds one parsed attendance file, adds
+   * its students and additional attendees to the counts and merges the date
+   * into the AttendanceRisk. A spilled attendance
+   * file is read one attendee at a time and then deleted.
+   * @param attendance the parsed attendance file.
+   * @throws IOException if the store or the spill file cannot be accessed.
+   */
+	private void addFile(AttendanceFile attendance) throws IOException {
+		if(attendance.isSpilled()) {
+			addSpilledAttendance(attendance);
+			getRisk().update();
+			return;
+		}
+		LinkedHashMap<String, Integer> attendeesMinutes = attendance.getAttendeesMinutes();
+		ArrayList<String> attendees = new ArrayList<String>(attendeesMinutes.keySet());
+		ArrayList<Integer> attendeesTimes = new ArrayList<Integer>(attendeesMinutes.values());
+		store.addDate(attendance.getDate(), attendees, attendeesTimes, getSessionMinutes(attendance.getDate()));
+		int column = addDate(attendance.getDate());
+		linesRead = attendance.getLines();
+		matchAttendees(column, attendees, attendeesTimes);
+		getRisk().update();
+		attendanceAdded = true;
+	}
+
+   /**
+   * This is the addDate method which adds a column for a new date to the
+   * AttendanceMatrix. A date that is already loaded keeps its column, but
+   * the minutes of every student are taken away from the
+   * AttendanceStatistics and cleared, and its AttendanceIndex is dropped, so
+   * the date is replaced by the file loaded again instead of merged with it.
+   * @param date the date of attendance.
+   * @return the column index of the date.
+   */
+	private int addDate(String date) {
+		int column = matrix.getDateIndex(date);
+		if(column < 0) {
+			column = matrix.addDate(date);
+			statistics.dateAdded();
+			return column;
+		}
+		int[] minutes = matrix.getColumn(column);
+		for(int i = 0; i < minutes.length; i++) {
+			if(minutes[i] != 0) {
+				statistics.update(i, column, minutes[i], 0);
+				minutes[i] = 0;
+			}
+		}
+		index.dateChanged(column);
+		return column;
+	}
+
+   /**
+   * This is the matchAttendees method which matches each attendee of a date
+   * to a student through the ASURITE index, writes the minutes of the
+   * students into the column of the date while updating the
+   * AttendanceStatistics, and counts the students and the additional
+   * attendees, which are added to the UnmatchedAttendees.
+   * @param column the column index of the date in the AttendanceMatrix.
+   * @param attendees the ASURITEs of the attendees.
+   * @param attendeesTimes the minutes of the attendees.
+   */
+	private void matchAttendees(int column, ArrayList<String> attendees, ArrayList<Integer> attendeesTimes) {
+		int[] minutes = matrix.getColumn(column);
+		String date = matrix.getDates().get(column);
+		for(int i = 0; i < attendees.size(); i++) {
+			String ASURITE = attendees.get(i);
+			int time = attendeesTimes.get(i);
+			if(!matchAttendee(column, minutes, ASURITE, time)) {
+				unmatched.add(date, ASURITE, time);
+			}
+		}
+	}
+
+   /**
+   * This is the matchAttendee method which writes the minutes of an attendee
+   * into the column of the date if the attendee is a student of the roster,
+   * and counts the attendee as a student or as an additional attendee.
+   * @param column the column index of the date in the AttendanceMatrix.
+   * @param minutes the column of the date.
+   * @param ASURITE the ASURITE of the attendee.
+   * @param time the minutes of the attendee.
+   * @return true if the attendee is a student of the roster.
+   */
+	private boolean matchAttendee(int column, int[] minutes, String ASURITE, int time) {
+		Student student = studentsByASURITE.get(ASURITE);
+		if(student == null) {
+			additionalCount++;
+			return false;
+		}
+		int row = student.getRow();
+		statistics.update(row, column, minutes[row], time);
+		minutes[row] = time;
+		studentsCount++;
+		return true;
+	}
+
+   /**
+   * This is the addSpilledAttendance method which reads the attendees of a
+   * spilled attendance file one at a time, so only the students of the roster
+   * are kept: their minutes go into a new column of the AttendanceMatrix and
+   * into the AttendanceStore, and the additional attendees are only counted,
+   * with the first MAX_DETAIL of them added to the UnmatchedAttendees.
+   * @param attendance the spilled attendance file.
+   * @throws IOException if the store or the spill file cannot be accessed.
+   */
+	private void addSpilledAttendance(AttendanceFile attendance) throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(attendance.getSpillFile()), 1 << 16));
+		try {
+			int column = addDate(attendance.getDate());
+			int[] minutes = matrix.getColumn(column);
+			linesRead = attendance.getLines();
+			int listed = 0;
+			ArrayList<String> attendees = new ArrayList<String>();
+			ArrayList<Integer> attendeesTimes = new ArrayList<Integer>();
+			for(int i = 0; i < attendance.getAttendeeCount(); i++) {
+				String ASURITE = in.readUTF();
+				int time = in.readInt();
+				if(matchAttendee(column, minutes, ASURITE, time)) {
+					attendees.add(ASURITE);
+					attendeesTimes.add(time);
+				} else if(listed < MAX_DETAIL) {
+					unmatched.add(attendance.getDate(), ASURITE, time);
+					listed++;
+				}
+			}
+			store.addDate(attendance.getDate(), attendees, attendeesTimes, matrix.getSessionMinutes(column));
+		} finally {
+			in.close();
+			attendance.getSpillFile().delete();
+		}
+		attendanceAdded = true;
+	}
+
+   /**
+   * This is the addAttendance method which adds several parsed attendance
+   * files in one step, in the given order, and generates one report about all
+   * of them.
+   * @param attendanceFiles the parsed attendance files.
+   * @throws IOException if the store cannot be written.
+   */
+	public void addAttendance(List<AttendanceFile> attendanceFiles) throws IOException {
+		studentsCount = 0;
+		additionalCount = 0;
+		unmatched.clear();
+		for(AttendanceFile attendance : attendanceFiles) {
+			addFile(attendance);
+		}
+		createMessages(attendanceFiles.size());
+	}
+
+   /**
+   * This is the createMessages method which generates the report about the
+   * loaded attendance file(s) from the number of students and additional
+   * attendees found.
+   * @param fileCount the number of attendance files loaded.
+   */
+	private void createMessages(int fileCount) {
+		String s = " ";
+		String was = "was";
+		if(additionalCount > 1) {
+			s = "s ";
+			was = "were";
+		}
+		additionalMessage = "" + additionalCount + " additional attendee" + s + was + " found:";
+		s = "";
+		if(studentsCount > 1) {
+			s = "s";
+		}
+		loadedMessage = "Data loaded for " + studentsCount + " user" + s + " in the roster";
+		if(fileCount > 1) {
+			loadedMessage += " from " + fileCount + " files";
+		}
+		loadedMessage += ".";
+	}
+
+   /**
+   * This is the saveToCSV method which saves the roster and the attendance
+   * data in a CSV file with the same columns as the JTable. It writes straight
+   * from the roster and the AttendanceMatrix through the CSVWriter class, so
+   * the file is gzip-compressed if its name ends with .gz, and it replaces the
+   * file only once all of it has been written.
+   * @param file the file to save the data in.
+   * @throws IOException if the file cannot be written.
+   */
+	public void saveToCSV(File file) throws IOException {
+		CSVWriter writer = new CSVWriter(file);
+		try {
+			ArrayList<String> dates = matrix.getDates();
+			String[] header = {"ID", "First Name", "Last Name", "Program", "Level", "ASURITE"};
+			for(int i = 0; i < header.length; i++) {
+				writer.writeField(header[i]);
+			}
+			for(int i = 0; i < dates.size(); i++) {
+				writer.writeField(dates.get(i));
+			}
+			writer.endRecord();
+			int[][] columns = new int[dates.size()][];
+			for(int j = 0; j < columns.length; j++) {
+				columns[j] = matrix.getColumn(j);
+			}
+			for(int i = 0; i < students.size(); i++) {
+				Student student = students.get(i);
+				writer.writeField(student.getID());
+				writer.writeField(student.getFirstName());
+				writer.writeField(student.getLastName());
+				writer.writeField(student.getProgram());
+				writer.writeField(student.getLevel());
+				writer.writeField(student.getASURITE());
+				for(int j = 0; j < columns.length; j++) {
+					writer.writeInt(columns[j][i]);
+				}
+				writer.endRecord();
+			}
+			writer.commit();
+		} finally {
+			writer.close();
+		}
+	}
+
+}
@@ -0,0 +1,277 @@
+/**
+ * This is the AttendanceEvents class which is responsible for parsing
+ * attendance files of raw join and leave events (ASURITE,join,leave), where a
+ * student who reconnects has one line per connection. Adding up the lines
+ * would count the time twice when the connections overlap, so the intervals
+ * of each student are merged instead. Every join and leave is packed into
+ * one int with its time, the events are grouped by student with a counting
+ * sort, the events of each student are sorted, and one sweep adds up the
+ * time each student was connected at least once. The ASURITEs are looked up
+ * by their bytes in an open-addressing table and kept in one byte array, so
+ * nothing is allocated per line, and a line takes 12 bytes (20 while the
+ * events are merged).
+ * Architecture:MVC-Model
+ * @author Xiang Luo
+ */
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.CancellationException;
+
+
+public class AttendanceEvents {
+
+	public static final int FIELDS = 3;
+
+	private static final int PROGRESS_LINES = 4096;
+	private static final long TIME_BIAS = 1L << 29;
+	private static final long TIME_LIMIT = 1L << 30;
+	private static final int LEAVE = 1;
+
+	private int[] table;
+	private int[] hashes;
+	private int[] nameEnds;
+	private byte[] names;
+	private int attendeeCount;
+	private int[] lineAttendees;
+	private int[] events;
+	private int lineCount;
+	private long base;
+
+   /**
+   * This is AttendanceEvents's constructor which allocates memory for the
+   * given number of lines.
+   * @param capacity the number of lines expected.
+   */
+	public AttendanceEvents(int capacity)
+	{
+		table = new int[1024];
+		hashes = new int[256];
+		nameEnds = new int[256];
+		names = new byte[4096];
+		lineAttendees = new int[Math.max(capacity, 16)];
+		events = new int[lineAttendees.length * 2];
+	}
+
+   /**
+   * This is the isEventFile method which checks if the first line of the
+   * given file has the three fields of a join and leave event.
+   * @param file the attendance file.
+   * @return true if the file is an event file.
+   * @throws IOException if the file cannot be read.
+   */
+	public static boolean isEventFile(File file) throws IOException {
+		CSVReader reader = new CSVReader(file);
+		try {
+			return reader.next() && reader.getFieldCount() == FIELDS;
+		} finally {
+			reader.close();
+		}
+	}
+
+   /**
+   * This is the parse method which parses the given file of join and leave
+   * events as the attendance file for the given date.
+   * @param file the file to parse as an attendance file.
+   * @param selectedDate the date of the attendance file.
+   * @param progress the LoadProgress to report to, or null.
+   * @return the parsed attendance, or null if the file is not a valid event
+   *		 file.
+   * @throws IOException if the file cannot be read.
+   * @throws CancellationException if the progress was cancelled.
+   */
+	public static AttendanceFile parse(File file, String selectedDate, LoadProgress progress) throws IOException {
+		AttendanceEvents attendanceEvents = new AttendanceEvents((int)Math.min(file.length() / 48, 1 << 24));
+		CSVReader reader = new CSVReader(file);
+		int lines;
+		try {
+			lines = attendanceEvents.read(reader, progress);
+		} finally {
+			reader.close();
+		}
+		if(lines < 0) {
+			return null;
+		}
+		return new AttendanceFile(selectedDate, attendanceEvents.merge(), lines);
+	}
+
+   /**
+   * This is the read method which reads the ASURITE,join,leave records of the
+   * given CSVReader. The join and the leave of a record are kept as two
+   * events of the ASURITE.
+   * @param reader the CSVReader to read the records from.
+   * @param progress the LoadProgress to report to, or null.
+   * @return the number of lines read, or -1 if a line is not valid.
+   * @throws IOException if the records cannot be read.
+   * @throws CancellationException if the progress was cancelled.
+   */
+	public int read(CSVReader reader, LoadProgress progress) throws IOException {
+		int lines = 0;
+		while(reader.next()) {
+			lines++;
+			if(progress != null && lines % PROGRESS_LINES == 0) {
+				AttendanceData.report(progress, reader.getBytesRead(), lines);
+			}
+			if(reader.getFieldCount() != FIELDS) {
+				return -1;
+			}
+			try {
+				if(!add(lookup(reader), reader.getTime(1), reader.getTime(2))) {
+					return -1;
+				}
+			} catch(NumberFormatException e) {
+				return -1;
+			}
+		}
+		if(progress != null) {
+			AttendanceData.report(progress, reader.getBytesRead(), lines);
+		}
+		return lines;
+	}
+
+   /**
+   * This is the lookup method which finds the id of the ASURITE in the first
+   * field of the current record, and gives the next id to a new ASURITE. The
+   * ids are numbered in the order the ASURITEs first appear.
+   * @param reader the CSVReader with the current record.
+   * @return the id of the ASURITE.
+   */
+	private int lookup(CSVReader reader) {
+		int hash = reader.hashField(0);
+		int mask = table.length - 1;
+		int slot = (hash ^ hash >>> 16) & mask;
+		while(table[slot] != 0) {
+			int id = table[slot] - 1;
+			int start = 0;
+			if(id > 0) {
+				start = nameEnds[id - 1];
+			}
+			if(hashes[id] == hash && reader.fieldEquals(0, names, start, nameEnds[id] - start)) {
+				return id;
+			}
+			slot = (slot + 1) & mask;
+		}
+		int id = attendeeCount++;
+		if(id == hashes.length) {
+			hashes = Arrays.copyOf(hashes, id * 2);
+			nameEnds = Arrays.copyOf(nameEnds, id * 2);
+		}
+		int start = 0;
+		if(id > 0) {
+			start = nameEnds[id - 1];
+		}
+		int end = start + reader.getFieldLength(0);
+		if(end > names.length) {
+			names = Arrays.copyOf(names, Math.max(names.length * 2, end));
+		}
+		reader.copyField(0, names, start);
+		hashes[id] = hash;
+		nameEnds[id] = end;
+		table[slot] = id + 1;
+		if(attendeeCount * 2 > table.length) {
+			rehash();
+		}
+		return id;
+	}
+
+   /**
+   * This is the rehash method which doubles the size of the table of ids.
+   */
+	private void rehash() {
+		table = new int[table.length * 2];
+		int mask = table.length - 1;
+		for(int id = 0; id < attendeeCount; id++) {
+			int slot = (hashes[id] ^ hashes[id] >>> 16) & mask;
+			while(table[slot] != 0) {
+				slot = (slot + 1) & mask;
+			}
+			table[slot] = id + 1;
+		}
+	}
+
+   /**
+   * This is the add method which adds the join and the leave of one
+   * connection. The times are kept relative to the first time added, so a
+   * file may span 17 years either way.
+   * @param id the id of the attendee.
+   * @param join the time the attendee joined, in seconds.
+   * @param leave the time the attendee left, in seconds.
+   * @return false if the attendee left before joining or the time is out of
+   *		 range.
+   */
+	private boolean add(int id, long join, long leave) {
+		if(leave < join) {
+			return false;
+		}
+		if(lineCount == 0) {
+			base = join - TIME_BIAS;
+		}
+		join -= base;
+		leave -= base;
+		if(join < 0 || leave >= TIME_LIMIT) {
+			return false;
+		}
+		if(lineCount == lineAttendees.length) {
+			int capacity = (int)Math.min((long)lineCount * 2, Integer.MAX_VALUE / 2 - 8);
+			lineAttendees = Arrays.copyOf(lineAttendees, capacity);
+			events = Arrays.copyOf(events, capacity * 2);
+		}
+		lineAttendees[lineCount] = id;
+		events[lineCount * 2] = (int)join << 1;
+		events[lineCount * 2 + 1] = (int)leave << 1 | LEAVE;
+		lineCount++;
+		return true;
+	}
+
+   /**
+   * This is the merge method which groups the events by student with a
+   * counting sort, sorts the events of each student by time and sweeps them.
+   * A join at the same time as a leave sorts first, so connections that touch
+   * are merged too. The time from the join that starts a run of overlapping
+   * connections to the leave that ends it is counted once.
+   * @return the connected minutes of every attendee, rounded to the nearest
+   *		 minute, in the order they first appear.
+   */
+	public LinkedHashMap<String, Integer> merge() {
+		int[] starts = new int[attendeeCount + 1];
+		for(int i = 0; i < lineCount; i++) {
+			starts[lineAttendees[i] + 1] += 2;
+		}
+		for(int id = 0; id < attendeeCount; id++) {
+			starts[id + 1] += starts[id];
+		}
+		int[] grouped = new int[lineCount * 2];
+		int[] next = Arrays.copyOf(starts, attendeeCount);
+		for(int i = 0; i < lineCount; i++) {
+			int position = next[lineAttendees[i]];
+			grouped[position] = events[i * 2];
+			grouped[position + 1] = events[i * 2 + 1];
+			next[lineAttendees[i]] = position + 2;
+		}
+		long[] seconds = new long[attendeeCount];
+		for(int id = 0; id < attendeeCount; id++) {
+			Arrays.sort(grouped, starts[id], starts[id + 1]);
+			int open = 0;
+			int joined = 0;
+			for(int i = starts[id]; i < starts[id + 1]; i++) {
+				int time = grouped[i] >>> 1;
+				if((grouped[i] & LEAVE) == 0) {
+					if(open++ == 0) {
+						joined = time;
+					}
+				} else if(--open == 0) {
+					seconds[id] += time - joined;
+				}
+			}
+		}
+		LinkedHashMap<String, Integer> attendeesMinutes = new LinkedHashMap<String, Integer>(attendeeCount * 2);
+		int start = 0;
+		for(int i = 0; i < attendeeCount; i++) {
+			String ASURITE = new String(names, start, nameEnds[i] - start, StandardCharsets.UTF_8);
+			attendeesMinutes.put(ASURITE, (int)((seconds[i] + 30) / 60));
+			start = nameEnds[i];
+		}
+		return attendeesMinutes;
+	}
+
+}
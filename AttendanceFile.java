@@ -0,0 +1,105 @@
+/**
+ * This is the AttendanceFile class which is responsible for storing the
+ * minutes of every attendee parsed from one attendance file, summed by
+ * ASURITE, before they are added to the AttendanceData class. A file parsed
+ * by the SpillingAttendanceParser class keeps the minutes in a temporary
+ * spill file instead of in memory.
+ * Architecture:MVC-Model
+ * @author Xiang Luo
+ */
+import java.io.*;
+import java.util.*;
+
+
+public class AttendanceFile {
+
+	private String date;
+	private LinkedHashMap<String, Integer> attendeesMinutes;
+	private File spillFile;
+	private int attendeeCount;
+	private int lines;
+
+   /**
+   * This is one of AttendanceFile's constructors which keeps the minutes of
+   * every attendee in memory.
+   * @param date the date of the attendance file.
+   * @param attendeesMinutes the minutes of every attendee in the order they
+   *		 first appear in the file.
+   * @param lines the number of lines parsed from the attendance file.
+   */
+	public AttendanceFile(String date, LinkedHashMap<String, Integer> attendeesMinutes, int lines)
+	{
+		this.date = date;
+		this.attendeesMinutes = attendeesMinutes;
+		this.lines = lines;
+		attendeeCount = attendeesMinutes.size();
+	}
+
+   /**
+   * This is one of AttendanceFile's constructors which refers to a spill file
+   * of ASURITE (writeUTF) and minutes (writeInt) records.
+   * @param date the date of the attendance file.
+   * @param spillFile the temporary file with the minutes of every attendee.
+   * @param attendeeCount the number of records in the spill file.
+   * @param lines the number of lines parsed from the attendance file.
+   */
+	public AttendanceFile(String date, File spillFile, int attendeeCount, int lines)
+	{
+		this.date = date;
+		this.spillFile = spillFile;
+		this.attendeeCount = attendeeCount;
+		this.lines = lines;
+	}
+
+   /**
+   * This is the getDate getter which gets the date of the attendance file.
+   * @return the date of the attendance file.
+   */
+	public String getDate() {
+		return date;
+	}
+
+   /**
+   * This is the getAttendeesMinutes getter which gets the minutes of every
+   * attendee.
+   * @return the minutes of every attendee keyed by ASURITE, or null if they
+   *		 are in a spill file.
+   */
+	public LinkedHashMap<String, Integer> getAttendeesMinutes() {
+		return attendeesMinutes;
+	}
+
+   /**
+   * This is the isSpilled method which checks if the minutes are in a spill
+   * file.
+   * @return true if the minutes are in a spill file.
+   */
+	public boolean isSpilled() {
+		return spillFile != null;
+	}
+
+   /**
+   * This is the getSpillFile getter which gets the spill file.
+   * @return the spill file, or null if the minutes are in memory.
+   */
+	public File getSpillFile() {
+		return spillFile;
+	}
+
+   /**
+   * This is the getAttendeeCount getter which gets the number of attendees.
+   * @return the number of distinct ASURITEs in the attendance file.
+   */
+	public int getAttendeeCount() {
+		return attendeeCount;
+	}
+
+   /**
+   * This is the getLines getter which gets the number of lines parsed.
+   * @return the number of lines parsed from the attendance file.
+   */
+	public int getLines() {
+		return lines;
+	}
+
+}
@@ -0,0 +1,215 @@
+/**
+ * This is the AttendanceHistogram class which is responsible for counting how
+ * many students attended each part of a session on every date, which is what
+ * the plot shows. The session length of every date is kept by the
+ * AttendanceMatrix, and the buckets are a given percentage of the session
+ * wide (10% by default, which gives 11 buckets with the last one for the
+ * whole session or longer). The minutes of every date are sorted once into a
+ * primitive array, the dates in parallel, so the students in a bucket are
+ * counted with two binary searches for the minutes at its edges, and a new
+ * session length or bucket width is counted without reading the students
+ * again. A date is sorted again only when its column is changed.
+ * Architecture:MVC-Model
+ * @author Xiang Luo
+ */
+import java.util.*;
+import java.util.concurrent.*;
+
+
+public class AttendanceHistogram {
+
+	public static final int SESSION_MINUTES = 75;
+	public static final int BUCKET_WIDTH = 10;
+	public static final int BUCKETS = getBucketCount(BUCKET_WIDTH);
+
+	private AttendanceMatrix matrix;
+	private ArrayList<int[]> sorted;
+
+   /**
+   * This is AttendanceHistogram's constructor which sorts nothing until the
+   * counts are asked for.
+   * @param matrix the AttendanceMatrix to count.
+   */
+	public AttendanceHistogram(AttendanceMatrix matrix)
+	{
+		this.matrix = matrix;
+		sorted = new ArrayList<int[]>();
+	}
+
+   /**
+   * This is the invalidate method which forgets the sorted minutes of the
+   * given column, so they are sorted again the next time they are counted.
+   * It must be called whenever the minutes of a column change.
+   * @param column the column index of the date.
+   */
+	public void invalidate(int column) {
+		while(sorted.size() <= column) {
+			sorted.add(null);
+		}
+		sorted.set(column, null);
+	}
+
+   /**
+   * This is the getCounts method which gets the number of students in each
+   * bucket of BUCKET_WIDTH for every date.
+   * @return the counts of each date in the order of the dates, BUCKETS counts
+   *		 per date.
+   */
+	public int[][] getCounts() {
+		return getCounts(BUCKET_WIDTH);
+	}
+
+   /**
+   * This is the getCounts method which gets the number of students in each
+   * bucket of the given width for every date, with the session length of
+   * every date. Only the dates that changed since they were last counted are
+   * sorted, in parallel on the common ForkJoinPool.
+   * @param bucketWidth the width of a bucket, in percent of the session.
+   * @return the counts of each date in the order of the dates,
+   *		 getBucketCount(bucketWidth) counts per date.
+   */
+	public int[][] getCounts(int bucketWidth) {
+		int dateCount = matrix.getDates().size();
+		while(sorted.size() < dateCount) {
+			sorted.add(null);
+		}
+		ArrayList<Integer> stale = new ArrayList<Integer>();
+		for(int j = 0; j < dateCount; j++) {
+			if(sorted.get(j) == null) {
+				stale.add(j);
+			}
+		}
+		if(stale.size() == 1) {
+			sorted.set(stale.get(0), sort(matrix.getColumn(stale.get(0))));
+		} else if(stale.size() > 1) {
+			ArrayList<ForkJoinTask<int[]>> tasks = new ArrayList<ForkJoinTask<int[]>>();
+			for(int i = 0; i < stale.size(); i++) {
+				final int[] minutes = matrix.getColumn(stale.get(i));
+				tasks.add(ForkJoinTask.adapt(new Callable<int[]>() {
+					public int[] call() {
+						return sort(minutes);
+					}
+				}));
+			}
+			ForkJoinTask.invokeAll(tasks);
+			for(int i = 0; i < tasks.size(); i++) {
+				sorted.set(stale.get(i), tasks.get(i).join());
+			}
+		}
+		int[][] result = new int[dateCount][];
+		for(int j = 0; j < dateCount; j++) {
+			result[j] = count(sorted.get(j), matrix.getSessionMinutes(j), bucketWidth);
+		}
+		return result;
+	}
+
+   /**
+   * This is the getSorted method which gets the minutes of every student for
+   * a date in ascending order.
+   * @param column the column index of the date.
+   * @return the sorted minutes. The array must not be changed.
+   */
+	public int[] getSorted(int column) {
+		while(sorted.size() <= column) {
+			sorted.add(null);
+		}
+		if(sorted.get(column) == null) {
+			sorted.set(column, sort(matrix.getColumn(column)));
+		}
+		return sorted.get(column);
+	}
+
+   /**
+   * This is the sort method which sorts a copy of the minutes of a date.
+   * @param minutes the minutes of every student for the date.
+   * @return the minutes in ascending order.
+   */
+	private static int[] sort(int[] minutes) {
+		int[] copy = minutes.clone();
+		Arrays.sort(copy);
+		return copy;
+	}
+
+   /**
+   * This is the getBucketCount method which gets the number of buckets of the
+   * given width: one for each part of the session and one for the whole
+   * session or longer.
+   * @param bucketWidth the width of a bucket, in percent of the session, from
+   *		 1 to 100.
+   * @return the number of buckets.
+   */
+	public static int getBucketCount(int bucketWidth) {
+		if(bucketWidth < 1 || bucketWidth > 100) {
+			throw new IllegalArgumentException("Bucket width must be from 1 to 100%: " + bucketWidth);
+		}
+		return (100 + bucketWidth - 1) / bucketWidth + 1;
+	}
+
+   /**
+   * This is the getBucketPercent method which gets the percentage of the
+   * session at which a bucket starts.
+   * @param bucket the bucket, from 0 to getBucketCount(bucketWidth) - 1.
+   * @param bucketWidth the width of a bucket, in percent of the session.
+   * @return the percentage, 100 for the last bucket.
+   */
+	public static int getBucketPercent(int bucket, int bucketWidth) {
+		return Math.min(bucket * bucketWidth, 100);
+	}
+
+   /**
+   * This is the getCutMinutes method which gets the fewest minutes that are at
+   * least the given percentage of a session, so a student is under the
+   * percentage if it attended fewer minutes.
+   * @param percent the percentage of the session.
+   * @param sessionMinutes the length of the session.
+   * @return the minutes.
+   */
+	public static long getCutMinutes(long percent, long sessionMinutes) {
+		return (percent * sessionMinutes + 99) / 100;
+	}
+
+   /**
+   * This is the countBelow method which counts the sorted minutes that are
+   * less than the given minutes by binary search.
+   * @param sorted the minutes in ascending order.
+   * @param minutes the minutes to compare with.
+   * @return the number of minutes that are less.
+   */
+	public static int countBelow(int[] sorted, long minutes) {
+		int low = 0;
+		int high = sorted.length;
+		while(low < high) {
+			int middle = (low + high) >>> 1;
+			if(sorted[middle] < minutes) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+   /**
+   * This is the count method which counts the students in each bucket for one
+   * date with a binary search at the start of every bucket. A student is in
+   * the bucket of the percentage of the session it attended, rounded down,
+   * and attending the whole session or longer is the last bucket.
+   * @param sorted the minutes of every student for the date, in ascending
+   *		 order.
+   * @param sessionMinutes the length of the session of the date.
+   * @param bucketWidth the width of a bucket, in percent of the session.
+   * @return the number of students in each bucket.
+   */
+	public static int[] count(int[] sorted, int sessionMinutes, int bucketWidth) {
+		int[] buckets = new int[getBucketCount(bucketWidth)];
+		int below = 0;
+		for(int k = 1; k < buckets.length; k++) {
+			int next = countBelow(sorted, getCutMinutes(getBucketPercent(k, bucketWidth), sessionMinutes));
+			buckets[k - 1] = next - below;
+			below = next;
+		}
+		buckets[buckets.length - 1] = sorted.length - below;
+		return buckets;
+	}
+
+}
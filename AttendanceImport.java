@@ -0,0 +1,298 @@
+/**
+ * This is the AttendanceImport class which is responsible for importing many
+ * attendance files at once. It infers the date of each file from its name or
+ * from a manifest, and parses the files concurrently on a ForkJoinPool into
+ * AttendanceFile objects that are added to the AttendanceData in one step.
+ * Architecture:MVC-Model
+ * @author Xiang Luo
+ */
+import java.io.*;
+import java.text.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.*;
+
+
+public class AttendanceImport {
+
+	public static final String MANIFEST = "manifest.txt";
+
+	private static final Pattern YEAR_MONTH_DAY = Pattern.compile("(?<!\\d)(\\d{4})[-_.]?(\\d{2})[-_.]?(\\d{2})(?!\\d)");
+	private static final Pattern MONTH_DAY = Pattern.compile("(?<![a-zA-Z0-9.])(\\d{2})[-_](\\d{2})(?![a-zA-Z0-9]|\\.\\d)");
+	private static final Pattern MONTH_NAME_DAY = Pattern.compile("(?i)(?<![a-z])(jan(?:uary)?|feb(?:ruary)?|mar(?:ch)?|apr(?:il)?|may|june?|july?|aug(?:ust)?|sep(?:t(?:ember)?)?|oct(?:ober)?|nov(?:ember)?|dec(?:ember)?)[ _.-]?(\\d{1,2})(?!\\d)");
+	private static final String[] MONTH_NAMES = {"jan", "feb", "mar", "apr", "may", "jun", "jul", "aug", "sep", "oct", "nov", "dec"};
+
+	private ArrayList<File> files;
+	private ArrayList<String> dates;
+
+   /**
+   * This is AttendanceImport's constructor which allocates memory for the list
+   * of files and their dates.
+   */
+	public AttendanceImport()
+	{
+		files = new ArrayList<File>();
+		dates = new ArrayList<String>();
+	}
+
+   /**
+   * This is the getFiles getter which gets the files to import.
+   * @return the files ArrayList.
+   */
+	public ArrayList<File> getFiles() {
+		return files;
+	}
+
+   /**
+   * This is the getDates getter which gets the date of every file to import.
+   * @return the dates ArrayList.
+   */
+	public ArrayList<String> getDates() {
+		return dates;
+	}
+
+   /**
+   * This is the add method which adds a file with the given date.
+   * @param file the attendance file.
+   * @param date the date of the attendance file.
+   */
+	public void add(File file, String date) {
+		files.add(file);
+		dates.add(date);
+	}
+
+   /**
+   * This is the addAll method which adds the given files with the dates that
+   * are listed for them in a manifest, or else inferred from their names. The
+   * manifest is the file manifest.txt in the folder of each file, and lists
+   * one attendance.csv:date pair per line.
+   * @param selected the attendance files.
+   * @return the files for which no date could be found, which are not added.
+   * @throws IOException if a manifest cannot be read.
+   */
+	public ArrayList<File> addAll(File[] selected) throws IOException {
+		ArrayList<File> undated = new ArrayList<File>();
+		HashMap<File, HashMap<String, String>> manifests = new HashMap<File, HashMap<String, String>>();
+		for(int i = 0; i < selected.length; i++) {
+			File file = selected[i];
+			File folder = file.getAbsoluteFile().getParentFile();
+			HashMap<String, String> manifest = manifests.get(folder);
+			if(manifest == null) {
+				manifest = readManifest(new File(folder, MANIFEST));
+				manifests.put(folder, manifest);
+			}
+			String date = manifest.get(file.getName());
+			if(date == null) {
+				date = inferDate(file.getName());
+			}
+			if(date == null) {
+				undated.add(file);
+			} else {
+				add(file, date);
+			}
+		}
+		return undated;
+	}
+
+   /**
+   * This is the readManifest method which reads the attendance.csv:date pairs
+   * of a manifest, keyed by file name. The last colon separates the file from
+   * the date.
+   * @param manifest the manifest file.
+   * @return the dates keyed by file name, empty if there is no manifest.
+   * @throws IOException if the manifest cannot be read.
+   */
+	public static HashMap<String, String> readManifest(File manifest) throws IOException {
+		HashMap<String, String> dates = new HashMap<String, String>();
+		if(!manifest.isFile()) {
+			return dates;
+		}
+		BufferedReader br = new BufferedReader(new FileReader(manifest));
+		try {
+			String line;
+			while((line = br.readLine()) != null) {
+				int colon = line.lastIndexOf(':');
+				if(colon > 0 && colon < line.length() - 1) {
+					dates.put(new File(line.substring(0, colon).trim()).getName(), line.substring(colon + 1).trim());
+				}
+			}
+		} finally {
+			br.close();
+		}
+		return dates;
+	}
+
+   /**
+   * This is the inferDate method which infers the date of an attendance file
+   * from its name and formats it like the dates picked in the date dialog
+   * ("MMM dd"). It recognizes names that contain 2020-09-01, 20200901, 09-01
+   * or Sep 01, where 20200901 must not be part of a longer number such as an
+   * ID. A month and day like 09-01 must be two digits each joined by a dash or
+   * an underscore and must stand on their own, so a version such as v1.2 or
+   * v01-02 is not taken for a date, and a month must be spelled as its name
+   * or its first three letters. A match that is not a real day of the year,
+   * such as 02-30, is skipped instead of being rolled over to the next month.
+   * @param name the name of the attendance file.
+   * @return the date, or null if the name does not contain a valid date.
+   */
+	public static String inferDate(String name) {
+		Matcher matcher = YEAR_MONTH_DAY.matcher(name);
+		while(matcher.find()) {
+			String date = formatDate(Integer.parseInt(matcher.group(2)), Integer.parseInt(matcher.group(3)));
+			if(date != null) {
+				return date;
+			}
+		}
+		matcher = MONTH_NAME_DAY.matcher(name);
+		while(matcher.find()) {
+			int month = Arrays.asList(MONTH_NAMES).indexOf(matcher.group(1).substring(0, 3).toLowerCase()) + 1;
+			String date = formatDate(month, Integer.parseInt(matcher.group(2)));
+			if(date != null) {
+				return date;
+			}
+		}
+		matcher = MONTH_DAY.matcher(name);
+		while(matcher.find()) {
+			String date = formatDate(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+			if(date != null) {
+				return date;
+			}
+		}
+		return null;
+	}
+
+   /**
+   * This is the formatDate method which formats a month and a day like the
+   * dates picked in the date dialog ("MMM dd"). The Calendar is not lenient,
+   * so a day that is not in the month is rejected. February 29 is accepted,
+   * since the year is not known.
+   * @param month the month, from 1 to 12.
+   * @param day the day of the month.
+   * @return the date, or null if there is no such day.
+   */
+	private static String formatDate(int month, int day) {
+		Calendar cal = Calendar.getInstance();
+		cal.clear();
+		cal.setLenient(false);
+		cal.set(2000, month - 1, day);
+		try {
+			return new SimpleDateFormat("MMM dd").format(cal.getTime());
+		} catch(IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+   /**
+   * This is the findDuplicateDate method which finds a date that is used by
+   * two of the files to import, or that is already in the given dates.
+   * @param existing the dates that are already loaded.
+   * @return a duplicate date, or null if every date is new.
+   */
+	public String findDuplicateDate(List<String> existing) {
+		HashSet<String> seen = new HashSet<String>(existing);
+		for(int i = 0; i < dates.size(); i++) {
+			if(!seen.add(dates.get(i))) {
+				return dates.get(i);
+			}
+		}
+		return null;
+	}
+
+   /**
+   * This is the parse method which parses every file concurrently on a
+   * ForkJoinPool with one thread per processor. The progress reports the
+   * bytes and rows of all the files together.
+   * @param progress the LoadProgress to report to, or null.
+   * @return the parsed files in the order they were added, with null for a
+   *		 file that is not a valid attendance file.
+   * @throws IOException if a file cannot be read.
+   * @throws CancellationException if the progress was cancelled.
+   */
+	public ArrayList<AttendanceFile> parse(LoadProgress progress) throws IOException {
+		return parse(progress, null);
+	}
+
+   /**
+   * This is the parse method which parses every file concurrently like the
+   * other parse method, except that a file that cannot be read does not stop
+   * the others: its IOException is kept at its index in the failures array
+   * and its result is null. A file whose parsing fails with any other
+   * exception is taken as a file that is not a valid attendance file.
+   * @param progress the LoadProgress to report to, or null.
+   * @param failures the array to keep the IOException of each file in, with
+   *		 one element per file, or null to throw the first one.
+   * @return the parsed files in the order they were added, with null for a
+   *		 file that is not a valid attendance file or cannot be read.
+   * @throws IOException if a file cannot be read and failures is null.
+   * @throws CancellationException if the progress was cancelled.
+   */
+	public ArrayList<AttendanceFile> parse(final LoadProgress progress, final IOException[] failures) throws IOException {
+		final AtomicLong totalBytes = new AtomicLong();
+		final AtomicLong totalRows = new AtomicLong();
+		ArrayList<Callable<AttendanceFile>> tasks = new ArrayList<Callable<AttendanceFile>>();
+		for(int i = 0; i < files.size(); i++) {
+			final File file = files.get(i);
+			final String date = dates.get(i);
+			final int index = i;
+			tasks.add(new Callable<AttendanceFile>() {
+				public AttendanceFile call() throws IOException {
+					LoadProgress fileProgress = null;
+					if(progress != null) {
+						fileProgress = new PartialProgress(progress, totalBytes, totalRows);
+					}
+					if(failures == null) {
+						return AttendanceData.parseAttendanceFile(file, date, fileProgress);
+					}
+					try {
+						return AttendanceData.parseAttendanceFile(file, date, fileProgress);
+					} catch(IOException e) {
+						failures[index] = e;
+						return null;
+					} catch(CancellationException e) {
+						throw e;
+					} catch(RuntimeException e) {
+						return null;
+					}
+				}
+			});
+		}
+		ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+		try {
+			return invokeAll(pool, tasks);
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+   /**
+   * This is the invokeAll method which runs the given tasks on the given pool
+   * and waits for all of them. An IOException or a RuntimeException thrown by
+   * a task is thrown again as it is.
+   * @param pool the pool to run the tasks on.
+   * @param tasks the tasks to run.
+   * @return the results of the tasks in the order of the tasks.
+   * @throws IOException if a task threw an IOException.
+   * @throws CancellationException if the waiting thread was interrupted.
+   */
+	public static <T> ArrayList<T> invokeAll(ExecutorService pool, List<Callable<T>> tasks) throws IOException {
+		try {
+			ArrayList<T> results = new ArrayList<T>(tasks.size());
+			for(Future<T> future : pool.invokeAll(tasks)) {
+				results.add(future.get());
+			}
+			return results;
+		} catch(InterruptedException e) {
+			throw new CancellationException();
+		} catch(ExecutionException e) {
+			Throwable cause = e.getCause();
+			if(cause instanceof IOException) {
+				throw (IOException)cause;
+			} else if(cause instanceof RuntimeException) {
+				throw (RuntimeException)cause;
+			}
+			throw new IOException(cause);
+		}
+	}
+
+}
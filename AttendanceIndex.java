@@ -0,0 +1,471 @@
+/**
+ * This is the AttendanceIndex class which is responsible for finding and
+ * sorting the rows of the roster without scanning the students. It keeps the
+ * ASURITEs, first names and last names sorted in lower case, so the students
+ * whose name or ASURITE starts with some text are found by binary search, and
+ * the rows of every date sorted by minutes, so the students under a
+ * percentage of attendance are found by binary search too. The order of the
+ * rows by any column is sorted once and kept.
+ *
+ * The indexes are built the first time they are used and kept until a new
+ * roster is loaded. The index of the averages is built again when dates are
+ * added, and the index of a date is only built again when the date is loaded
+ * again, which replaces its minutes.
+ * Architecture:MVC-Model
+ * @author Xiang Luo
+ */
+import java.util.*;
+
+
+public class AttendanceIndex {
+
+	public static final int AVERAGE = -1;
+	public static final int ANY = -2;
+
+	private static final int[] PREFIX_COLUMNS = {5, 1, 2};
+
+	private AttendanceData data;
+	private ArrayList<Student> students;
+	private String[][] prefixKeys;
+	private int[][] prefixRows;
+	private HashMap<Integer, int[]> orders;
+	private HashMap<Integer, int[]> ranks;
+	private ArrayList<int[]> dateRows;
+	private ArrayList<long[]> dateMinutes;
+	private int averageDateCount;
+	private int[] averageRows;
+	private long[] averageTotals;
+	private int[] marks;
+	private int stamp;
+
+   /**
+   * This is AttendanceIndex's constructor which initializes member
+   * variables. No index is built yet.
+   * @param data the AttendanceData to index.
+   */
+	public AttendanceIndex(AttendanceData data)
+	{
+		this.data = data;
+		orders = new HashMap<Integer, int[]>();
+		ranks = new HashMap<Integer, int[]>();
+		dateRows = new ArrayList<int[]>();
+		dateMinutes = new ArrayList<long[]>();
+	}
+
+   /**
+   * This is the check method which drops every index if a new roster was
+   * loaded since they were built.
+   */
+	private void check() {
+		if(students == data.getStudents()) {
+			return;
+		}
+		students = data.getStudents();
+		prefixKeys = null;
+		prefixRows = null;
+		orders.clear();
+		ranks.clear();
+		dateRows.clear();
+		dateMinutes.clear();
+		averageRows = null;
+		averageTotals = null;
+	}
+
+   /**
+   * This is the dateChanged method which drops the index of a date, the
+   * positions of the rows in its order and the index of the averages, so
+   * they are built again with the new minutes of the date. It must be called
+   * when the minutes of a date are replaced.
+   * @param date the column index of the date.
+   */
+	public void dateChanged(int date) {
+		check();
+		if(date < dateRows.size()) {
+			dateRows.set(date, null);
+			dateMinutes.set(date, null);
+		}
+		ranks.remove(date + AttendanceTableModel.ROSTER_COLUMNS);
+		averageRows = null;
+		averageTotals = null;
+	}
+
+   /**
+   * This is the getValue method which gets the text of a roster column of a
+   * student.
+   * @param student the student.
+   * @param column the index of the roster column in the AttendanceTableModel.
+   * @return the text of the column.
+   */
+	private static String getValue(Student student, int column) {
+		switch(column) {
+			case 0:
+				return student.getID();
+			case 1:
+				return student.getFirstName();
+			case 2:
+				return student.getLastName();
+			case 3:
+				return student.getProgram();
+			case 4:
+				return student.getLevel();
+			default:
+				return student.getASURITE();
+		}
+	}
+
+   /**
+   * This is the sortRows method which sorts the rows by the given keys.
+   * @param keys the key of every row.
+   * @return the rows in the order of their keys, and in the order of the rows
+   *		 for equal keys.
+   */
+	private static int[] sortRows(final String[] keys) {
+		Integer[] order = new Integer[keys.length];
+		for(int i = 0; i < order.length; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, new Comparator<Integer>() {
+			public int compare(Integer a, Integer b) {
+				return keys[a].compareTo(keys[b]);
+			}
+		});
+		int[] rows = new int[order.length];
+		for(int i = 0; i < rows.length; i++) {
+			rows[i] = order[i];
+		}
+		return rows;
+	}
+
+   /**
+   * This is the sortRows method which sorts the rows by the given numbers.
+   * The numbers and the rows are packed in longs, so they are sorted as
+   * primitives.
+   * @param values the number of every row, which must fit in an int.
+   * @param rows the array to fill with the rows in the order of their
+   *		 numbers.
+   * @return the numbers in ascending order.
+   */
+	private static long[] sortRows(long[] values, int[] rows) {
+		long[] packed = new long[values.length];
+		for(int i = 0; i < packed.length; i++) {
+			packed[i] = (values[i] << 32) | i;
+		}
+		Arrays.sort(packed);
+		long[] sorted = new long[packed.length];
+		for(int i = 0; i < packed.length; i++) {
+			rows[i] = (int)packed[i];
+			sorted[i] = packed[i] >> 32;
+		}
+		return sorted;
+	}
+
+   /**
+   * This is the buildPrefixIndex method which sorts the lower case
+   * ASURITEs, first names and last names of the students.
+   */
+	private void buildPrefixIndex() {
+		prefixKeys = new String[PREFIX_COLUMNS.length][];
+		prefixRows = new int[PREFIX_COLUMNS.length][];
+		for(int k = 0; k < PREFIX_COLUMNS.length; k++) {
+			String[] keys = new String[students.size()];
+			for(int i = 0; i < keys.length; i++) {
+				keys[i] = getValue(students.get(i), PREFIX_COLUMNS[k]).toLowerCase(Locale.ROOT);
+			}
+			int[] rows = sortRows(keys);
+			String[] sortedKeys = new String[keys.length];
+			for(int i = 0; i < rows.length; i++) {
+				sortedKeys[i] = keys[rows[i]];
+			}
+			prefixKeys[k] = sortedKeys;
+			prefixRows[k] = rows;
+		}
+	}
+
+   /**
+   * This is the mark method which starts a new set of marked rows, so the
+   * same array is used for every search without clearing it.
+   * @return the stamp of the new set.
+   */
+	private int mark() {
+		if(marks == null || marks.length != students.size() || stamp == Integer.MAX_VALUE) {
+			marks = new int[students.size()];
+			stamp = 0;
+		}
+		return ++stamp;
+	}
+
+   /**
+   * This is the findPrefix method which finds the students whose ASURITE,
+   * first name or last name starts with the given text, ignoring case. The
+   * students of each field are next to each other in its sorted keys, so
+   * only the students found are visited.
+   * @param prefix the text to search for.
+   * @return the rows of the students found, each once, in no order.
+   */
+	public int[] findPrefix(String prefix) {
+		check();
+		if(prefixKeys == null) {
+			buildPrefixIndex();
+		}
+		prefix = prefix.toLowerCase(Locale.ROOT);
+		int current = mark();
+		int[] found = new int[16];
+		int count = 0;
+		for(int k = 0; k < prefixKeys.length; k++) {
+			String[] keys = prefixKeys[k];
+			int i = Arrays.binarySearch(keys, prefix);
+			if(i < 0) {
+				i = -i - 1;
+			} else {
+				while(i > 0 && keys[i - 1].equals(prefix)) {
+					i--;
+				}
+			}
+			for(; i < keys.length && keys[i].startsWith(prefix); i++) {
+				int row = prefixRows[k][i];
+				if(marks[row] != current) {
+					marks[row] = current;
+					if(count == found.length) {
+						found = Arrays.copyOf(found, count * 2);
+					}
+					found[count++] = row;
+				}
+			}
+		}
+		return Arrays.copyOf(found, count);
+	}
+
+   /**
+   * This is the buildDateIndex method which sorts the rows of a date by
+   * minutes, if they are not sorted yet.
+   * @param date the column index of the date.
+   */
+	private void buildDateIndex(int date) {
+		while(dateRows.size() <= date) {
+			dateRows.add(null);
+			dateMinutes.add(null);
+		}
+		if(dateRows.get(date) != null) {
+			return;
+		}
+		int[] minutes = data.getMatrix().getColumn(date);
+		long[] values = new long[minutes.length];
+		for(int i = 0; i < values.length; i++) {
+			values[i] = minutes[i];
+		}
+		int[] rows = new int[values.length];
+		dateMinutes.set(date, sortRows(values, rows));
+		dateRows.set(date, rows);
+	}
+
+   /**
+   * This is the buildAverageIndex method which sorts the rows by the total
+   * minutes of the students, if dates were added since it was last sorted.
+   */
+	private void buildAverageIndex() {
+		int dateCount = data.getDates().size();
+		if(averageRows != null && averageDateCount == dateCount) {
+			return;
+		}
+		AttendanceStatistics statistics = data.getStatistics();
+		long[] values = new long[students.size()];
+		for(int i = 0; i < values.length; i++) {
+			values[i] = statistics.getTotalMinutes(i);
+		}
+		averageRows = new int[values.length];
+		averageTotals = sortRows(values, averageRows);
+		averageDateCount = dateCount;
+	}
+
+   /**
+   * This is the findBelow method which finds the students who attended less
+   * than a percentage of the session on a date or on an average date. They
+   * are the first rows of the rows sorted by minutes, so they are found by
+   * binary search.
+   * @param date the column index of the date, or AVERAGE.
+   * @param percent the percentage of the session of the date, or of all the
+   *		 sessions for an average date.
+   * @return the rows of the students found, in ascending order of minutes.
+   */
+	public int[] findBelow(int date, int percent) {
+		check();
+		int[] rows;
+		long[] values;
+		long limit;
+		if(date == AVERAGE) {
+			buildAverageIndex();
+			rows = averageRows;
+			values = averageTotals;
+			limit = percent * data.getMatrix().getTotalSessionMinutes(averageDateCount);
+		} else {
+			buildDateIndex(date);
+			rows = dateRows.get(date);
+			values = dateMinutes.get(date);
+			limit = (long)percent * data.getMatrix().getSessionMinutes(date);
+		}
+		int low = 0;
+		int high = values.length;
+		while(low < high) {
+			int middle = (low + high) >>> 1;
+			if(values[middle] * 100 < limit) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return Arrays.copyOf(rows, low);
+	}
+
+   /**
+   * This is the getOrder method which gets the rows sorted by a column of
+   * the AttendanceTableModel: a roster column by its text, or a date by its
+   * minutes.
+   * @param column the index of the column in the AttendanceTableModel.
+   * @return the rows in ascending order. The array must not be changed.
+   */
+	public int[] getOrder(int column) {
+		check();
+		if(column >= AttendanceTableModel.ROSTER_COLUMNS) {
+			int date = column - AttendanceTableModel.ROSTER_COLUMNS;
+			buildDateIndex(date);
+			return dateRows.get(date);
+		}
+		int[] order = orders.get(column);
+		if(order == null) {
+			String[] keys = new String[students.size()];
+			for(int i = 0; i < keys.length; i++) {
+				keys[i] = getValue(students.get(i), column);
+			}
+			order = sortRows(keys);
+			orders.put(column, order);
+		}
+		return order;
+	}
+
+   /**
+   * This is the getRanks method which gets the position of every row in the
+   * order of a column, so a few rows are sorted by sorting their positions.
+   * @param column the index of the column in the AttendanceTableModel.
+   * @return the position of every row. The array must not be changed.
+   */
+	private int[] getRanks(int column) {
+		int[] rank = ranks.get(column);
+		if(rank == null) {
+			int[] order = getOrder(column);
+			rank = new int[order.length];
+			for(int i = 0; i < order.length; i++) {
+				rank[order[i]] = i;
+			}
+			ranks.put(column, rank);
+		}
+		return rank;
+	}
+
+   /**
+   * This is the keepBelow method which keeps the rows of the students who
+   * attended less than a percentage of the session on a date or on an
+   * average date, by reading their minutes, so only the given rows are
+   * visited.
+   * @param rows the rows to filter.
+   * @param date the column index of the date, or AVERAGE.
+   * @param percent the percentage of the session of the date, or of all the
+   *		 sessions for an average date.
+   * @return the rows kept, in the same order.
+   */
+	private int[] keepBelow(int[] rows, int date, int percent) {
+		int[] kept = new int[rows.length];
+		int count = 0;
+		if(date == AVERAGE) {
+			AttendanceStatistics statistics = data.getStatistics();
+			long limit = percent * data.getMatrix().getTotalSessionMinutes(data.getDates().size());
+			for(int i = 0; i < rows.length; i++) {
+				if(statistics.getTotalMinutes(rows[i]) * 100 < limit) {
+					kept[count++] = rows[i];
+				}
+			}
+		} else {
+			long limit = (long)percent * data.getMatrix().getSessionMinutes(date);
+			int[] minutes = data.getMatrix().getColumn(date);
+			for(int i = 0; i < rows.length; i++) {
+				if(minutes[rows[i]] * 100L < limit) {
+					kept[count++] = rows[i];
+				}
+			}
+		}
+		return Arrays.copyOf(kept, count);
+	}
+
+   /**
+   * This is the select method which finds the rows to show for a search and
+   * a filter, in the order of a column. The attendance of the students found
+   * by the search is read directly, and otherwise the students under the
+   * percentage are found by binary search, so only the rows found are
+   * visited and sorted. When sorting the rows found would take longer than
+   * going through the order of the column, they are picked from that order
+   * instead.
+   * @param prefix the text the ASURITE or a name must start with, or an empty
+   *		 string to show every student.
+   * @param date the column index of the date to filter on, AVERAGE, or ANY
+   *		 to not filter on attendance.
+   * @param percent the percentage of the session the students must be under.
+   * @param sortColumn the index of the column to sort by, or -1 to keep the
+   *		 order of the roster.
+   * @param descending true to sort in descending order.
+   * @return the rows to show, or null to show every student in the order of
+   *		 the roster.
+   */
+	public int[] select(String prefix, int date, int percent, int sortColumn, boolean descending) {
+		check();
+		int[] rows = null;
+		if(prefix.length() > 0) {
+			rows = findPrefix(prefix);
+		}
+		if(date != ANY) {
+			if(rows == null) {
+				rows = findBelow(date, percent);
+			} else {
+				rows = keepBelow(rows, date, percent);
+			}
+		}
+		if(sortColumn < 0) {
+			if(rows != null) {
+				Arrays.sort(rows);
+			}
+			return rows;
+		}
+		if(rows == null) {
+			rows = getOrder(sortColumn).clone();
+		} else if(rows.length * (32 - Integer.numberOfLeadingZeros(rows.length)) > students.size()) {
+			int[] order = getOrder(sortColumn);
+			int current = mark();
+			for(int i = 0; i < rows.length; i++) {
+				marks[rows[i]] = current;
+			}
+			int count = 0;
+			for(int i = 0; i < order.length; i++) {
+				if(marks[order[i]] == current) {
+					rows[count++] = order[i];
+				}
+			}
+		} else {
+			int[] rank = getRanks(sortColumn);
+			int[] order = getOrder(sortColumn);
+			for(int i = 0; i < rows.length; i++) {
+				rows[i] = rank[rows[i]];
+			}
+			Arrays.sort(rows);
+			for(int i = 0; i < rows.length; i++) {
+				rows[i] = order[rows[i]];
+			}
+		}
+		if(descending) {
+			for(int i = 0, j = rows.length - 1; i < j; i++, j--) {
+				int row = rows[i];
+				rows[i] = rows[j];
+				rows[j] = row;
+			}
+		}
+		return rows;
+	}
+
+}
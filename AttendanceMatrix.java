@@ -0,0 +1,179 @@
+/**
+ * This is the AttendanceMatrix class which is responsible for storing the
+ * minutes of every student on the roster for every date. Each date is mapped
+ * to a column index, and each column is a primitive int array with one entry
+ * per student, so a cell costs four bytes instead of a boxed Integer and a
+ * map entry in every Student. Every date also has the length of its session,
+ * which new dates take from the default session length.
+ * Architecture:MVC-Model
+ * @author Xiang Luo
+ */
+import java.util.*;
+
+
+public class AttendanceMatrix {
+
+	private int rowCount;
+	private ArrayList<String> dates;
+	private HashMap<String, Integer> dateIndexes;
+	private ArrayList<int[]> columns;
+	private int[] sessionMinutes;
+	private int defaultSessionMinutes;
+
+   /**
+   * This is AttendanceMatrix's constructor which allocates memory for the
+   * dates and the columns.
+   * @param rowCount the number of students on the roster.
+   */
+	public AttendanceMatrix(int rowCount)
+	{
+		this.rowCount = rowCount;
+		dates = new ArrayList<String>();
+		dateIndexes = new HashMap<String, Integer>();
+		columns = new ArrayList<int[]>();
+		sessionMinutes = new int[16];
+		defaultSessionMinutes = AttendanceHistogram.SESSION_MINUTES;
+	}
+
+   /**
+   * This is the getRowCount getter which gets the number of students.
+   * @return the number of rows.
+   */
+	public int getRowCount() {
+		return rowCount;
+	}
+
+   /**
+   * This is the getDates getter which gets the dates in the order they were
+   * added.
+   * @return the dates ArrayList.
+   */
+	public ArrayList<String> getDates() {
+		return dates;
+	}
+
+   /**
+   * This is the getDateIndex method which gets the column index of a date.
+   * @param date the date of attendance.
+   * @return the column index of the date, or -1 if there is no such date.
+   */
+	public int getDateIndex(String date) {
+		Integer index = dateIndexes.get(date);
+		if(index == null) {
+			return -1;
+		}
+		return index;
+	}
+
+   /**
+   * This is the addDate method which adds a column of zeros for the given date
+   * if it is not there yet.
+   * @param date the date of attendance.
+   * @return the column index of the date.
+   */
+	public int addDate(String date) {
+		Integer index = dateIndexes.get(date);
+		if(index != null) {
+			return index;
+		}
+		dates.add(date);
+		dateIndexes.put(date, columns.size());
+		if(columns.size() == sessionMinutes.length) {
+			sessionMinutes = Arrays.copyOf(sessionMinutes, columns.size() * 2);
+		}
+		sessionMinutes[columns.size()] = defaultSessionMinutes;
+		columns.add(new int[rowCount]);
+		return columns.size() - 1;
+	}
+
+   /**
+   * This is the getSessionMinutes getter which gets the length of the session
+   * of a date.
+   * @param column the column index of the date.
+   * @return the length of the session in minutes.
+   */
+	public int getSessionMinutes(int column) {
+		return sessionMinutes[column];
+	}
+
+   /**
+   * This is the setSessionMinutes setter which sets the length of the session
+   * of a date.
+   * @param column the column index of the date.
+   * @param minutes the length of the session in minutes, at least 1.
+   */
+	public void setSessionMinutes(int column, int minutes) {
+		if(minutes < 1) {
+			throw new IllegalArgumentException("A session must be at least 1 minute long: " + minutes);
+		}
+		sessionMinutes[column] = minutes;
+	}
+
+   /**
+   * This is the getTotalSessionMinutes method which adds up the length of the
+   * sessions of the first dates.
+   * @param dateCount the number of dates to add up.
+   * @return the minutes of the sessions.
+   */
+	public long getTotalSessionMinutes(int dateCount) {
+		long total = 0;
+		for(int j = 0; j < dateCount; j++) {
+			total += sessionMinutes[j];
+		}
+		return total;
+	}
+
+   /**
+   * This is the getDefaultSessionMinutes getter which gets the length of the
+   * session of the dates that are added.
+   * @return the length of the session in minutes.
+   */
+	public int getDefaultSessionMinutes() {
+		return defaultSessionMinutes;
+	}
+
+   /**
+   * This is the setDefaultSessionMinutes setter which sets the length of the
+   * session of the dates that are added from now on.
+   * @param minutes the length of the session in minutes, at least 1.
+   */
+	public void setDefaultSessionMinutes(int minutes) {
+		if(minutes < 1) {
+			throw new IllegalArgumentException("A session must be at least 1 minute long: " + minutes);
+		}
+		defaultSessionMinutes = minutes;
+	}
+
+   /**
+   * This is the getColumn method which gets the minutes of every student for
+   * the date at the given column index. The array is not copied.
+   * @param column the column index of the date.
+   * @return the minutes of every student, indexed by row.
+   */
+	public int[] getColumn(int column) {
+		return columns.get(column);
+	}
+
+   /**
+   * This is the getMinutes method which gets the minutes of one student for
+   * one date.
+   * @param row the row of the student.
+   * @param column the column index of the date.
+   * @return the minutes of the student for the date.
+   */
+	public int getMinutes(int row, int column) {
+		return columns.get(column)[row];
+	}
+
+   /**
+   * This is the setMinutes method which sets the minutes of one student for
+   * one date.
+   * @param row the row of the student.
+   * @param column the column index of the date.
+   * @param minutes the minutes of the student for the date.
+   */
+	public void setMinutes(int row, int column, int minutes) {
+		columns.get(column)[row] = minutes;
+	}
+
+}
@@ -0,0 +1,357 @@
+/**
+ * This is the AttendanceRisk class which is responsible for finding the
+ * students who are sliding. For every student it keeps a rolling window of
+ * the percentage of the session attended on the last dates, in the order the
+ * dates are added, with the running sums that give the moving average and the
+ * slope of the least-squares line through the window. It also counts the
+ * absences in a row up to the last date, which are not limited to the window.
+ * Each date that is merged updates these in constant time per student, so the
+ * dates before the window are never read again. The score of a student adds
+ * up the percentage missed on average, points for every absence in a row and
+ * the percentage points lost over the window along the slope, and the
+ * students with the highest scores are ranked with a bounded heap, which
+ * stays fast for a roster of 100000 students.
+ *
+ * A date that changes after it was merged, or a new session length, makes the
+ * window be built again from the AttendanceMatrix the next time it is read.
+ * Architecture:MVC-Model
+ * @author Xiang Luo
+ */
+import java.util.*;
+
+
+public class AttendanceRisk {
+
+	public static final int DEFAULT_WINDOW = 4;
+	public static final int ABSENT_PERCENT = 10;
+	public static final double STREAK_POINTS = 10;
+
+	private AttendanceMatrix matrix;
+	private int window;
+	private byte[] percents;
+	private int[] sums;
+	private int[] weightedSums;
+	private int[] streaks;
+	private int merged;
+	private boolean stale;
+	private int version;
+	private int[] ranking;
+	private int rankingVersion;
+
+   /**
+   * This is AttendanceRisk's constructor which allocates memory for the
+   * window of every student. Nothing is merged until the window is read.
+   * @param matrix the AttendanceMatrix of the roster.
+   */
+	public AttendanceRisk(AttendanceMatrix matrix)
+	{
+		this.matrix = matrix;
+		setWindow(DEFAULT_WINDOW);
+	}
+
+   /**
+   * This is the getWindow getter which gets the number of dates in the
+   * window.
+   * @return the number of dates.
+   */
+	public int getWindow() {
+		return window;
+	}
+
+   /**
+   * This is the setWindow setter which sets the number of dates in the
+   * window. The window is built again from the AttendanceMatrix if the
+   * number changes.
+   * @param window the number of dates, from 1 to 100.
+   */
+	public void setWindow(int window) {
+		if(window < 1 || window > 100) {
+			throw new IllegalArgumentException("The window must be from 1 to 100 dates: " + window);
+		}
+		if(window != this.window) {
+			this.window = window;
+			invalidate();
+		}
+	}
+
+   /**
+   * This is the invalidate method which makes the window be built again the
+   * next time it is read, for example when a session length changed.
+   */
+	public void invalidate() {
+		stale = true;
+	}
+
+   /**
+   * This is the columnChanged method which is called whenever a cell of the
+   * AttendanceMatrix changes. Only a change to a date that was already
+   * merged makes the window be built again.
+   * @param column the column index of the date.
+   */
+	public void columnChanged(int column) {
+		if(column < merged) {
+			stale = true;
+		}
+	}
+
+   /**
+   * This is the update method which merges the dates that were added since
+   * the last update, or builds the window again if it is stale.
+   */
+	public void update() {
+		int rowCount = matrix.getRowCount();
+		if(stale || percents == null) {
+			percents = new byte[rowCount * window];
+			sums = new int[rowCount];
+			weightedSums = new int[rowCount];
+			streaks = new int[rowCount];
+			merged = 0;
+			stale = false;
+			version++;
+		}
+		while(merged < matrix.getDates().size()) {
+			merge(matrix.getColumn(merged), matrix.getSessionMinutes(merged));
+		}
+	}
+
+   /**
+   * This is the merge method which slides the window of every student to the
+   * next date. When the window is full, the oldest percentage is dropped: the
+   * others move one place to the left, which takes their sum away from the
+   * weighted sum, and the new one is added last.
+   * @param minutes the minutes of every student for the date.
+   * @param sessionMinutes the length of the session of the date.
+   */
+	private void merge(int[] minutes, int sessionMinutes) {
+		int count = Math.min(merged, window);
+		int position = merged % window;
+		for(int i = 0; i < minutes.length; i++) {
+			int percent = (int)Math.max(0, Math.min(100, minutes[i] * 100L / sessionMinutes));
+			if(count == window) {
+				int oldest = percents[i * window + position];
+				weightedSums[i] -= sums[i] - oldest;
+				weightedSums[i] += (window - 1) * percent;
+				sums[i] += percent - oldest;
+			} else {
+				weightedSums[i] += count * percent;
+				sums[i] += percent;
+			}
+			percents[i * window + position] = (byte)percent;
+			if(percent < ABSENT_PERCENT) {
+				streaks[i]++;
+			} else {
+				streaks[i] = 0;
+			}
+		}
+		merged++;
+		version++;
+	}
+
+   /**
+   * This is the getDateCount method which gets the number of dates in the
+   * window of every student.
+   * @return the number of dates, at most the window.
+   */
+	public int getDateCount() {
+		update();
+		return Math.min(merged, window);
+	}
+
+   /**
+   * This is the getMovingAverage method which gets the average percentage of
+   * the session a student attended on the dates of the window.
+   * @param row the row of the student.
+   * @return the average percentage, or 0 if there are no dates.
+   */
+	public double getMovingAverage(int row) {
+		return average(row, getDateCount());
+	}
+
+   /**
+   * This is the getSlope method which gets the slope of the least-squares
+   * line through the percentages of a student on the dates of the window.
+   * @param row the row of the student.
+   * @return the percentage points gained per date, negative if the student
+   *		 is sliding, or 0 if there are less than two dates.
+   */
+	public double getSlope(int row) {
+		return slope(row, getDateCount());
+	}
+
+   /**
+   * This is the getStreak method which gets the number of dates in a row, up
+   * to the last date, on which a student attended less than ABSENT_PERCENT
+   * of the session.
+   * @param row the row of the student.
+   * @return the number of absences in a row.
+   */
+	public int getStreak(int row) {
+		update();
+		return streaks[row];
+	}
+
+   /**
+   * This is the getScore method which gets the risk score of a student: the
+   * percentage missed on average in the window, plus STREAK_POINTS for every
+   * absence in a row, plus the percentage points lost from the first date of
+   * the window to the last along the slope.
+   * @param row the row of the student.
+   * @return the score, higher for students who are more at risk, or 0 if
+   *		 there are no dates.
+   */
+	public double getScore(int row) {
+		return score(row, getDateCount());
+	}
+
+   /**
+   * This is the average method which gets the moving average of a student
+   * from the sum of the window.
+   * @param row the row of the student.
+   * @param count the number of dates in the window.
+   * @return the average percentage, or 0 if there are no dates.
+   */
+	private double average(int row, int count) {
+		if(count == 0) {
+			return 0;
+		}
+		return sums[row] / (double)count;
+	}
+
+   /**
+   * This is the slope method which gets the slope of a student from the sum
+   * and the weighted sum of the window, the dates being 0 to count - 1.
+   * @param row the row of the student.
+   * @param count the number of dates in the window.
+   * @return the slope, or 0 if there are less than two dates.
+   */
+	private double slope(int row, int count) {
+		if(count < 2) {
+			return 0;
+		}
+		double sumX = count * (count - 1) / 2.0;
+		double sumXX = (count - 1) * count * (2.0 * count - 1) / 6.0;
+		return (count * (double)weightedSums[row] - sumX * sums[row]) / (count * sumXX - sumX * sumX);
+	}
+
+   /**
+   * This is the score method which gets the score of a student from its
+   * window and streak.
+   * @param row the row of the student.
+   * @param count the number of dates in the window.
+   * @return the score, or 0 if there are no dates.
+   */
+	private double score(int row, int count) {
+		if(count == 0) {
+			return 0;
+		}
+		return 100 - average(row, count) + STREAK_POINTS * streaks[row] + Math.max(0, -slope(row, count) * (count - 1));
+	}
+
+   /**
+   * This is the getAtRisk method which ranks the students with the highest
+   * scores. The scores are computed once per update and the best count are
+   * kept in a min-heap, so ranking takes time proportional to the number of
+   * students times the logarithm of count. The ranking is kept until a date
+   * is merged.
+   * @param count the number of students to rank.
+   * @return the rows of the students, from the highest score down, with
+   *		 the lower row first for equal scores.
+   */
+	public int[] getAtRisk(int count) {
+		int dateCount = getDateCount();
+		int rowCount = matrix.getRowCount();
+		count = Math.min(count, rowCount);
+		if(ranking != null && rankingVersion == version && ranking.length >= count) {
+			return Arrays.copyOf(ranking, count);
+		}
+		double[] scores = new double[rowCount];
+		for(int i = 0; i < rowCount; i++) {
+			scores[i] = score(i, dateCount);
+		}
+		int[] heap = new int[count];
+		int size = 0;
+		for(int i = 0; i < rowCount && count > 0; i++) {
+			if(size < count) {
+				heap[size] = i;
+				siftUp(heap, size, scores);
+				size++;
+			} else if(before(i, heap[0], scores)) {
+				heap[0] = i;
+				siftDown(heap, size, scores);
+			}
+		}
+		int[] rows = new int[size];
+		while(size > 0) {
+			rows[size - 1] = heap[0];
+			size--;
+			heap[0] = heap[size];
+			siftDown(heap, size, scores);
+		}
+		ranking = rows;
+		rankingVersion = version;
+		return rows.clone();
+	}
+
+   /**
+   * This is the before method which checks if a student ranks before
+   * another: a higher score, or the lower row for equal scores.
+   * @param a the row of a student.
+   * @param b the row of the other student.
+   * @param scores the score of every student.
+   * @return true if a ranks before b.
+   */
+	private static boolean before(int a, int b, double[] scores) {
+		if(scores[a] != scores[b]) {
+			return scores[a] > scores[b];
+		}
+		return a < b;
+	}
+
+   /**
+   * This is the siftUp method which moves the last row of the heap up until
+   * its parent ranks before it, so the row that ranks last is on top.
+   * @param heap the rows of the heap.
+   * @param index the index of the row to move.
+   * @param scores the score of every student.
+   */
+	private static void siftUp(int[] heap, int index, double[] scores) {
+		while(index > 0) {
+			int parent = (index - 1) / 2;
+			if(!before(heap[parent], heap[index], scores)) {
+				return;
+			}
+			int row = heap[parent];
+			heap[parent] = heap[index];
+			heap[index] = row;
+			index = parent;
+		}
+	}
+
+   /**
+   * This is the siftDown method which moves the top row of the heap down
+   * until both its children rank before it.
+   * @param heap the rows of the heap.
+   * @param size the number of rows in the heap.
+   * @param scores the score of every student.
+   */
+	private static void siftDown(int[] heap, int size, double[] scores) {
+		int index = 0;
+		while(true) {
+			int child = index * 2 + 1;
+			if(child >= size) {
+				return;
+			}
+			if(child + 1 < size && before(heap[child], heap[child + 1], scores)) {
+				child++;
+			}
+			if(!before(heap[index], heap[child], scores)) {
+				return;
+			}
+			int row = heap[index];
+			heap[index] = heap[child];
+			heap[child] = row;
+			index = child;
+		}
+	}
+
+}
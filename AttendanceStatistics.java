@@ -0,0 +1,199 @@
+/**
+ * This is the AttendanceStatistics class which is responsible for the
+ * statistics of the attendance data: the histogram of attendance for every
+ * date, the total and average minutes of every student, and the totals of
+ * every program and every level. The totals are counted once when a roster is
+ * loaded and then updated cell by cell as attendance is added, so reading them
+ * never rescans the students, and the histogram sorts the minutes of a date
+ * once, so it can be counted for any session length or bucket width. The
+ * AttendanceRisk of the students is told which dates change.
+ * Architecture:MVC-Model
+ * @author Xiang Luo
+ */
+import java.util.*;
+
+
+public class AttendanceStatistics {
+
+	private AttendanceMatrix matrix;
+	private AttendanceHistogram histogram;
+	private AttendanceRisk risk;
+	private int dateCount;
+	private long[] totals;
+	private long totalMinutes;
+	private GroupStatistics programs;
+	private GroupStatistics levels;
+	private int modCount;
+
+   /**
+   * This is AttendanceStatistics's constructor which counts the statistics of
+   * the minutes that are already in the AttendanceMatrix.
+   * @param students the students, indexed by row.
+   * @param matrix the minutes of the students.
+   * @param programDictionary the dictionary the programs of the students are
+   *		 encoded in.
+   * @param levelDictionary the dictionary the levels of the students are
+   *		 encoded in.
+   */
+	public AttendanceStatistics(List<Student> students, AttendanceMatrix matrix, StringDictionary programDictionary, StringDictionary levelDictionary)
+	{
+		this.matrix = matrix;
+		int[] programCodes = new int[students.size()];
+		int[] levelCodes = new int[students.size()];
+		for(int i = 0; i < programCodes.length; i++) {
+			programCodes[i] = students.get(i).getProgramCode();
+			levelCodes[i] = students.get(i).getLevelCode();
+		}
+		programs = new GroupStatistics(programDictionary, programCodes);
+		levels = new GroupStatistics(levelDictionary, levelCodes);
+		histogram = new AttendanceHistogram(matrix);
+		risk = new AttendanceRisk(matrix);
+		dateCount = matrix.getDates().size();
+		totals = new long[matrix.getRowCount()];
+		for(int j = 0; j < dateCount; j++) {
+			int[] minutes = matrix.getColumn(j);
+			for(int i = 0; i < minutes.length; i++) {
+				add(i, minutes[i]);
+			}
+		}
+	}
+
+   /**
+   * This is the add method which adds minutes of a student to the totals.
+   * @param row the row of the student.
+   * @param minutes the minutes to add, negative to take minutes away.
+   */
+	private void add(int row, long minutes) {
+		totals[row] += minutes;
+		totalMinutes += minutes;
+		programs.add(row, minutes);
+		levels.add(row, minutes);
+	}
+
+   /**
+   * This is the dateAdded method which counts the dates that were added to
+   * the AttendanceMatrix with no minutes.
+   */
+	public void dateAdded() {
+		while(dateCount < matrix.getDates().size()) {
+			histogram.invalidate(dateCount);
+			dateCount++;
+			modCount++;
+		}
+	}
+
+   /**
+   * This is the sessionChanged method which records that the length of a
+   * session changed, so the results that depend on it are computed again.
+   */
+	public void sessionChanged() {
+		risk.invalidate();
+		modCount++;
+	}
+
+   /**
+   * This is the update method which updates the statistics when the minutes
+   * of one student for one date change. It must be called for every cell
+   * that changes, including the cells that are cleared when a date is loaded
+   * again, since the statistics are only correct if the column is replaced
+   * rather than merged with the new file.
+   * @param row the row of the student.
+   * @param column the column index of the date.
+   * @param oldMinutes the minutes before the change.
+   * @param newMinutes the minutes after the change.
+   */
+	public void update(int row, int column, int oldMinutes, int newMinutes) {
+		histogram.invalidate(column);
+		risk.columnChanged(column);
+		add(row, (long)newMinutes - oldMinutes);
+		modCount++;
+	}
+
+   /**
+   * This is the getModCount getter which gets the number of changes made to
+   * the statistics, so the results computed from the attendance data can be
+   * kept until it changes.
+   * @return the number of changes.
+   */
+	public int getModCount() {
+		return modCount;
+	}
+
+   /**
+   * This is the getHistogram getter which gets the AttendanceHistogram of the
+   * dates.
+   * @return the AttendanceHistogram.
+   */
+	public AttendanceHistogram getHistogram() {
+		return histogram;
+	}
+
+   /**
+   * This is the getRisk getter which gets the AttendanceRisk of the students.
+   * @return the AttendanceRisk.
+   */
+	public AttendanceRisk getRisk() {
+		return risk;
+	}
+
+   /**
+   * This is the getTotalMinutes getter which gets the minutes attended by a
+   * student on all dates.
+   * @param row the row of the student.
+   * @return the total minutes.
+   */
+	public long getTotalMinutes(int row) {
+		return totals[row];
+	}
+
+   /**
+   * This is the getAverageMinutes method which gets the minutes attended by a
+   * student on an average date.
+   * @param row the row of the student.
+   * @return the average minutes, or 0 if there are no dates.
+   */
+	public double getAverageMinutes(int row) {
+		if(dateCount == 0) {
+			return 0;
+		}
+		return totals[row] / (double)dateCount;
+	}
+
+   /**
+   * This is the getTotalMinutes getter which gets the minutes attended by all
+   * the students on all dates.
+   * @return the total minutes.
+   */
+	public long getTotalMinutes() {
+		return totalMinutes;
+	}
+
+   /**
+   * This is the getAverageMinutes method which gets the minutes attended by a
+   * student on an average date, over all the students.
+   * @return the average minutes, or 0 if there are no students or dates.
+   */
+	public double getAverageMinutes() {
+		if(dateCount == 0 || totals.length == 0) {
+			return 0;
+		}
+		return totalMinutes / ((double)totals.length * dateCount);
+	}
+
+   /**
+   * This is the getPrograms getter which gets the totals of every program.
+   * @return the GroupStatistics of the programs.
+   */
+	public GroupStatistics getPrograms() {
+		return programs;
+	}
+
+   /**
+   * This is the getLevels getter which gets the totals of every level.
+   * @return the GroupStatistics of the levels.
+   */
+	public GroupStatistics getLevels() {
+		return levels;
+	}
+
+}
@@ -0,0 +1,119 @@
+/**
+ * This is the AttendanceStore interface which is responsible for storing the
+ * roster and the attendees of every date behind the AttendanceData class. The
+ * MemoryAttendanceStore class keeps them in ArrayLists and is the default, and
+ * the LogAttendanceStore class keeps them in a file so they are kept when the
+ * program exits. The length of the session of every date is stored with it.
+ * A store can be queried by date and by ASURITE.
+ * Architecture:MVC-Model
+ * @author Xiang Luo
+ */
+import java.io.*;
+import java.util.*;
+
+
+public interface AttendanceStore extends Closeable {
+
+   /**
+   * This is the setRoster method which replaces the roster and removes the
+   * attendees of every date, since they belong to the previous roster.
+   * @param students the students of the new roster.
+   * @throws IOException if the store cannot be written.
+   */
+	void setRoster(ArrayList<Student> students) throws IOException;
+
+   /**
+   * This is the getRoster method which gets the roster that was stored.
+   * @return the roster, or null if no roster was stored.
+   * @throws IOException if the store cannot be read.
+   */
+	RosterFile getRoster() throws IOException;
+
+   /**
+   * This is the addDate method which stores the attendees of a date. The
+   * attendees of a date that is already stored are replaced, and the date
+   * keeps its index.
+   * @param date the date.
+   * @param attendees the ASURITEs of the attendees, in the order of the
+   *		 attendance file.
+   * @param attendeesTimes the minutes of the attendees.
+   * @param sessionMinutes the length of the session of the date.
+   * @throws IOException if the store cannot be written.
+   */
+	void addDate(String date, List<String> attendees, List<Integer> attendeesTimes, int sessionMinutes) throws IOException;
+
+   /**
+   * This is the setSessionMinutes method which stores the length of the
+   * session of every date, after one or more were changed.
+   * @param sessionMinutes the length of the session of every date, in the
+   *		 order of the dates.
+   * @throws IOException if the store cannot be written.
+   */
+	void setSessionMinutes(int[] sessionMinutes) throws IOException;
+
+   /**
+   * This is the getSessionMinutes getter which gets the stored length of the
+   * session of a date.
+   * @param column the index of the date.
+   * @return the length of the session, or 0 if none was stored.
+   */
+	int getSessionMinutes(int column);
+
+   /**
+   * This is the getDateCount getter which gets the number of dates stored.
+   * @return the number of dates.
+   */
+	int getDateCount();
+
+   /**
+   * This is the getDate getter which gets a stored date.
+   * @param column the index of the date, in the order the dates were added.
+   * @return the date.
+   */
+	String getDate(int column);
+
+   /**
+   * This is the getColumn method which looks up the index of a date.
+   * @param date the date.
+   * @return the index of the date, or -1 if it is not stored.
+   */
+	int getColumn(String date);
+
+   /**
+   * This is the getAttendees method which gets the attendees of a date.
+   * @param column the index of the date.
+   * @return the ASURITEs of the attendees, in the order of the attendance
+   *		 file.
+   * @throws IOException if the store cannot be read.
+   */
+	ArrayList<String> getAttendees(int column) throws IOException;
+
+   /**
+   * This is the getAttendeesTimes method which gets the minutes of the
+   * attendees of a date.
+   * @param column the index of the date.
+   * @return the minutes, in the order of the attendees.
+   * @throws IOException if the store cannot be read.
+   */
+	ArrayList<Integer> getAttendeesTimes(int column) throws IOException;
+
+   /**
+   * This is the getMinutes method which looks up the minutes of one attendee
+   * on one date.
+   * @param column the index of the date.
+   * @param ASURITE the ASURITE of the attendee.
+   * @return the minutes, or -1 if the ASURITE did not attend on that date.
+   * @throws IOException if the store cannot be read.
+   */
+	int getMinutes(int column, String ASURITE) throws IOException;
+
+   /**
+   * This is the getHistory method which gets the minutes of one attendee on
+   * every date the attendee attended.
+   * @param ASURITE the ASURITE of the attendee.
+   * @return the minutes keyed by date, in the order of the dates.
+   * @throws IOException if the store cannot be read.
+   */
+	LinkedHashMap<String, Integer> getHistory(String ASURITE) throws IOException;
+
+}
@@ -0,0 +1,133 @@
+/**
+ * This is the AttendanceSummary class which is responsible for storing the
+ * statistics of one group of students over one group of dates, as computed by
+ * the AttendanceAnalytics class: the number of students, the total and the
+ * average minutes, the percentiles of the average minutes of the students,
+ * the number of students under a percentage of the session and the trend of
+ * the average over the dates. A summary never changes once it is created.
+ * Architecture:MVC-Model
+ * @author Xiang Luo
+ */
+
+
+public class AttendanceSummary {
+
+	private String group;
+	private String dates;
+	private int studentCount;
+	private int dateCount;
+	private long totalMinutes;
+	private double[] percentiles;
+	private int belowCount;
+	private double trend;
+
+   /**
+   * This is AttendanceSummary's constructor which initializes member
+   * variables.
+   * @param group the value shared by the students, such as a program.
+   * @param dates the name of the group of dates, such as a week.
+   * @param studentCount the number of students.
+   * @param dateCount the number of dates.
+   * @param totalMinutes the minutes attended by the students on the dates.
+   * @param percentiles the average minutes per date of the students at each
+   *		 of AttendanceAnalytics.PERCENTILES.
+   * @param belowCount the number of students under the percentage.
+   * @param trend the change of the average minutes from one date to the
+   *		 next.
+   */
+	public AttendanceSummary(String group, String dates, int studentCount, int dateCount, long totalMinutes, double[] percentiles, int belowCount, double trend)
+	{
+		this.group = group;
+		this.dates = dates;
+		this.studentCount = studentCount;
+		this.dateCount = dateCount;
+		this.totalMinutes = totalMinutes;
+		this.percentiles = percentiles;
+		this.belowCount = belowCount;
+		this.trend = trend;
+	}
+
+   /**
+   * This is the getGroup getter which gets the value shared by the students.
+   * @return the value of the group of students.
+   */
+	public String getGroup() {
+		return group;
+	}
+
+   /**
+   * This is the getDates getter which gets the name of the group of dates.
+   * @return the name of the group of dates.
+   */
+	public String getDates() {
+		return dates;
+	}
+
+   /**
+   * This is the getStudentCount getter which gets the number of students.
+   * @return the number of students.
+   */
+	public int getStudentCount() {
+		return studentCount;
+	}
+
+   /**
+   * This is the getDateCount getter which gets the number of dates.
+   * @return the number of dates.
+   */
+	public int getDateCount() {
+		return dateCount;
+	}
+
+   /**
+   * This is the getTotalMinutes getter which gets the minutes attended by the
+   * students on the dates.
+   * @return the total minutes.
+   */
+	public long getTotalMinutes() {
+		return totalMinutes;
+	}
+
+   /**
+   * This is the getAverageMinutes method which gets the minutes attended by a
+   * student on an average date.
+   * @return the average minutes, or 0 if there are no students or dates.
+   */
+	public double getAverageMinutes() {
+		if(studentCount == 0 || dateCount == 0) {
+			return 0;
+		}
+		return totalMinutes / ((double)studentCount * dateCount);
+	}
+
+   /**
+   * This is the getPercentile method which gets the average minutes per date
+   * under which the given share of the students fall.
+   * @param index the index of the percentile in AttendanceAnalytics.PERCENTILES.
+   * @return the average minutes of the student at the percentile.
+   */
+	public double getPercentile(int index) {
+		return percentiles[index];
+	}
+
+   /**
+   * This is the getBelowCount getter which gets the number of students who
+   * attended less than the percentage of the session on an average date.
+   * @return the number of students.
+   */
+	public int getBelowCount() {
+		return belowCount;
+	}
+
+   /**
+   * This is the getTrend getter which gets the slope of the least-squares
+   * line through the average minutes of the students on each date, in date
+   * order.
+   * @return the change in minutes from one date to the next, or 0 if there
+   *		 are less than two dates.
+   */
+	public double getTrend() {
+		return trend;
+	}
+
+}
@@ -0,0 +1,221 @@
+/**
+ * This is the AttendanceTableModel class which is responsible for showing the
+ * roster and the attendance data in the JTable. It reads every cell straight
+ * from the AttendanceData class instead of copying the data into the table,
+ * and only tells the JTable about the rows or the dates that changed. When a
+ * search, a filter or a sort is applied, the rows shown are mapped to the
+ * rows of the roster through an array found by the AttendanceIndex class.
+ * Architecture:MVC-View
+ * @author Xiang Luo
+ */
+import java.util.*;
+import javax.swing.table.AbstractTableModel;
+
+
+public class AttendanceTableModel extends AbstractTableModel {
+
+	public static final int ROSTER_COLUMNS = 6;
+	public static final int FROZEN_COLUMNS = 3;
+	private static final String[] ROSTER_HEADERS = {"ID", "First Name", "Last Name", "Program", "Level", "ASURITE"};
+
+	private AttendanceData data;
+	private ArrayList<Student> students;
+	private int rowCount;
+	private int dateCount;
+	private int[] rows;
+
+   /**
+   * This is AttendanceTableModel's constructor which initializes member
+   * variables.
+   * @param data the AttendanceData that holds the roster and the attendance
+   *		 data.
+   */
+	public AttendanceTableModel(AttendanceData data)
+	{
+		this.data = data;
+		students = data.getStudents();
+		rowCount = students.size();
+		dateCount = data.getDates().size();
+	}
+
+   /**
+   * This is the getRowCount method which gets the number of students shown.
+   * @return the number of rows.
+   */
+	@Override
+	public int getRowCount() {
+		if(rows != null) {
+			return rows.length;
+		}
+		return rowCount;
+	}
+
+   /**
+   * This is the getStudentRow method which gets the row of the roster that
+   * is shown in the given row.
+   * @param row the index of the row shown.
+   * @return the row of the student in the roster.
+   */
+	public int getStudentRow(int row) {
+		if(rows != null) {
+			return rows[row];
+		}
+		return row;
+	}
+
+   /**
+   * This is the setRows method which shows the given rows of the roster, in
+   * the given order.
+   * @param rows the rows of the roster to show, or null to show every
+   *		 student in the order of the roster.
+   */
+	public void setRows(int[] rows) {
+		if(rows == null && this.rows == null) {
+			return;
+		}
+		this.rows = rows;
+		fireTableDataChanged();
+	}
+
+   /**
+   * This is the getStudentCount getter which gets the number of students on
+   * the roster, shown or not.
+   * @return the number of students.
+   */
+	public int getStudentCount() {
+		return rowCount;
+	}
+
+   /**
+   * This is the getColumnCount method which gets the number of roster columns
+   * plus the number of dates shown.
+   * @return the number of columns.
+   */
+	@Override
+	public int getColumnCount() {
+		return ROSTER_COLUMNS + dateCount;
+	}
+
+   /**
+   * This is the getDateCount getter which gets the number of dates shown.
+   * @return the number of dates shown.
+   */
+	public int getDateCount() {
+		return dateCount;
+	}
+
+   /**
+   * This is the getColumnName method which gets the header of the roster
+   * columns or the date of the attendance columns.
+   * @param column the index of the column.
+   * @return the name of the column.
+   */
+	@Override
+	public String getColumnName(int column) {
+		if(column < ROSTER_COLUMNS) {
+			return ROSTER_HEADERS[column];
+		}
+		return data.getDates().get(column - ROSTER_COLUMNS);
+	}
+
+   /**
+   * This is the getColumnClass method which gets the class of the values in
+   * the given column, so the minutes are shown as numbers.
+   * @param column the index of the column.
+   * @return the class of the values in the column.
+   */
+	@Override
+	public Class<?> getColumnClass(int column) {
+		if(column < ROSTER_COLUMNS) {
+			return String.class;
+		}
+		return Integer.class;
+	}
+
+   /**
+   * This is the getValueAt method which gets the value of a cell from the
+   * student in the given row. The minutes of a date are boxed, so the View
+   * class draws them through the getMinutes method instead, and this method
+   * is left for the accessibility and the copying of the JTable.
+   * @param row the index of the row.
+   * @param column the index of the column.
+   * @return the value of the cell.
+   */
+	@Override
+	public Object getValueAt(int row, int column) {
+		row = getStudentRow(row);
+		if(column >= ROSTER_COLUMNS) {
+			return data.getMatrix().getMinutes(row, column - ROSTER_COLUMNS);
+		}
+		Student student = data.getStudents().get(row);
+		switch(column) {
+			case 0:
+				return student.getID();
+			case 1:
+				return student.getFirstName();
+			case 2:
+				return student.getLastName();
+			case 3:
+				return student.getProgram();
+			case 4:
+				return student.getLevel();
+			default:
+				return student.getASURITE();
+		}
+	}
+
+   /**
+   * This is the getMinutes method which gets the minutes of the student in
+   * the given row on a date, without boxing them.
+   * @param row the index of the row.
+   * @param column the index of the column of the date, at least
+   *		 ROSTER_COLUMNS.
+   * @return the minutes.
+   */
+	public int getMinutes(int row, int column) {
+		return data.getMatrix().getMinutes(getStudentRow(row), column - ROSTER_COLUMNS);
+	}
+
+   /**
+   * This is the rosterLoaded method which replaces the rows with the students
+   * of the new roster, with no search or filter. It fires a rows-deleted
+   * event for the old roster and a rows-inserted event for the new one. The
+   * new roster has no dates yet.
+   */
+	public void rosterLoaded() {
+		int oldRowCount = getRowCount();
+		rows = null;
+		rowCount = 0;
+		dateCount = 0;
+		if(oldRowCount > 0) {
+			fireTableRowsDeleted(0, oldRowCount - 1);
+		}
+		students = data.getStudents();
+		rowCount = students.size();
+		if(rowCount > 0) {
+			fireTableRowsInserted(0, rowCount - 1);
+		}
+	}
+
+   /**
+   * This is the rosterChanged method which checks if a roster was loaded, or
+   * a snapshot restored, since the rows were last shown.
+   * @return true if the rows show the students of an old roster.
+   */
+	public boolean rosterChanged() {
+		return data.getStudents() != students;
+	}
+
+   /**
+   * This is the datesAdded method which shows the dates that were added since
+   * the last call. The JTable is told about them by adding a TableColumn for
+   * each new date, so no table model event is fired.
+   * @return the index of the first new column.
+   */
+	public int datesAdded() {
+		int firstColumn = ROSTER_COLUMNS + dateCount;
+		dateCount = data.getDates().size();
+		return firstColumn;
+	}
+
+}
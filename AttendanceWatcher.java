@@ -0,0 +1,270 @@
+/**
+ * This is the AttendanceWatcher class which is responsible for watching a
+ * folder for the attendance files that the meeting platform saves after every
+ * session. A background thread waits on a WatchService and collects the new
+ * and changed CSV files until the folder has been quiet for a moment, so a
+ * burst of files (or a file that is still being written) becomes one batch.
+ * The date of each file is found in the manifest or in its name like in the
+ * AttendanceImport class, the batch is parsed concurrently, and the parsed
+ * files are handed to the batchParsed method together.
+ *
+ * A file counts as imported only once it was parsed, and it is imported again
+ * when its size or modification time changes. A file that cannot be read, or
+ * that changed while it was parsed because it is still being written, stays
+ * queued for the next batch without holding back the other files. A file that
+ * is not a valid attendance file is handed on as null, so it is reported once
+ * and not tried again until it changes.
+ * Architecture:MVC-Controller
+ * @author Xiang Luo
+ */
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+
+public abstract class AttendanceWatcher implements Runnable, Closeable {
+
+	public static final long QUIET_MILLIS = 2000;
+	public static final long MAX_DELAY_MILLIS = 10000;
+
+	private File folder;
+	private WatchService watchService;
+	private long quietMillis;
+	private LinkedHashMap<File, String> pending;
+	private HashMap<File, String> imported;
+	private long firstQueued;
+	private Thread thread;
+	private volatile boolean closed;
+
+   /**
+   * This is one of AttendanceWatcher's constructors which watches the given
+   * folder and waits QUIET_MILLIS after the last change before a batch.
+   * @param folder the folder to watch.
+   * @throws IOException if the folder cannot be watched.
+   */
+	public AttendanceWatcher(File folder) throws IOException
+	{
+		this(folder, QUIET_MILLIS);
+	}
+
+   /**
+   * This is one of AttendanceWatcher's constructors which registers the given
+   * folder with a new WatchService.
+   * @param folder the folder to watch.
+   * @param quietMillis how long the folder must be quiet before a batch.
+   * @throws IOException if the folder cannot be watched.
+   */
+	public AttendanceWatcher(File folder, long quietMillis) throws IOException
+	{
+		this.folder = folder.getAbsoluteFile();
+		this.quietMillis = quietMillis;
+		pending = new LinkedHashMap<File, String>();
+		imported = new HashMap<File, String>();
+		watchService = FileSystems.getDefault().newWatchService();
+		this.folder.toPath().register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+	}
+
+   /**
+   * This is the getFolder getter which gets the folder that is watched.
+   * @return the folder.
+   */
+	public File getFolder() {
+		return folder;
+	}
+
+   /**
+   * This is the start method which queues the attendance files that are
+   * already in the folder, so the files saved while the program was closed
+   * are imported too, and starts watching on a daemon thread.
+   */
+	public void start() {
+		scanFolder();
+		thread = new Thread(this, "Attendance watcher");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+   /**
+   * This is the close method which stops watching. A batch that is being
+   * parsed is not handed to the batchParsed method.
+   * @throws IOException if the WatchService cannot be closed.
+   */
+	@Override
+	public void close() throws IOException {
+		closed = true;
+		watchService.close();
+		if(thread != null) {
+			thread.interrupt();
+		}
+	}
+
+   /**
+   * This is the run method which waits for changes in the folder. A change
+   * queues its file and restarts the quiet period, and when the folder has
+   * been quiet for the whole period, or the oldest queued file has waited
+   * MAX_DELAY_MILLIS, the queued files are imported as one batch. An
+   * unexpected error in a batch is printed and does not stop the watching.
+   */
+	@Override
+	public void run() {
+		firstQueued = System.currentTimeMillis();
+		try {
+			while(!closed) {
+				long wait = quietMillis;
+				if(!pending.isEmpty()) {
+					wait = Math.min(wait, Math.max(firstQueued + MAX_DELAY_MILLIS - System.currentTimeMillis(), 0));
+				}
+				WatchKey key = watchService.poll(wait, TimeUnit.MILLISECONDS);
+				if(key != null) {
+					if(pending.isEmpty()) {
+						firstQueued = System.currentTimeMillis();
+					}
+					for(WatchEvent<?> event : key.pollEvents()) {
+						if(event.kind() == StandardWatchEventKinds.OVERFLOW) {
+							scanFolder();
+						} else {
+							queue(new File(folder, event.context().toString()));
+						}
+					}
+					key.reset();
+					if(System.currentTimeMillis() - firstQueued < MAX_DELAY_MILLIS) {
+						continue;
+					}
+				}
+				if(!pending.isEmpty()) {
+					try {
+						importPending();
+					} catch(RuntimeException e) {
+						e.printStackTrace();
+					}
+				}
+			}
+		} catch(InterruptedException e) {
+			return;
+		} catch(ClosedWatchServiceException e) {
+			return;
+		}
+	}
+
+   /**
+   * This is the scanFolder method which queues every attendance file in the
+   * folder.
+   */
+	private void scanFolder() {
+		File[] files = folder.listFiles();
+		if(files != null) {
+			for(int i = 0; i < files.length; i++) {
+				queue(files[i]);
+			}
+		}
+	}
+
+   /**
+   * This is the queue method which queues a CSV file unless it was already
+   * imported and has not changed since. The manifest and other files are
+   * ignored.
+   * @param file the file that was created or changed.
+   */
+	private void queue(File file) {
+		if(!file.getName().toLowerCase().endsWith(".csv") || !file.isFile()) {
+			return;
+		}
+		String stamp = getStamp(file);
+		if(!stamp.equals(imported.get(file))) {
+			pending.put(file, stamp);
+		}
+	}
+
+   /**
+   * This is the getStamp method which gets the size and the modification time
+   * of a file, which change whenever the file is written.
+   * @param file the file.
+   * @return the size and the modification time.
+   */
+	private static String getStamp(File file) {
+		return file.length() + ":" + file.lastModified();
+	}
+
+   /**
+   * This is the importPending method which finds the dates of the queued
+   * files, parses them concurrently and hands the files that were parsed to
+   * the batchParsed method. Each file is recorded as imported only once it
+   * was parsed and had not changed during the parse. A file that cannot be
+   * read, or that changed, is queued again, and the other files of the batch
+   * are still handed on.
+   */
+	private void importPending() {
+		ArrayList<File> files = new ArrayList<File>(pending.keySet());
+		pending.clear();
+		AttendanceImport attendanceImport = new AttendanceImport();
+		ArrayList<File> undated;
+		try {
+			undated = attendanceImport.addAll(files.toArray(new File[files.size()]));
+		} catch(IOException e) {
+			e.printStackTrace();
+			requeue(files);
+			return;
+		}
+		for(File file : undated) {
+			imported.put(file, getStamp(file));
+		}
+		ArrayList<String> stamps = new ArrayList<String>();
+		for(File file : attendanceImport.getFiles()) {
+			stamps.add(getStamp(file));
+		}
+		IOException[] failures = new IOException[stamps.size()];
+		ArrayList<AttendanceFile> parsed;
+		try {
+			parsed = attendanceImport.parse(null, failures);
+		} catch(IOException e) {
+			e.printStackTrace();
+			requeue(attendanceImport.getFiles());
+			return;
+		}
+		AttendanceImport done = new AttendanceImport();
+		ArrayList<AttendanceFile> attendanceFiles = new ArrayList<AttendanceFile>();
+		ArrayList<File> retry = new ArrayList<File>();
+		for(int i = 0; i < parsed.size(); i++) {
+			File file = attendanceImport.getFiles().get(i);
+			if(failures[i] != null || !stamps.get(i).equals(getStamp(file))) {
+				retry.add(file);
+			} else {
+				imported.put(file, stamps.get(i));
+				done.add(file, attendanceImport.getDates().get(i));
+				attendanceFiles.add(parsed.get(i));
+			}
+		}
+		requeue(retry);
+		if(!closed && (!attendanceFiles.isEmpty() || !undated.isEmpty())) {
+			batchParsed(done, attendanceFiles, undated);
+		}
+	}
+
+   /**
+   * This is the requeue method which queues files that could not be
+   * imported again, so they are tried once the folder has been quiet for
+   * another period. A file that was deleted is dropped.
+   * @param files the files to queue again.
+   */
+	private void requeue(List<File> files) {
+		if(files.isEmpty()) {
+			return;
+		}
+		for(File file : files) {
+			queue(file);
+		}
+		firstQueued = System.currentTimeMillis();
+	}
+
+   /**
+   * This is the batchParsed method which is called on the watcher thread
+   * with every batch of files that was parsed.
+   * @param attendanceImport the files of the batch and their dates.
+   * @param attendanceFiles the parsed files in the same order, with null for
+   *		 a file that is not a valid attendance file.
+   * @param undated the files of the batch for which no date was found.
+   */
+	protected abstract void batchParsed(AttendanceImport attendanceImport, ArrayList<AttendanceFile> attendanceFiles, ArrayList<File> undated);
+
+}
@@ -0,0 +1,270 @@
+/**
+ * This is the Batch class. It is the headless command-line entry point of the
+ * program which loads a roster file and any number of attendance files and
+ * saves the result to a CSV file, without loading Swing. The attendance
+ * files are parsed concurrently by the AttendanceImport class. It prints the
+ * startup time and the throughput of each step to the standard error.
+ * Usage: java Batch roster.csv output.csv attendance.csv[:date] ...
+ * A @list argument reads more attendance.csv:date pairs from the file named
+ * list, one pair per line. An attendance file without :date gets the date in
+ * its name. A roster or output file ending with .snap is a snapshot, so a
+ * saved semester can be restored, extended and saved again, and a restored
+ * snapshot needs no attendance files. An output file ending with .png is the
+ * plot of the attendance, drawn by the AttendanceChart class with AWT in
+ * headless mode, for reports. With the attendance.store system
+ * property, the roster and the attendance are also kept in that store, and a
+ * roster argument of - uses the roster and the attendance kept there.
+ * @author Xiang Luo
+ */
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+
+
+public class Batch {
+
+	private AttendanceData data;
+	private AttendanceImport attendanceImport;
+
+   /**
+   * This is Batch's constructor which allocates memory for the AttendanceData,
+   * with the AttendanceStore named by the attendance.store system property,
+   * and the AttendanceImport.
+   * @throws IOException if the store cannot be opened.
+   */
+	public Batch() throws IOException
+	{
+		data = new AttendanceData(AttendanceData.createStore());
+		attendanceImport = new AttendanceImport();
+	}
+
+   /**
+   * This is the close method which closes the AttendanceStore.
+   * @throws IOException if the store cannot be closed.
+   */
+	public void close() throws IOException {
+		data.close();
+	}
+
+   /**
+   * This is the addAttendance method which parses an attendance.csv:date pair
+   * and adds it to the list of attendance files to load. The last colon
+   * separates the file from the date, so the file name may contain colons. If
+   * there is no date, it is inferred from the file name.
+   * @param pair the attendance.csv:date pair.
+   * @return true if the pair was added, false if it has no date.
+   */
+	public boolean addAttendance(String pair) {
+		int colon = pair.lastIndexOf(':');
+		if(colon <= 0 || colon == pair.length() - 1) {
+			File file = new File(pair);
+			String date = AttendanceImport.inferDate(file.getName());
+			if(date == null) {
+				return false;
+			}
+			attendanceImport.add(file, date);
+			return true;
+		}
+		attendanceImport.add(new File(pair.substring(0, colon)), pair.substring(colon + 1).trim());
+		return true;
+	}
+
+   /**
+   * This is the addAttendanceList method which reads attendance.csv:date pairs
+   * from the given file, one pair per line, and adds them to the list of
+   * attendance files to load. Empty lines are skipped.
+   * @param list the file that lists the pairs.
+   * @return true if all the pairs were added, false if one has no date.
+   * @throws IOException if the file cannot be read.
+   */
+	public boolean addAttendanceList(File list) throws IOException {
+		BufferedReader br = new BufferedReader(new FileReader(list));
+		try {
+			String line;
+			while((line = br.readLine()) != null) {
+				line = line.trim();
+				if(line.length() > 0 && !addAttendance(line)) {
+					return false;
+				}
+			}
+		} finally {
+			br.close();
+		}
+		return true;
+	}
+
+   /**
+   * This is the run method which loads the roster file (or restores the
+   * snapshot or the attendance store) and the attendance files, saves the
+   * result to the output file as CSV or as a snapshot, and prints how long
+   * each step took.
+   * @param roster the roster file or snapshot file, or - for the store.
+   * @param output the CSV file or snapshot file to save the data in.
+   * @return true if every file was loaded and the output was saved.
+   * @throws IOException if a file cannot be read or written.
+   */
+	public boolean run(File roster, File output) throws IOException {
+		long start = System.nanoTime();
+		if(isStore(roster)) {
+			if(!data.openStore()) {
+				System.err.println("No roster in the attendance store, set -D" + AttendanceData.STORE_PROPERTY + "=directory");
+				return false;
+			}
+			long storeTime = System.nanoTime() - start;
+			System.err.println("store: " + data.getStudents().size() + " students, " + data.getDates().size() + " dates in " + millis(storeTime) + " ms");
+		} else if(isSnapshot(roster)) {
+			if(!data.openSnapshot(roster)) {
+				System.err.println("Not a valid snapshot file: " + roster);
+				return false;
+			}
+			long snapshotTime = System.nanoTime() - start;
+			System.err.println("snapshot: " + data.getStudents().size() + " students, " + data.getDates().size() + " dates in " + millis(snapshotTime) + " ms");
+		} else {
+			if(!data.openRosterFile(roster)) {
+				System.err.println("Not a valid roster file: " + roster);
+				return false;
+			}
+			long rosterTime = System.nanoTime() - start;
+			System.err.println("roster: " + data.getStudents().size() + " students in " + millis(rosterTime) + " ms");
+		}
+		if(attendanceImport.getFiles().isEmpty()) {
+			return save(output);
+		}
+
+		ArrayList<File> files = attendanceImport.getFiles();
+		String duplicate = attendanceImport.findDuplicateDate(data.getDates());
+		if(duplicate != null) {
+			System.err.println("Date " + duplicate + " is used by more than one attendance file");
+			return false;
+		}
+		start = System.nanoTime();
+		ArrayList<AttendanceFile> attendanceFiles = attendanceImport.parse(null);
+		long lines = 0;
+		long bytes = 0;
+		for(int i = 0; i < files.size(); i++) {
+			if(attendanceFiles.get(i) == null) {
+				System.err.println("Not a valid attendance file: " + files.get(i));
+				return false;
+			}
+			lines += attendanceFiles.get(i).getLines();
+			bytes += files.get(i).length();
+		}
+		data.addAttendance(attendanceFiles);
+		long attendanceTime = System.nanoTime() - start;
+		double seconds = Math.max(attendanceTime, 1) / 1e9;
+		System.err.println("attendance: " + files.size() + " files, " + lines + " lines, " + bytes + " bytes in " + millis(attendanceTime) + " ms ("
+			+ Math.round(files.size() / seconds) + " files/s, " + Math.round(lines / seconds) + " lines/s, "
+			+ Math.round(bytes / seconds / (1024 * 1024)) + " MB/s)");
+
+		return save(output);
+	}
+
+   /**
+   * This is the save method which saves the data to the output file, as a
+   * snapshot if its name ends with .snap, as the plot if it ends with .png
+   * and as CSV otherwise, and prints how long it took.
+   * @param output the file to save the data in.
+   * @return true, since a failure throws an IOException.
+   * @throws IOException if the file cannot be written.
+   */
+	private boolean save(File output) throws IOException {
+		long start = System.nanoTime();
+		if(isSnapshot(output)) {
+			data.saveSnapshot(output);
+		} else if(isChart(output)) {
+			System.setProperty("java.awt.headless", "true");
+			new AttendanceChart(data).saveAsPNG(output, AttendanceChart.PNG_WIDTH, AttendanceChart.PNG_HEIGHT);
+		} else {
+			data.saveToCSV(output);
+		}
+		long saveTime = System.nanoTime() - start;
+		System.err.println("save: " + output + " (" + output.length() + " bytes) in " + millis(saveTime) + " ms");
+		return true;
+	}
+
+   /**
+   * This is the isSnapshot method which checks if a file name has the
+   * extension of snapshot files.
+   * @param file the file.
+   * @return true if the file is a snapshot file.
+   */
+	private static boolean isSnapshot(File file) {
+		return file.getName().toLowerCase().endsWith("." + SnapshotFile.EXTENSION);
+	}
+
+   /**
+   * This is the isChart method which checks if a file name has the extension
+   * of PNG images.
+   * @param file the file.
+   * @return true if the plot should be saved in the file.
+   */
+	private static boolean isChart(File file) {
+		return file.getName().toLowerCase().endsWith(".png");
+	}
+
+   /**
+   * This is the isStore method which checks if a roster argument names the
+   * attendance store.
+   * @param file the roster argument.
+   * @return true if the argument is -.
+   */
+	private static boolean isStore(File file) {
+		return file.getPath().equals("-");
+	}
+
+   /**
+   * This is the millis method which converts nanoseconds to milliseconds.
+   * @param nanos a duration in nanoseconds.
+   * @return the duration in milliseconds.
+   */
+	private static long millis(long nanos) {
+		return nanos / 1000000;
+	}
+
+   /**
+   * This is the main method which reads the command-line arguments, runs the
+   * batch, and exits with status 1 if anything failed.
+   * @param args the roster file, the output file, and the attendance.csv:date
+   *		 pairs or @list files.
+   */
+	public static void main(String[] args) {
+		long startup = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+		if(args.length < 3 && !(args.length == 2 && (isSnapshot(new File(args[0])) || isStore(new File(args[0]))))) {
+			System.err.println("Usage: java Batch roster.csv output.csv attendance.csv[:date] ...");
+			System.err.println("       an argument @list reads attendance.csv:date pairs from the file list");
+			System.err.println("       a roster or output file ending with ." + SnapshotFile.EXTENSION + " is a snapshot");
+			System.err.println("       an output file ending with .png is the plot, with jfreechart-1.5.1.jar on the class path");
+			System.err.println("       a roster of - restores the store set with -D" + AttendanceData.STORE_PROPERTY + "=directory");
+			System.exit(1);
+		}
+		System.err.println("startup: " + startup + " ms");
+		try {
+			Batch batch = new Batch();
+			for(int i = 2; i < args.length; i++) {
+				boolean added;
+				if(args[i].startsWith("@")) {
+					added = batch.addAttendanceList(new File(args[i].substring(1)));
+				} else {
+					added = batch.addAttendance(args[i]);
+				}
+				if(!added) {
+					System.err.println("Expected attendance.csv:date but got " + args[i]);
+					System.exit(1);
+				}
+			}
+			boolean done;
+			try {
+				done = batch.run(new File(args[0]), new File(args[1]));
+			} finally {
+				batch.close();
+			}
+			if(!done) {
+				System.exit(1);
+			}
+		} catch(Exception e) {
+			e.printStackTrace();
+			System.exit(1);
+		}
+	}
+
+}
@@ -0,0 +1,106 @@
+/**
+ * This is the AttendanceHeapBenchmark class which measures the heap used by a
+ * semester of attendance stored in the AttendanceMatrix, and compares it with
+ * the previous LinkedHashMap of boxed minutes in every student. It also
+ * measures the program and level of a roster kept as a copy of each string
+ * per student, as the roster file is read, and as codes of the dictionaries
+ * of the Student class.
+ * Usage: java -Xmx2g AttendanceHeapBenchmark [students] [dates]
+ * @author Xiang Luo
+ */
+import java.util.*;
+
+
+public class AttendanceHeapBenchmark {
+
+   /**
+   * This is the usedHeap method which runs the garbage collector and gets the
+   * number of bytes used on the heap.
+   * @return the number of bytes used on the heap.
+   */
+	static long usedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		for(int i = 0; i < 5; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+   /**
+   * This is the main method which fills both layouts with the same random
+   * minutes and prints the heap used by each one.
+   * @param args optionally the number of students (50000 by default) and the
+   *		 number of dates (120 by default).
+   */
+	public static void main(String[] args) {
+		int studentCount = 50000;
+		int dateCount = 120;
+		if(args.length > 0) {
+			studentCount = Integer.parseInt(args[0]);
+		}
+		if(args.length > 1) {
+			dateCount = Integer.parseInt(args[1]);
+		}
+		String[] dates = new String[dateCount];
+		for(int j = 0; j < dateCount; j++) {
+			dates[j] = "D" + j;
+		}
+
+		long before = usedHeap();
+		Random random = new Random(42);
+		ArrayList<LinkedHashMap<String, Integer>> maps = new ArrayList<LinkedHashMap<String, Integer>>();
+		for(int i = 0; i < studentCount; i++) {
+			LinkedHashMap<String, Integer> times = new LinkedHashMap<String, Integer>();
+			for(int j = 0; j < dateCount; j++) {
+				times.put(dates[j], random.nextInt(90));
+			}
+			maps.add(times);
+		}
+		long mapBytes = usedHeap() - before;
+		System.out.println(maps.size() + " students x " + dateCount + " dates");
+		System.out.println("LinkedHashMap per student: " + (mapBytes / (1024 * 1024)) + " MB");
+		maps = null;
+
+		before = usedHeap();
+		random = new Random(42);
+		AttendanceMatrix matrix = new AttendanceMatrix(studentCount);
+		for(int j = 0; j < dateCount; j++) {
+			matrix.addDate(dates[j]);
+		}
+		for(int i = 0; i < studentCount; i++) {
+			for(int j = 0; j < dateCount; j++) {
+				matrix.setMinutes(i, j, random.nextInt(90));
+			}
+		}
+		long matrixBytes = usedHeap() - before;
+		System.out.println("AttendanceMatrix:          " + (matrixBytes / (1024 * 1024)) + " MB (" + matrix.getRowCount() + " rows)");
+		matrix = null;
+
+		String[] programs = {"Computer Science", "Software Engineering", "Computer Systems Engineering", "Informatics"};
+		String[] levels = {"Undergraduate", "Graduate"};
+		before = usedHeap();
+		String[] programCopies = new String[studentCount];
+		String[] levelCopies = new String[studentCount];
+		for(int i = 0; i < studentCount; i++) {
+			programCopies[i] = new String(programs[i % programs.length].toCharArray());
+			levelCopies[i] = new String(levels[i % levels.length].toCharArray());
+		}
+		long copyBytes = usedHeap() - before;
+		System.out.println("Program and level copies:  " + (copyBytes / programCopies.length) + " bytes per student (" + levelCopies.length + " students)");
+		programCopies = null;
+		levelCopies = null;
+
+		StringDictionary programDictionary = new StringDictionary();
+		StringDictionary levelDictionary = new StringDictionary();
+		before = usedHeap();
+		int[] programCodes = new int[studentCount];
+		int[] levelCodes = new int[studentCount];
+		for(int i = 0; i < studentCount; i++) {
+			programCodes[i] = programDictionary.encode(new String(programs[i % programs.length].toCharArray()));
+			levelCodes[i] = levelDictionary.encode(new String(levels[i % levels.length].toCharArray()));
+		}
+		long codeBytes = usedHeap() - before;
+		System.out.println("Program and level codes:   " + (codeBytes / programCodes.length) + " bytes per student (" + levelCodes.length + " students, " + programDictionary.size() + " programs, " + levelDictionary.size() + " levels)");
+	}
+
+}
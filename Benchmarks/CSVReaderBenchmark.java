@@ -0,0 +1,86 @@
+/**
+ * This is the CSVReaderBenchmark class which measures how fast a generated
+ * attendance file is tokenized by the CSVReader class, and compares it with
+ * the previous BufferedReader.readLine, String.split and Integer.parseInt.
+ * Usage: java CSVReaderBenchmark [lines]
+ * @author Xiang Luo
+ */
+import java.io.*;
+import java.util.*;
+
+
+public class CSVReaderBenchmark {
+
+   /**
+   * This is the splitLines method which reads the file with readLine and
+   * split.
+   * @param file the attendance file.
+   * @return the sum of the minutes, so the work is not optimized away.
+   */
+	static long splitLines(File file) throws IOException {
+		BufferedReader br = new BufferedReader(new FileReader(file));
+		long sum = 0;
+		String line;
+		while((line = br.readLine()) != null) {
+			String[] info = line.split(",");
+			sum += info[0].length() + Integer.parseInt(info[1]);
+		}
+		br.close();
+		return sum;
+	}
+
+   /**
+   * This is the csvReader method which reads the file with the CSVReader
+   * class.
+   * @param file the attendance file.
+   * @return the sum of the minutes, so the work is not optimized away.
+   */
+	static long csvReader(File file) throws IOException {
+		CSVReader reader = new CSVReader(file);
+		long sum = 0;
+		while(reader.next()) {
+			sum += reader.getField(0).length() + reader.getInt(1);
+		}
+		reader.close();
+		return sum;
+	}
+
+   /**
+   * This is the main method which generates the file and prints the best
+   * throughput of five runs of each reader.
+   * @param args optionally the number of lines (5000000 by default).
+   */
+	public static void main(String[] args) throws IOException {
+		int lines = 5000000;
+		if(args.length > 0) {
+			lines = Integer.parseInt(args[0]);
+		}
+		File file = File.createTempFile("attendance", ".csv");
+		file.deleteOnExit();
+		Random random = new Random(42);
+		BufferedWriter bw = new BufferedWriter(new FileWriter(file));
+		for(int i = 0; i < lines; i++) {
+			bw.write("asu" + random.nextInt(100000) + "," + random.nextInt(75) + "\n");
+		}
+		bw.close();
+		double megabytes = file.length() / (1024.0 * 1024.0);
+		System.out.println(lines + " lines, " + Math.round(megabytes) + " MB");
+
+		long bestSplit = Long.MAX_VALUE;
+		long bestReader = Long.MAX_VALUE;
+		for(int run = 0; run < 5; run++) {
+			long start = System.nanoTime();
+			long a = splitLines(file);
+			bestSplit = Math.min(bestSplit, System.nanoTime() - start);
+			start = System.nanoTime();
+			long b = csvReader(file);
+			bestReader = Math.min(bestReader, System.nanoTime() - start);
+			if(a != b) {
+				throw new IllegalStateException("readers disagree: " + a + " != " + b);
+			}
+		}
+		System.out.println("readLine + split: " + Math.round(megabytes / (bestSplit / 1e9)) + " MB/s");
+		System.out.println("CSVReader:        " + Math.round(megabytes / (bestReader / 1e9)) + " MB/s");
+	}
+
+}
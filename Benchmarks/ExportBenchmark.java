@@ -0,0 +1,109 @@
+/**
+ * This is the ExportBenchmark class which measures how long it takes to save a
+ * large roster with a semester of attendance to a CSV file. It compares the
+ * previous unbuffered FileWriter, which wrote every cell separately, with the
+ * saveToCSV method of the AttendanceData class, plain and gzip-compressed.
+ * Usage: java ExportBenchmark [students] [dates]
+ * @author Xiang Luo
+ */
+import java.io.*;
+import java.util.*;
+
+
+public class ExportBenchmark {
+
+   /**
+   * This is the saveUnbuffered method which saves the data the way it was
+   * saved before, with one unbuffered write per cell.
+   * @param data the data to save.
+   * @param file the file to save the data in.
+   * @throws IOException if the file cannot be written.
+   */
+	static void saveUnbuffered(AttendanceData data, File file) throws IOException {
+		FileWriter fw = new FileWriter(file);
+		try {
+			ArrayList<String> dates = data.getDates();
+			ArrayList<Student> students = data.getStudents();
+			fw.write("ID,First Name,Last Name,Program,Level,ASURITE");
+			for(int i = 0; i < dates.size(); i++) {
+				fw.write("," + dates.get(i));
+			}
+			fw.write("\n");
+			for(int i = 0; i < students.size(); i++) {
+				Student student = students.get(i);
+				fw.write(student.getID() + "," + student.getFirstName() + "," + student.getLastName() + "," + student.getProgram() + "," + student.getLevel() + "," + student.getASURITE());
+				for(int j = 0; j < dates.size(); j++) {
+					fw.write("," + data.getMatrix().getMinutes(i, j));
+				}
+				if(i < students.size() - 1) {
+					fw.write("\n");
+				}
+			}
+		} finally {
+			fw.close();
+		}
+	}
+
+   /**
+   * This is the main method which fills an AttendanceData with random minutes
+   * and prints how long each way of saving it takes and how large the file is.
+   * @param args optionally the number of students (50000 by default) and the
+   *		 number of dates (120 by default).
+   * @throws IOException if a file cannot be written.
+   */
+	public static void main(String[] args) throws IOException {
+		int studentCount = 50000;
+		int dateCount = 120;
+		if(args.length > 0) {
+			studentCount = Integer.parseInt(args[0]);
+		}
+		if(args.length > 1) {
+			dateCount = Integer.parseInt(args[1]);
+		}
+		ArrayList<Student> students = new ArrayList<Student>();
+		HashMap<String, Student> studentsByASURITE = new HashMap<String, Student>();
+		StringDictionary programs = new StringDictionary();
+		StringDictionary levels = new StringDictionary();
+		for(int i = 0; i < studentCount; i++) {
+			Student student = new Student("" + (1000000 + i), "First" + i, "Last" + i, "Computer Science", "Undergraduate", "asu" + i, programs, levels);
+			students.add(student);
+			studentsByASURITE.put(student.getASURITE(), student);
+		}
+		AttendanceData data = new AttendanceData();
+		data.setRoster(new RosterFile(students, studentsByASURITE, studentCount, programs, levels));
+		Random random = new Random(42);
+		ArrayList<AttendanceFile> attendanceFiles = new ArrayList<AttendanceFile>();
+		for(int j = 0; j < dateCount; j++) {
+			LinkedHashMap<String, Integer> attendeesMinutes = new LinkedHashMap<String, Integer>();
+			for(int i = 0; i < studentCount; i++) {
+				attendeesMinutes.put("asu" + i, random.nextInt(90));
+			}
+			attendanceFiles.add(new AttendanceFile("D" + j, attendeesMinutes, studentCount));
+		}
+		data.addAttendance(attendanceFiles);
+		System.out.println(studentCount + " students x " + dateCount + " dates");
+
+		File folder = new File(System.getProperty("java.io.tmpdir"));
+		File unbuffered = new File(folder, "export-unbuffered.csv");
+		File plain = new File(folder, "export.csv");
+		File gzip = new File(folder, "export.csv.gz");
+		for(int round = 0; round < 3; round++) {
+			long start = System.nanoTime();
+			saveUnbuffered(data, unbuffered);
+			long unbufferedTime = System.nanoTime() - start;
+			start = System.nanoTime();
+			data.saveToCSV(plain);
+			long plainTime = System.nanoTime() - start;
+			start = System.nanoTime();
+			data.saveToCSV(gzip);
+			long gzipTime = System.nanoTime() - start;
+			System.out.println("unbuffered FileWriter: " + unbufferedTime / 1000000 + " ms, " + unbuffered.length() / 1024 + " KB");
+			System.out.println("saveToCSV: " + plainTime / 1000000 + " ms, " + plain.length() / 1024 + " KB");
+			System.out.println("saveToCSV .gz: " + gzipTime / 1000000 + " ms, " + gzip.length() / 1024 + " KB");
+		}
+		unbuffered.delete();
+		plain.delete();
+		gzip.delete();
+	}
+
+}
@@ -0,0 +1,132 @@
+/**
+ * This is the RosterLookupBenchmark class which measures how long it takes to
+ * load a generated roster and attendance file with the ASURITE index, and
+ * compares it with the previous linear scan over the students ArrayList.
+ * Usage: java RosterLookupBenchmark [students]
+ * @author Xiang Luo
+ */
+import java.io.*;
+import java.util.*;
+
+
+public class RosterLookupBenchmark {
+
+   /**
+   * This is the writeRoster method which writes a roster file with the given
+   * number of students.
+   * @param file the file to write.
+   * @param count the number of students.
+   */
+	static void writeRoster(File file, int count) throws IOException {
+		BufferedWriter bw = new BufferedWriter(new FileWriter(file));
+		for(int i = 0; i < count; i++) {
+			bw.write("" + (1200000000 + i) + ",First" + i + ",Last" + i + ",Computer Science,Graduate,asu" + i + "\n");
+		}
+		bw.close();
+	}
+
+   /**
+   * This is the writeAttendance method which writes an attendance file where
+   * every student connects twice and one in ten lines is a guest that is not
+   * on the roster.
+   * @param file the file to write.
+   * @param count the number of students on the roster.
+   */
+	static void writeAttendance(File file, int count) throws IOException {
+		Random random = new Random(42);
+		BufferedWriter bw = new BufferedWriter(new FileWriter(file));
+		for(int i = 0; i < count * 2; i++) {
+			if(i % 10 == 0) {
+				bw.write("guest" + i + "," + random.nextInt(75) + "\n");
+			} else {
+				bw.write("asu" + random.nextInt(count) + "," + random.nextInt(75) + "\n");
+			}
+		}
+		bw.close();
+	}
+
+   /**
+   * This is the linearLoad method which loads the files the way
+   * Repository did before the ASURITE index was added, by scanning the
+   * students and attendees ArrayLists for every line.
+   * @param roster the roster file.
+   * @param attendance the attendance file.
+   * @return the number of students matched in the attendance file.
+   */
+	static int linearLoad(File roster, File attendance) throws IOException {
+		ArrayList<Student> students = new ArrayList<Student>();
+		StringDictionary programs = new StringDictionary();
+		StringDictionary levels = new StringDictionary();
+		BufferedReader br = new BufferedReader(new FileReader(roster));
+		String line;
+		while((line = br.readLine()) != null) {
+			String[] info = line.split(",");
+			boolean exist = false;
+			for(int i = 0; !exist && i < students.size(); i++) {
+				if(students.get(i).getASURITE().equals(info[5])) {
+					exist = true;
+				}
+			}
+			if(!exist) {
+				students.add(new Student(info[0], info[1], info[2], info[3], info[4], info[5], programs, levels));
+			}
+		}
+		br.close();
+		ArrayList<String> attendees = new ArrayList<String>();
+		ArrayList<Integer> attendeesTimes = new ArrayList<Integer>();
+		int matched = 0;
+		br = new BufferedReader(new FileReader(attendance));
+		while((line = br.readLine()) != null) {
+			String[] info = line.split(",");
+			Integer time = Integer.parseInt(info[1]);
+			if(attendees.contains(info[0])) {
+				int index = attendees.indexOf(info[0]);
+				attendeesTimes.set(index, attendeesTimes.get(index) + time);
+			} else {
+				attendees.add(info[0]);
+				attendeesTimes.add(time);
+			}
+			for(int i = 0; i < students.size(); i++) {
+				if(students.get(i).getASURITE().equals(info[0])) {
+					matched++;
+					break;
+				}
+			}
+		}
+		br.close();
+		return matched;
+	}
+
+   /**
+   * This is the main method which generates the files, runs both loaders, and
+   * prints how long each one took.
+   * @param args optionally the number of students (100000 by default).
+   */
+	public static void main(String[] args) throws IOException {
+		int count = 100000;
+		if(args.length > 0) {
+			count = Integer.parseInt(args[0]);
+		}
+		File roster = File.createTempFile("roster", ".csv");
+		File attendance = File.createTempFile("attendance", ".csv");
+		roster.deleteOnExit();
+		attendance.deleteOnExit();
+		writeRoster(roster, count);
+		writeAttendance(attendance, count);
+
+		long start = System.nanoTime();
+		AttendanceData data = new AttendanceData();
+		data.openRosterFile(roster);
+		data.openAttendanceFile(attendance, "Jan 01");
+		long indexed = System.nanoTime() - start;
+		System.out.println("students: " + count + ", attendance lines: " + (count * 2));
+		System.out.println("indexed load: " + (indexed / 1000000) + " ms");
+
+		start = System.nanoTime();
+		linearLoad(roster, attendance);
+		long linear = System.nanoTime() - start;
+		System.out.println("linear load:  " + (linear / 1000000) + " ms");
+		System.out.println("speedup:      " + (linear / Math.max(indexed, 1)) + "x");
+	}
+
+}
@@ -0,0 +1,495 @@
+/**
+ * This is the CSVReader class which is responsible for splitting a CSV file
+ * into records and fields. It reads the file through one reusable byte buffer,
+ * handles quoted fields as described in RFC 4180 (commas, line breaks and
+ * doubled quotes inside quotes), and parses numeric fields straight from the
+ * bytes, so a record does not allocate a line, an array or substrings.
+ * Architecture:MVC-Model
+ * @author Xiang Luo
+ */
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+
+public class CSVReader implements Closeable {
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private InputStream in;
+	private ByteBuffer source;
+	private byte[] buffer;
+	private int position;
+	private int limit;
+	private long filled;
+	private byte[] record;
+	private int length;
+	private int[] fieldStarts;
+	private int[] fieldEnds;
+	private int fieldCount;
+	private long recordCount;
+	private int scan;
+
+   /**
+   * This is one of CSVReader's constructors which reads the given stream.
+   * @param in the stream to read the CSV data from.
+   * @throws IOException if the stream cannot be read.
+   */
+	public CSVReader(InputStream in) throws IOException
+	{
+		this(in, null);
+	}
+
+   /**
+   * This is one of CSVReader's constructors which opens the given file.
+   * @param file the CSV file to read.
+   * @throws IOException if the file cannot be opened.
+   */
+	public CSVReader(File file) throws IOException
+	{
+		this(new FileInputStream(file));
+	}
+
+   /**
+   * This is one of CSVReader's constructors which reads the remaining bytes of
+   * the given ByteBuffer, for example a memory-mapped part of a file.
+   * @param source the bytes to read the CSV data from.
+   * @throws IOException if the bytes cannot be read.
+   */
+	public CSVReader(ByteBuffer source) throws IOException
+	{
+		this((InputStream)null, source);
+	}
+
+   /**
+   * This is the constructor that the other constructors call with either a
+   * stream or a ByteBuffer. It allocates the buffers and skips the UTF-8 byte
+   * order mark at the start of the data, if there is one.
+   * @param in the stream to read the CSV data from, or null.
+   * @param source the bytes to read the CSV data from, or null.
+   * @throws IOException if the stream cannot be read.
+   */
+	private CSVReader(InputStream in, ByteBuffer source) throws IOException
+	{
+		this.in = in;
+		this.source = source;
+		buffer = new byte[BUFFER_SIZE];
+		record = new byte[256];
+		fieldStarts = new int[8];
+		fieldEnds = new int[8];
+		if(fill() && limit >= 3 && buffer[0] == (byte)0xEF && buffer[1] == (byte)0xBB && buffer[2] == (byte)0xBF) {
+			position = 3;
+		}
+	}
+
+   /**
+   * This is the fill method which reads more bytes into the buffer when all of
+   * it has been consumed.
+   * @return true if there are bytes to consume, false at the end of the
+   *		 stream.
+   * @throws IOException if the stream cannot be read.
+   */
+	private boolean fill() throws IOException {
+		if(position < limit) {
+			return true;
+		}
+		int count;
+		if(source != null) {
+			count = Math.min(source.remaining(), buffer.length);
+			source.get(buffer, 0, count);
+			if(count == 0) {
+				count = -1;
+			}
+		} else {
+			count = in.read(buffer, 0, buffer.length);
+			while(count == 0) {
+				count = in.read(buffer, 0, buffer.length);
+			}
+		}
+		if(count < 0) {
+			position = 0;
+			limit = 0;
+			return false;
+		}
+		position = 0;
+		limit = count;
+		filled += count;
+		return true;
+	}
+
+   /**
+   * This is the append method which adds a byte to the current record.
+   * @param b the byte to add.
+   */
+	private void append(byte b) {
+		if(length == record.length) {
+			byte[] larger = new byte[record.length * 2];
+			System.arraycopy(record, 0, larger, 0, length);
+			record = larger;
+		}
+		record[length++] = b;
+	}
+
+   /**
+   * This is the endField method which ends the current field of the record.
+   * @param start the offset in the record where the field starts.
+   */
+	private void endField(int start) {
+		if(fieldCount == fieldStarts.length) {
+			int[] larger = new int[fieldCount * 2];
+			System.arraycopy(fieldStarts, 0, larger, 0, fieldCount);
+			fieldStarts = larger;
+			larger = new int[fieldCount * 2];
+			System.arraycopy(fieldEnds, 0, larger, 0, fieldCount);
+			fieldEnds = larger;
+		}
+		fieldStarts[fieldCount] = start;
+		fieldEnds[fieldCount] = length;
+		fieldCount++;
+	}
+
+   /**
+   * This is the next method which reads the next record. A record ends at a
+   * line break (\n, \r\n or \r) outside of quotes, or at the end of the
+   * stream. An empty line is a record with one empty field.
+   * @return true if a record was read, false at the end of the stream.
+   * @throws IOException if the stream cannot be read.
+   */
+	public boolean next() throws IOException {
+		fieldCount = 0;
+		length = 0;
+		if(!fill()) {
+			return false;
+		}
+		int start = 0;
+		boolean quoted = false;
+		while(true) {
+			if(position == limit && !fill()) {
+				break;
+			}
+			byte b = buffer[position++];
+			if(quoted) {
+				if(b != '"') {
+					append(b);
+				} else if(position == limit && !fill()) {
+					quoted = false;
+				} else if(buffer[position] == '"') {
+					append(b);
+					position++;
+				} else {
+					quoted = false;
+				}
+			} else if(b == ',') {
+				endField(start);
+				start = length;
+			} else if(b == '\n') {
+				break;
+			} else if(b == '\r') {
+				if((position < limit || fill()) && buffer[position] == '\n') {
+					position++;
+				}
+				break;
+			} else if(b == '"' && length == start) {
+				quoted = true;
+			} else {
+				append(b);
+			}
+		}
+		endField(start);
+		recordCount++;
+		return true;
+	}
+
+   /**
+   * This is the getFieldCount getter which gets the number of fields in the
+   * current record.
+   * @return the number of fields.
+   */
+	public int getFieldCount() {
+		return fieldCount;
+	}
+
+   /**
+   * This is the getField method which decodes a field of the current record as
+   * a UTF-8 String.
+   * @param index the index of the field.
+   * @return the value of the field.
+   */
+	public String getField(int index) {
+		int start = fieldStarts[index];
+		return new String(record, start, fieldEnds[index] - start, StandardCharsets.UTF_8);
+	}
+
+   /**
+   * This is the hashField method which hashes the bytes of a field of the
+   * current record, so the field can be looked up without decoding it.
+   * @param index the index of the field.
+   * @return the hash of the field.
+   */
+	public int hashField(int index) {
+		int hash = 0;
+		for(int i = fieldStarts[index]; i < fieldEnds[index]; i++) {
+			hash = 31 * hash + record[i];
+		}
+		return hash;
+	}
+
+   /**
+   * This is the fieldEquals method which compares the bytes of a field of the
+   * current record with the given bytes.
+   * @param index the index of the field.
+   * @param bytes the array that holds the bytes to compare with.
+   * @param offset the position of the bytes in the array.
+   * @param length the number of bytes.
+   * @return true if the field has the same bytes.
+   */
+	public boolean fieldEquals(int index, byte[] bytes, int offset, int length) {
+		int start = fieldStarts[index];
+		if(fieldEnds[index] - start != length) {
+			return false;
+		}
+		for(int i = 0; i < length; i++) {
+			if(record[start + i] != bytes[offset + i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+   /**
+   * This is the getFieldLength method which gets the number of bytes of a
+   * field of the current record.
+   * @param index the index of the field.
+   * @return the number of bytes.
+   */
+	public int getFieldLength(int index) {
+		return fieldEnds[index] - fieldStarts[index];
+	}
+
+   /**
+   * This is the copyField method which copies the bytes of a field of the
+   * current record into the given array.
+   * @param index the index of the field.
+   * @param bytes the array to copy the bytes into.
+   * @param offset the position in the array to copy the bytes to.
+   */
+	public void copyField(int index, byte[] bytes, int offset) {
+		System.arraycopy(record, fieldStarts[index], bytes, offset, fieldEnds[index] - fieldStarts[index]);
+	}
+
+   /**
+   * This is the getInt method which parses a field of the current record as a
+   * decimal int straight from its bytes.
+   * @param index the index of the field.
+   * @return the value of the field.
+   * @throws NumberFormatException if the field is not a decimal int.
+   */
+	public int getInt(int index) {
+		int i = fieldStarts[index];
+		int end = fieldEnds[index];
+		boolean negative = false;
+		if(i < end && (record[i] == '-' || record[i] == '+')) {
+			negative = record[i] == '-';
+			i++;
+		}
+		if(i == end) {
+			throw new NumberFormatException("For input string: \"" + getField(index) + "\"");
+		}
+		long value = 0;
+		for(; i < end; i++) {
+			int digit = record[i] - '0';
+			if(digit < 0 || digit > 9) {
+				throw new NumberFormatException("For input string: \"" + getField(index) + "\"");
+			}
+			value = value * 10 + digit;
+			if(value > (long)Integer.MAX_VALUE + 1) {
+				throw new NumberFormatException("For input string: \"" + getField(index) + "\"");
+			}
+		}
+		if(negative) {
+			value = -value;
+		}
+		if(value > Integer.MAX_VALUE) {
+			throw new NumberFormatException("For input string: \"" + getField(index) + "\"");
+		}
+		return (int)value;
+	}
+
+   /**
+   * This is the getTime method which parses a field of the current record as
+   * a time in seconds straight from its bytes. The field is either a number of
+   * seconds or a time of day (HH:mm or HH:mm:ss, with an optional AM or PM),
+   * optionally after a date (yyyy-MM-dd, with a space or a T, or MM/dd/yyyy),
+   * so the meeting platform's join and leave times can be read as they are.
+   * Fractions of a second and a trailing Z are ignored.
+   * @param index the index of the field.
+   * @return the seconds since 1970-01-01 if the field has a date, or else the
+   *		 seconds since midnight or the number of seconds.
+   * @throws NumberFormatException if the field is not a time.
+   */
+	public long getTime(int index) {
+		int end = fieldEnds[index];
+		scan = fieldStarts[index];
+		skipSpaces(end);
+		long days = 0;
+		long number = readNumber(end);
+		if(scan < end && (record[scan] == '-' || record[scan] == '/')) {
+			byte separator = record[scan++];
+			long second = readNumber(end);
+			if(scan == end || record[scan++] != separator) {
+				throw timeException(index);
+			}
+			long third = readNumber(end);
+			if(separator == '-') {
+				days = daysFromCivil(number, second, third);
+			} else {
+				days = daysFromCivil(third, number, second);
+			}
+			if(scan == end || (record[scan] != ' ' && record[scan] != 'T')) {
+				throw timeException(index);
+			}
+			scan++;
+			skipSpaces(end);
+			number = readNumber(end);
+		} else {
+			skipSpaces(end);
+			if(scan == end) {
+				return number;
+			}
+		}
+		if(scan == end || record[scan++] != ':') {
+			throw timeException(index);
+		}
+		long hours = number;
+		long minutes = readNumber(end);
+		long seconds = 0;
+		if(scan < end && record[scan] == ':') {
+			scan++;
+			seconds = readNumber(end);
+		}
+		if(scan < end && record[scan] == '.') {
+			scan++;
+			while(scan < end && record[scan] >= '0' && record[scan] <= '9') {
+				scan++;
+			}
+		}
+		skipSpaces(end);
+		if(scan + 1 < end && (record[scan + 1] == 'M' || record[scan + 1] == 'm')) {
+			byte half = record[scan];
+			if(hours < 1 || hours > 12) {
+				throw timeException(index);
+			}
+			if(half == 'A' || half == 'a') {
+				hours %= 12;
+			} else if(half == 'P' || half == 'p') {
+				hours = hours % 12 + 12;
+			} else {
+				throw timeException(index);
+			}
+			scan += 2;
+		} else if(scan < end && record[scan] == 'Z') {
+			scan++;
+		}
+		skipSpaces(end);
+		if(scan != end || hours > 23 || minutes > 59 || seconds > 60) {
+			throw timeException(index);
+		}
+		return days * 86400 + hours * 3600 + minutes * 60 + seconds;
+	}
+
+   /**
+   * This is the readNumber method which reads the decimal digits at the
+   * current position of the time being parsed.
+   * @param end the end of the field.
+   * @return the value of the digits.
+   * @throws NumberFormatException if there are no digits or too many.
+   */
+	private long readNumber(int end) {
+		int start = scan;
+		long value = 0;
+		while(scan < end && record[scan] >= '0' && record[scan] <= '9') {
+			value = value * 10 + (record[scan++] - '0');
+		}
+		if(scan == start || scan - start > 15) {
+			throw new NumberFormatException("Expected digits in a time");
+		}
+		return value;
+	}
+
+   /**
+   * This is the skipSpaces method which skips the spaces at the current
+   * position of the time being parsed.
+   * @param end the end of the field.
+   */
+	private void skipSpaces(int end) {
+		while(scan < end && record[scan] == ' ') {
+			scan++;
+		}
+	}
+
+   /**
+   * This is the timeException method which creates the exception thrown for
+   * a field that is not a time.
+   * @param index the index of the field.
+   * @return the exception.
+   */
+	private NumberFormatException timeException(int index) {
+		return new NumberFormatException("Not a time: \"" + getField(index) + "\"");
+	}
+
+   /**
+   * This is the daysFromCivil method which counts the days from 1970-01-01
+   * to a date of the Gregorian calendar.
+   * @param year the year.
+   * @param month the month, from 1 to 12.
+   * @param day the day of the month.
+   * @return the number of days.
+   * @throws NumberFormatException if the month or the day is not valid.
+   */
+	private static long daysFromCivil(long year, long month, long day) {
+		if(month < 1 || month > 12 || day < 1 || day > 31) {
+			throw new NumberFormatException("Not a date: " + year + "-" + month + "-" + day);
+		}
+		long shiftedMonth = month - 3;
+		if(month <= 2) {
+			year--;
+			shiftedMonth = month + 9;
+		}
+		long era = Math.floorDiv(year, 400);
+		long yearOfEra = year - era * 400;
+		long dayOfYear = (153 * shiftedMonth + 2) / 5 + day - 1;
+		long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+		return era * 146097 + dayOfEra - 719468;
+	}
+
+   /**
+   * This is the getBytesRead getter which gets the number of bytes consumed
+   * from the stream so far.
+   * @return the number of bytes consumed.
+   */
+	public long getBytesRead() {
+		return filled - (limit - position);
+	}
+
+   /**
+   * This is the getRecordCount getter which gets the number of records read
+   * so far.
+   * @return the number of records read.
+   */
+	public long getRecordCount() {
+		return recordCount;
+	}
+
+   /**
+   * This is the close method which closes the stream, if the CSV data is read
+   * from a stream.
+   * @throws IOException if the stream cannot be closed.
+   */
+	@Override
+	public void close() throws IOException {
+		if(in != null) {
+			in.close();
+		}
+	}
+
+}
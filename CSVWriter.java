@@ -0,0 +1,208 @@
+/**
+ * This is the CSVWriter class which is responsible for writing a CSV file. It
+ * encodes the fields as UTF-8 into one reusable byte buffer and writes it to a
+ * temporary file next to the target file, gzip-compressed if the target file
+ * name ends with .gz, and only renames the temporary file to the target file
+ * when commit is called, so the target file is never left half written.
+ * Fields are quoted as described in RFC 4180 when they need it, and ints are
+ * formatted straight into the buffer.
+ * Architecture:MVC-Model
+ * @author Xiang Luo
+ */
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.zip.*;
+
+
+public class CSVWriter implements Closeable {
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private Path target;
+	private Path temporary;
+	private OutputStream out;
+	private byte[] buffer;
+	private int position;
+	private boolean firstField;
+	private boolean endedRecord;
+	private boolean committed;
+
+   /**
+   * This is CSVWriter's constructor which creates the temporary file and opens
+   * it for writing.
+   * @param file the CSV file to write, ending with .gz for gzip output.
+   * @throws IOException if the temporary file cannot be created.
+   */
+	public CSVWriter(File file) throws IOException
+	{
+		target = file.getAbsoluteFile().toPath();
+		temporary = File.createTempFile("." + target.getFileName(), ".tmp", target.getParent().toFile()).toPath();
+		out = Files.newOutputStream(temporary);
+		if(file.getName().toLowerCase().endsWith(".gz")) {
+			try {
+				out = new GZIPOutputStream(out, BUFFER_SIZE) {
+					{
+						def.setLevel(Deflater.BEST_SPEED);
+					}
+				};
+			} catch(IOException e) {
+				out.close();
+				Files.deleteIfExists(temporary);
+				throw e;
+			}
+		}
+		buffer = new byte[BUFFER_SIZE];
+		position = 0;
+		firstField = true;
+		endedRecord = false;
+		committed = false;
+	}
+
+   /**
+   * This is the reserve method which writes the buffer to the file if it has
+   * less room than the given number of bytes.
+   * @param count the number of bytes that are about to be added.
+   * @throws IOException if the file cannot be written.
+   */
+	private void reserve(int count) throws IOException {
+		if(position + count > buffer.length) {
+			out.write(buffer, 0, position);
+			position = 0;
+		}
+	}
+
+   /**
+   * This is the startField method which writes the line break of the previous
+   * record or the comma before the field.
+   * @throws IOException if the file cannot be written.
+   */
+	private void startField() throws IOException {
+		reserve(2);
+		if(endedRecord) {
+			buffer[position++] = '\n';
+			endedRecord = false;
+		}
+		if(!firstField) {
+			buffer[position++] = ',';
+		}
+		firstField = false;
+	}
+
+   /**
+   * This is the writeField method which writes a text field, in quotes if it
+   * needs them.
+   * @param field the value of the field.
+   * @throws IOException if the file cannot be written.
+   */
+	public void writeField(String field) throws IOException {
+		startField();
+		field = quote(field);
+		int length = field.length();
+		for(int i = 0; i < length; i++) {
+			if(field.charAt(i) >= 0x80) {
+				byte[] bytes = field.getBytes(StandardCharsets.UTF_8);
+				reserve(bytes.length);
+				if(bytes.length > buffer.length) {
+					out.write(bytes);
+				} else {
+					System.arraycopy(bytes, 0, buffer, position, bytes.length);
+					position += bytes.length;
+				}
+				return;
+			}
+		}
+		for(int i = 0; i < length; i += buffer.length) {
+			int count = Math.min(length - i, buffer.length);
+			reserve(count);
+			for(int j = 0; j < count; j++) {
+				buffer[position++] = (byte)field.charAt(i + j);
+			}
+		}
+	}
+
+   /**
+   * This is the writeInt method which writes a numeric field.
+   * @param value the value of the field.
+   * @throws IOException if the file cannot be written.
+   */
+	public void writeInt(int value) throws IOException {
+		startField();
+		reserve(11);
+		long remaining = value;
+		if(remaining < 0) {
+			buffer[position++] = '-';
+			remaining = -remaining;
+		}
+		int digits = 1;
+		for(long power = 10; power <= remaining; power *= 10) {
+			digits++;
+		}
+		position += digits;
+		for(int i = position - 1; i >= position - digits; i--) {
+			buffer[i] = (byte)('0' + remaining % 10);
+			remaining /= 10;
+		}
+	}
+
+   /**
+   * This is the endRecord method which ends the current record. The line
+   * break is written before the next record, so the file does not end with an
+   * empty line.
+   */
+	public void endRecord() {
+		endedRecord = true;
+		firstField = true;
+	}
+
+   /**
+   * This is the commit method which finishes the file and renames it to the
+   * target file, atomically if the file system supports it.
+   * @throws IOException if the file cannot be written or renamed.
+   */
+	public void commit() throws IOException {
+		out.write(buffer, 0, position);
+		position = 0;
+		out.close();
+		try {
+			Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} catch(AtomicMoveNotSupportedException e) {
+			Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+		}
+		committed = true;
+	}
+
+   /**
+   * This is the close method which deletes the temporary file if commit was
+   * not called, leaving the target file as it was.
+   * @throws IOException if the temporary file cannot be deleted.
+   */
+	@Override
+	public void close() throws IOException {
+		if(!committed) {
+			try {
+				out.close();
+			} finally {
+				Files.deleteIfExists(temporary);
+			}
+		}
+	}
+
+   /**
+   * This is the quote method which puts a field in quotes, with its quotes
+   * doubled, if it contains a comma, a quote or a line break, so the CSVReader
+   * class reads it back whole.
+   * @param field the value of the field.
+   * @return the field as it is written in a CSV file.
+   */
+	public static String quote(String field) {
+		for(int i = 0; i < field.length(); i++) {
+			char c = field.charAt(i);
+			if(c == ',' || c == '"' || c == '\n' || c == '\r') {
+				return "\"" + field.replace("\"", "\"\"") + "\"";
+			}
+		}
+		return field;
+	}
+
+}
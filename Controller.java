@@ -60,8 +60,18 @@ public class Controller implements ActionListener {
 			repository.addAttendance();
 		} else if(action.equals("Save")) {
 			repository.save();
+		} else if(action.equals("OpenSnapshot")) {
+			repository.openSnapshot();
+		} else if(action.equals("SaveSnapshot")) {
+			repository.saveSnapshot();
+		} else if(action.equals("Watch")) {
+			repository.watchFolder();
 		} else if(action.equals("Plot")) {
 			repository.plotData();
+		} else if(action.equals("Analyze")) {
+			repository.analyzeData();
+		} else if(action.equals("Risk")) {
+			repository.showAtRisk();
 		} else if(action.equals("About")) {
 			main.aboutDialog();
 		}
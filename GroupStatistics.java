@@ -0,0 +1,151 @@
+/**
+ * This is the GroupStatistics class which is responsible for the attendance
+ * totals of groups of students that share a value, such as a program or a
+ * level. Every student belongs to one group, and the minutes of a student are
+ * added to the total of its group as they change, so the totals are never
+ * recomputed. The values are given as codes of a StringDictionary, so the
+ * students are put in their groups through an array indexed by code instead
+ * of looking up every value.
+ * Architecture:MVC-Model
+ * @author Xiang Luo
+ */
+import java.util.*;
+
+
+public class GroupStatistics {
+
+	private StringDictionary dictionary;
+	private int[] codes;
+	private int[] groupOfCode;
+	private int groupCount;
+	private int[] groupOfRow;
+	private int[] studentCounts;
+	private long[] totals;
+
+   /**
+   * This is GroupStatistics's constructor which puts every student in the
+   * group of its value, in the order the values first appear.
+   * @param dictionary the StringDictionary of the values.
+   * @param valueCodes the code of the value of every student, indexed by row.
+   */
+	public GroupStatistics(StringDictionary dictionary, int[] valueCodes)
+	{
+		this.dictionary = dictionary;
+		int codeCount = 0;
+		for(int i = 0; i < valueCodes.length; i++) {
+			codeCount = Math.max(codeCount, valueCodes[i] + 1);
+		}
+		groupOfCode = new int[codeCount];
+		Arrays.fill(groupOfCode, -1);
+		codes = new int[Math.min(codeCount, valueCodes.length)];
+		groupOfRow = new int[valueCodes.length];
+		for(int i = 0; i < valueCodes.length; i++) {
+			int group = groupOfCode[valueCodes[i]];
+			if(group < 0) {
+				group = groupCount++;
+				codes[group] = valueCodes[i];
+				groupOfCode[valueCodes[i]] = group;
+			}
+			groupOfRow[i] = group;
+		}
+		studentCounts = new int[groupCount];
+		totals = new long[groupCount];
+		for(int i = 0; i < groupOfRow.length; i++) {
+			studentCounts[groupOfRow[i]]++;
+		}
+	}
+
+   /**
+   * This is the getGroupCount getter which gets the number of groups.
+   * @return the number of groups.
+   */
+	public int getGroupCount() {
+		return groupCount;
+	}
+
+   /**
+   * This is the getName getter which gets the value shared by a group.
+   * @param group the index of the group.
+   * @return the value of the group.
+   */
+	public String getName(int group) {
+		return dictionary.decode(codes[group]);
+	}
+
+   /**
+   * This is the getGroup method which gets the index of the group of a value.
+   * @param name the value of the group.
+   * @return the index of the group, or -1 if no student has the value.
+   */
+	public int getGroup(String name) {
+		int code = dictionary.find(name);
+		if(code < 0 || code >= groupOfCode.length) {
+			return -1;
+		}
+		return groupOfCode[code];
+	}
+
+   /**
+   * This is the getCode getter which gets the code of the value shared by a
+   * group.
+   * @param group the index of the group.
+   * @return the code of the value in the StringDictionary.
+   */
+	public int getCode(int group) {
+		return codes[group];
+	}
+
+   /**
+   * This is the getGroupOfRow getter which gets the group of a student.
+   * @param row the row of the student.
+   * @return the index of the group.
+   */
+	public int getGroupOfRow(int row) {
+		return groupOfRow[row];
+	}
+
+   /**
+   * This is the getStudentCount getter which gets the number of students in a
+   * group.
+   * @param group the index of the group.
+   * @return the number of students.
+   */
+	public int getStudentCount(int group) {
+		return studentCounts[group];
+	}
+
+   /**
+   * This is the getTotalMinutes getter which gets the minutes attended by the
+   * students of a group on all dates.
+   * @param group the index of the group.
+   * @return the total minutes.
+   */
+	public long getTotalMinutes(int group) {
+		return totals[group];
+	}
+
+   /**
+   * This is the getAverageMinutes method which gets the minutes attended by a
+   * student of a group on an average date.
+   * @param group the index of the group.
+   * @param dateCount the number of dates.
+   * @return the average minutes, or 0 if there are no dates.
+   */
+	public double getAverageMinutes(int group, int dateCount) {
+		if(dateCount == 0) {
+			return 0;
+		}
+		return totals[group] / ((double)studentCounts[group] * dateCount);
+	}
+
+   /**
+   * This is the add method which adds minutes of a student to the total of
+   * its group.
+   * @param row the row of the student.
+   * @param minutes the minutes to add, negative to take minutes away.
+   */
+	public void add(int row, long minutes) {
+		totals[groupOfRow[row]] += minutes;
+	}
+
+}
@@ -0,0 +1,26 @@
+/**
+ * This is the LoadProgress interface which is implemented by classes that
+ * follow the progress of a file that is being parsed and that can cancel it.
+ * Architecture:MVC-Model
+ * @author Xiang Luo
+ */
+
+
+public interface LoadProgress {
+
+   /**
+   * This is the update method which is called from the parsing thread with the
+   * number of bytes and rows that have been parsed so far.
+   * @param bytes the number of bytes parsed so far.
+   * @param rows the number of rows parsed so far.
+   */
+	void update(long bytes, long rows);
+
+   /**
+   * This is the isCancelled method which tells the parser whether it should
+   * stop parsing.
+   * @return true if the parser should stop.
+   */
+	boolean isCancelled();
+
+}
@@ -0,0 +1,136 @@
+/**
+ * This is the LoadWorker class which is responsible for parsing a file on a
+ * background thread while a dialog shows how many bytes and rows have been
+ * parsed and lets the user cancel. Only the finish method runs on the event
+ * dispatch thread, once the file is parsed.
+ * Architecture:MVC-Controller
+ * @author Xiang Luo
+ */
+import java.awt.*;
+import java.awt.event.*;
+import java.util.List;
+import java.util.concurrent.*;
+import javax.swing.*;
+
+
+public abstract class LoadWorker<T> extends SwingWorker<T, long[]> implements LoadProgress {
+
+	private JDialog dialog;
+	private JProgressBar progressBar;
+	private JLabel label;
+	private long size;
+
+   /**
+   * This is LoadWorker's constructor which creates the progress dialog.
+   * @param main an instance of the Main class.
+   * @param title the title of the progress dialog.
+   * @param size the total number of bytes to parse.
+   */
+	public LoadWorker(Main main, String title, long size)
+	{
+		this.size = Math.max(size, 1);
+		dialog = new JDialog(main, title, true);
+		dialog.setDefaultCloseOperation(JDialog.DO_NOTHING_ON_CLOSE);
+		progressBar = new JProgressBar(0, 1000);
+		progressBar.setStringPainted(true);
+		label = new JLabel("0 bytes, 0 rows");
+		label.setHorizontalAlignment(SwingConstants.CENTER);
+		JButton cancel = new JButton("Cancel");
+		cancel.addActionListener(new ActionListener() {
+			public void actionPerformed(ActionEvent evt) {
+				cancel(false);
+			}
+		});
+		JPanel buttons = new JPanel();
+		buttons.add(cancel);
+		JPanel panel = new JPanel(new GridLayout(3, 1, 5, 5));
+		panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+		panel.add(progressBar);
+		panel.add(label);
+		panel.add(buttons);
+		dialog.add(panel);
+		dialog.setSize(350, 150);
+		dialog.setLocationRelativeTo(main);
+	}
+
+   /**
+   * This is the start method which starts parsing on a background thread and
+   * shows the progress dialog until the parsing is done or cancelled.
+   */
+	public void start() {
+		execute();
+		if(!isDone()) {
+			dialog.setVisible(true);
+		}
+	}
+
+   /**
+   * This is the load method which parses the file on the background thread.
+   * It should report to this LoadProgress while it parses.
+   * @return the parsed data.
+   * @throws Exception if the file cannot be parsed.
+   */
+	protected abstract T load() throws Exception;
+
+   /**
+   * This is the finish method which is called on the event dispatch thread
+   * with the parsed data if the parsing was not cancelled.
+   * @param result the parsed data.
+   */
+	protected abstract void finish(T result);
+
+   /**
+   * This is the update method which publishes the number of bytes and rows
+   * parsed so far to the event dispatch thread.
+   * @param bytes the number of bytes parsed so far.
+   * @param rows the number of rows parsed so far.
+   */
+	public void update(long bytes, long rows) {
+		publish(new long[]{bytes, rows});
+	}
+
+   /**
+   * This is the doInBackground method which calls load on the background
+   * thread.
+   * @return the parsed data.
+   * @throws Exception if the file cannot be parsed.
+   */
+	@Override
+	protected T doInBackground() throws Exception {
+		return load();
+	}
+
+   /**
+   * This is the process method which shows the latest number of bytes and
+   * rows in the progress dialog.
+   * @param chunks the published numbers of bytes and rows.
+   */
+	@Override
+	protected void process(List<long[]> chunks) {
+		long[] latest = chunks.get(chunks.size() - 1);
+		progressBar.setValue((int)Math.min(1000, latest[0] * 1000 / size));
+		label.setText(latest[0] + " bytes, " + latest[1] + " rows");
+	}
+
+   /**
+   * This is the done method which closes the progress dialog and calls finish
+   * with the parsed data unless the parsing was cancelled.
+   */
+	@Override
+	protected void done() {
+		dialog.dispose();
+		if(isCancelled()) {
+			return;
+		}
+		try {
+			finish(get());
+		} catch(ExecutionException e) {
+			if(!(e.getCause() instanceof CancellationException)) {
+				e.getCause().printStackTrace();
+			}
+		} catch(InterruptedException e) {
+			e.printStackTrace();
+		}
+	}
+
+}
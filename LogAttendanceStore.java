@@ -0,0 +1,629 @@
+/**
+ * This is the LogAttendanceStore class which is an AttendanceStore that keeps
+ * the roster and the attendees of every date in a log file in a directory, so
+ * they are kept when the program exits and only the dates that are queried
+ * are read.
+ *
+ * The log is a sequence of records, each made of the magic bytes SATL, a type,
+ * the length of its body, the body and the CRC32 of the body. The first record
+ * holds the roster. A date record holds the attendees of one date in the order
+ * of the attendance file, followed by the positions of the attendees sorted by
+ * the UTF-8 bytes of their ASURITE, so an ASURITE is found in a date by binary
+ * search without decoding the attendees, and then the length of the session of
+ * the date. A session record holds the length of the session of every date
+ * after one was changed. A record is only appended and never changed, so a
+ * date that is loaded again gets a new record, which replaces the earlier one
+ * when the log is indexed. Date records written before the session length was
+ * kept have their own type and are read with no session length. The dates are indexed in
+ * memory when the log is opened and the bodies are read through memory maps,
+ * so the attendees stay on disk until they are used.
+ *
+ * Loading a roster starts a new log file with a higher number, since the
+ * attendees of the previous roster no longer belong to it, and the older log
+ * is deleted. A record that was not written completely, for example because
+ * the program was stopped, is cut off when the log is opened.
+ * Architecture:MVC-Model
+ * @author Xiang Luo
+ */
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.zip.CRC32;
+
+
+public class LogAttendanceStore implements AttendanceStore {
+
+	private static final int MAGIC = 0x5341544C;
+	private static final int HEADER = 9;
+	private static final int TRAILER = 4;
+	private static final byte ROSTER = 1;
+	private static final byte PLAIN_DATE = 2;
+	private static final byte DATE = 3;
+	private static final byte SESSIONS = 4;
+	private static final String PREFIX = "attendance-";
+	private static final String SUFFIX = ".log";
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private File directory;
+	private FileChannel lockChannel;
+	private FileLock lock;
+	private int generation;
+	private FileChannel channel;
+	private long end;
+	private ByteBuffer roster;
+	private ArrayList<String> dates;
+	private HashMap<String, Integer> columns;
+	private ArrayList<ByteBuffer> bodies;
+	private ArrayList<Integer> sessions;
+
+   /**
+   * This is LogAttendanceStore's constructor which opens the store in the
+   * given directory, creating it if needed, locks it so no other program
+   * writes to it, and indexes the dates of its newest log file.
+   * @param directory the directory of the store.
+   * @throws IOException if the store cannot be opened or is used by another
+   *		 program.
+   */
+	public LogAttendanceStore(File directory) throws IOException
+	{
+		this.directory = directory;
+		if(!directory.isDirectory() && !directory.mkdirs()) {
+			throw new IOException("Cannot create the store directory " + directory);
+		}
+		lockChannel = FileChannel.open(new File(directory, "store.lock").toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+		lock = lockChannel.tryLock();
+		if(lock == null) {
+			lockChannel.close();
+			throw new IOException("The store " + directory + " is used by another program");
+		}
+		dates = new ArrayList<String>();
+		columns = new HashMap<String, Integer>();
+		bodies = new ArrayList<ByteBuffer>();
+		sessions = new ArrayList<Integer>();
+		generation = findGeneration();
+		open();
+	}
+
+   /**
+   * This is the findGeneration method which finds the number of the newest
+   * log file in the directory and deletes the older ones.
+   * @return the number of the newest log file, or 0 if there is none.
+   */
+	private int findGeneration() {
+		int newest = 0;
+		String[] names = directory.list();
+		if(names == null) {
+			return newest;
+		}
+		for(String name : names) {
+			int number = parseGeneration(name);
+			if(number > newest) {
+				newest = number;
+			}
+		}
+		for(String name : names) {
+			int number = parseGeneration(name);
+			if(number >= 0 && number < newest) {
+				new File(directory, name).delete();
+			}
+		}
+		return newest;
+	}
+
+   /**
+   * This is the parseGeneration method which gets the number in the name of
+   * a log file.
+   * @param name the name of a file.
+   * @return the number, or -1 if the name is not the name of a log file.
+   */
+	private static int parseGeneration(String name) {
+		if(!name.startsWith(PREFIX) || !name.endsWith(SUFFIX)) {
+			return -1;
+		}
+		try {
+			return Integer.parseInt(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+		} catch(NumberFormatException e) {
+			return -1;
+		}
+	}
+
+   /**
+   * This is the getLogFile method which gets the log file of the current
+   * generation.
+   * @return the log file.
+   */
+	private File getLogFile() {
+		return new File(directory, PREFIX + generation + SUFFIX);
+	}
+
+   /**
+   * This is the open method which opens the log file of the current
+   * generation, checks its records, cuts off the records after the first one
+   * that is not complete or valid, and then maps the valid records.
+   * @throws IOException if the log file cannot be opened.
+   */
+	private void open() throws IOException {
+		channel = FileChannel.open(getLogFile().toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		ArrayList<long[]> records = new ArrayList<long[]>();
+		long size = channel.size();
+		long position = 0;
+		ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+		CRC32 crc = new CRC32();
+		while(position + HEADER + TRAILER <= size) {
+			buffer.clear().limit(HEADER);
+			readFully(buffer, position);
+			int magic = buffer.getInt(0);
+			byte type = buffer.get(4);
+			long length = buffer.getInt(5);
+			if(magic != MAGIC || length < 0 || position + HEADER + length + TRAILER > size) {
+				break;
+			}
+			if((type == ROSTER) != records.isEmpty() || (type != ROSTER && type != PLAIN_DATE && type != DATE && type != SESSIONS)) {
+				break;
+			}
+			crc.reset();
+			for(long read = 0; read < length; read += buffer.limit()) {
+				buffer.clear().limit((int)Math.min(BUFFER_SIZE, length - read));
+				readFully(buffer, position + HEADER + read);
+				crc.update(buffer.array(), 0, buffer.limit());
+			}
+			buffer.clear().limit(TRAILER);
+			readFully(buffer, position + HEADER + length);
+			if(buffer.getInt(0) != (int)crc.getValue()) {
+				break;
+			}
+			records.add(new long[]{position + HEADER, length, type});
+			position += HEADER + length + TRAILER;
+		}
+		if(position < size) {
+			channel.truncate(position);
+		}
+		end = position;
+		for(int i = 0; i < records.size(); i++) {
+			ByteBuffer body = channel.map(FileChannel.MapMode.READ_ONLY, records.get(i)[0], records.get(i)[1]);
+			if(i == 0) {
+				roster = body;
+			} else if(records.get(i)[2] == PLAIN_DATE) {
+				indexDate(body, 0);
+			} else if(records.get(i)[2] == DATE) {
+				indexDate(body.slice(0, body.limit() - 4), body.getInt(body.limit() - 4));
+			} else {
+				indexSessions(body);
+			}
+		}
+	}
+
+   /**
+   * This is the readFully method which fills the given buffer from the log
+   * file.
+   * @param buffer the buffer to fill up to its limit.
+   * @param position the position in the log file to read from.
+   * @throws IOException if the log file cannot be read or is too short.
+   */
+	private void readFully(ByteBuffer buffer, long position) throws IOException {
+		while(buffer.hasRemaining()) {
+			int read = channel.read(buffer, position);
+			if(read < 0) {
+				throw new EOFException();
+			}
+			position += read;
+		}
+		buffer.flip();
+	}
+
+   /**
+   * This is the indexDate method which adds the date of a date record to the
+   * date index. A later record of a date that is already indexed replaces the
+   * earlier one, and the date keeps its index.
+   * @param body the body of the record, without the length of the session.
+   * @param sessionMinutes the length of the session, or 0 if the record has
+   *		 none.
+   */
+	private void indexDate(ByteBuffer body, int sessionMinutes) {
+		String date = readString(body, 0);
+		Integer column = columns.get(date);
+		if(column != null) {
+			bodies.set(column, body);
+			sessions.set(column, sessionMinutes);
+			return;
+		}
+		columns.put(date, dates.size());
+		dates.add(date);
+		bodies.add(body);
+		sessions.add(sessionMinutes);
+	}
+
+   /**
+   * This is the indexSessions method which sets the length of the session of
+   * the dates from a session record, in the order of the dates.
+   * @param body the body of the record.
+   */
+	private void indexSessions(ByteBuffer body) {
+		int count = body.getInt(0);
+		for(int j = 0; j < count && j < sessions.size(); j++) {
+			sessions.set(j, body.getInt(4 + j * 4));
+		}
+	}
+
+   /**
+   * This is the readString method which reads a string stored as its length
+   * followed by its UTF-8 bytes.
+   * @param body the body of a record.
+   * @param position the position of the length.
+   * @return the string.
+   */
+	private static String readString(ByteBuffer body, int position) {
+		int length = body.getInt(position);
+		byte[] bytes = new byte[length];
+		body.get(position + 4, bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+   /**
+   * This is the append method which appends a record to the log file and
+   * forces it to the disk.
+   * @param type the type of the record.
+   * @param body the body of the record, from its position to its limit.
+   * @return the body of the record, mapped from the log file.
+   * @throws IOException if the log file cannot be written.
+   */
+	private ByteBuffer append(byte type, ByteBuffer body) throws IOException {
+		int length = body.remaining();
+		CRC32 crc = new CRC32();
+		crc.update(body.duplicate());
+		ByteBuffer header = ByteBuffer.allocate(HEADER);
+		header.putInt(MAGIC).put(type).putInt(length).flip();
+		ByteBuffer trailer = ByteBuffer.allocate(TRAILER);
+		trailer.putInt((int)crc.getValue()).flip();
+		long position = end;
+		ByteBuffer[] buffers = {header, body, trailer};
+		for(ByteBuffer buffer : buffers) {
+			while(buffer.hasRemaining()) {
+				position += channel.write(buffer, position);
+			}
+		}
+		channel.force(false);
+		ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, end + HEADER, length);
+		end = position;
+		return mapped;
+	}
+
+   /**
+   * This is the setRoster method which starts a new log file with a roster
+   * record and deletes the previous log file.
+   * @param students the students of the new roster.
+   * @throws IOException if the log file cannot be written.
+   */
+	@Override
+	public void setRoster(ArrayList<Student> students) throws IOException {
+		int length = 4;
+		byte[][] fields = new byte[students.size() * 6][];
+		for(int i = 0; i < students.size(); i++) {
+			Student student = students.get(i);
+			String[] values = {student.getID(), student.getFirstName(), student.getLastName(), student.getProgram(), student.getLevel(), student.getASURITE()};
+			for(int k = 0; k < 6; k++) {
+				fields[i * 6 + k] = values[k].getBytes(StandardCharsets.UTF_8);
+				length += 4 + fields[i * 6 + k].length;
+			}
+		}
+		ByteBuffer body = ByteBuffer.allocate(length);
+		body.putInt(students.size());
+		for(int i = 0; i < fields.length; i++) {
+			body.putInt(fields[i].length).put(fields[i]);
+		}
+		body.flip();
+
+		File previous = getLogFile();
+		channel.close();
+		generation++;
+		dates.clear();
+		columns.clear();
+		bodies.clear();
+		sessions.clear();
+		roster = null;
+		end = 0;
+		channel = FileChannel.open(getLogFile().toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		roster = append(ROSTER, body);
+		previous.delete();
+	}
+
+   /**
+   * This is the getRoster method which reads the students of the roster
+   * record.
+   * @return the roster, or null if no roster was stored.
+   */
+	@Override
+	public RosterFile getRoster() {
+		if(roster == null) {
+			return null;
+		}
+		int count = roster.getInt(0);
+		ArrayList<Student> students = new ArrayList<Student>(count);
+		HashMap<String, Student> studentsByASURITE = new HashMap<String, Student>(count * 2);
+		StringDictionary programs = new StringDictionary();
+		StringDictionary levels = new StringDictionary();
+		String[] values = new String[6];
+		int position = 4;
+		for(int i = 0; i < count; i++) {
+			for(int k = 0; k < 6; k++) {
+				values[k] = readString(roster, position);
+				position += 4 + roster.getInt(position);
+			}
+			Student student = new Student(values[0], values[1], values[2], values[3], values[4], values[5], programs, levels);
+			students.add(student);
+			studentsByASURITE.put(student.getASURITE(), student);
+		}
+		return new RosterFile(students, studentsByASURITE, count, programs, levels);
+	}
+
+   /**
+   * This is the addDate method which appends a date record with the
+   * attendees in the given order followed by their positions sorted by
+   * ASURITE and the length of the session. The record replaces the earlier
+   * record of the date, if any.
+   * @param date the date.
+   * @param attendees the ASURITEs of the attendees.
+   * @param attendeesTimes the minutes of the attendees.
+   * @param sessionMinutes the length of the session of the date.
+   * @throws IOException if the log file cannot be written.
+   */
+	@Override
+	public void addDate(String date, List<String> attendees, List<Integer> attendeesTimes, int sessionMinutes) throws IOException {
+		if(roster == null) {
+			throw new IOException("The store has no roster");
+		}
+		int count = attendees.size();
+		byte[] dateBytes = date.getBytes(StandardCharsets.UTF_8);
+		byte[][] names = new byte[count][];
+		long length = 4 + dateBytes.length + 4 + (long)count * 12 + 4;
+		for(int i = 0; i < count; i++) {
+			names[i] = attendees.get(i).getBytes(StandardCharsets.UTF_8);
+			length += names[i].length;
+		}
+		if(length > Integer.MAX_VALUE) {
+			throw new IOException("Too many attendees for one date: " + count);
+		}
+		ByteBuffer body = ByteBuffer.allocate((int)length);
+		body.putInt(dateBytes.length).put(dateBytes).putInt(count);
+		Integer[] order = new Integer[count];
+		int[] positions = new int[count];
+		for(int i = 0; i < count; i++) {
+			order[i] = i;
+			positions[i] = body.position();
+			body.putInt(names[i].length).put(names[i]).putInt(attendeesTimes.get(i));
+		}
+		final byte[][] keys = names;
+		Arrays.sort(order, new Comparator<Integer>() {
+			public int compare(Integer a, Integer b) {
+				return Arrays.compareUnsigned(keys[a], keys[b]);
+			}
+		});
+		for(int i = 0; i < count; i++) {
+			body.putInt(positions[order[i]]);
+		}
+		body.putInt(sessionMinutes);
+		body.flip();
+		ByteBuffer mapped = append(DATE, body);
+		indexDate(mapped.slice(0, mapped.limit() - 4), sessionMinutes);
+	}
+
+   /**
+   * This is the setSessionMinutes method which appends a session record with
+   * the length of the session of every date that is stored.
+   * @param sessionMinutes the length of the session of every date.
+   * @throws IOException if the log file cannot be written.
+   */
+	@Override
+	public void setSessionMinutes(int[] sessionMinutes) throws IOException {
+		if(roster == null) {
+			throw new IOException("The store has no roster");
+		}
+		int count = Math.min(sessionMinutes.length, sessions.size());
+		ByteBuffer body = ByteBuffer.allocate(4 + count * 4);
+		body.putInt(count);
+		for(int j = 0; j < count; j++) {
+			body.putInt(sessionMinutes[j]);
+		}
+		body.flip();
+		indexSessions(append(SESSIONS, body));
+	}
+
+   /**
+   * This is the getSessionMinutes getter which gets the length of the
+   * session of a date.
+   * @param column the index of the date.
+   * @return the length of the session, or 0 if the date record has none.
+   */
+	@Override
+	public int getSessionMinutes(int column) {
+		return sessions.get(column);
+	}
+
+   /**
+   * This is the getDateCount getter which gets the number of dates.
+   * @return the number of dates.
+   */
+	@Override
+	public int getDateCount() {
+		return dates.size();
+	}
+
+   /**
+   * This is the getDate getter which gets a date.
+   * @param column the index of the date.
+   * @return the date.
+   */
+	@Override
+	public String getDate(int column) {
+		return dates.get(column);
+	}
+
+   /**
+   * This is the getColumn method which looks up the index of a date in the
+   * date index.
+   * @param date the date.
+   * @return the index of the date, or -1 if it is not stored.
+   */
+	@Override
+	public int getColumn(String date) {
+		Integer column = columns.get(date);
+		if(column == null) {
+			return -1;
+		}
+		return column;
+	}
+
+   /**
+   * This is the getFirstAttendee method which gets the position of the first
+   * attendee in the body of a date record.
+   * @param body the body of the record.
+   * @return the position of the first attendee.
+   */
+	private static int getFirstAttendee(ByteBuffer body) {
+		return 4 + body.getInt(0) + 4;
+	}
+
+   /**
+   * This is the getAttendeeCount method which gets the number of attendees in
+   * the body of a date record.
+   * @param body the body of the record.
+   * @return the number of attendees.
+   */
+	private static int getAttendeeCount(ByteBuffer body) {
+		return body.getInt(4 + body.getInt(0));
+	}
+
+   /**
+   * This is the getAttendees method which reads the attendees of a date.
+   * @param column the index of the date.
+   * @return the ASURITEs of the attendees, in the order of the attendance
+   *		 file.
+   */
+	@Override
+	public ArrayList<String> getAttendees(int column) {
+		ByteBuffer body = bodies.get(column);
+		int count = getAttendeeCount(body);
+		ArrayList<String> attendees = new ArrayList<String>(count);
+		int position = getFirstAttendee(body);
+		for(int i = 0; i < count; i++) {
+			attendees.add(readString(body, position));
+			position += 4 + body.getInt(position) + 4;
+		}
+		return attendees;
+	}
+
+   /**
+   * This is the getAttendeesTimes method which reads the minutes of the
+   * attendees of a date.
+   * @param column the index of the date.
+   * @return the minutes, in the order of the attendees.
+   */
+	@Override
+	public ArrayList<Integer> getAttendeesTimes(int column) {
+		ByteBuffer body = bodies.get(column);
+		int count = getAttendeeCount(body);
+		ArrayList<Integer> attendeesTimes = new ArrayList<Integer>(count);
+		int position = getFirstAttendee(body);
+		for(int i = 0; i < count; i++) {
+			position += 4 + body.getInt(position);
+			attendeesTimes.add(body.getInt(position));
+			position += 4;
+		}
+		return attendeesTimes;
+	}
+
+   /**
+   * This is the getMinutes method which finds an ASURITE in a date by binary
+   * search over the positions of the attendees sorted by ASURITE.
+   * @param column the index of the date.
+   * @param ASURITE the ASURITE of the attendee.
+   * @return the minutes, or -1 if the ASURITE did not attend on that date.
+   */
+	@Override
+	public int getMinutes(int column, String ASURITE) {
+		return getMinutes(bodies.get(column), ASURITE.getBytes(StandardCharsets.UTF_8));
+	}
+
+   /**
+   * This is the getMinutes method which finds the UTF-8 bytes of an ASURITE
+   * in the body of a date record.
+   * @param body the body of the record.
+   * @param key the UTF-8 bytes of the ASURITE.
+   * @return the minutes, or -1 if the ASURITE is not in the record.
+   */
+	private static int getMinutes(ByteBuffer body, byte[] key) {
+		int count = getAttendeeCount(body);
+		int sorted = body.limit() - count * 4;
+		int low = 0;
+		int high = count - 1;
+		while(low <= high) {
+			int middle = (low + high) >>> 1;
+			int position = body.getInt(sorted + middle * 4);
+			int compare = compare(body, position, key);
+			if(compare < 0) {
+				low = middle + 1;
+			} else if(compare > 0) {
+				high = middle - 1;
+			} else {
+				return body.getInt(position + 4 + body.getInt(position));
+			}
+		}
+		return -1;
+	}
+
+   /**
+   * This is the compare method which compares a string of a record with the
+   * UTF-8 bytes of another string, byte by byte as unsigned values.
+   * @param body the body of the record.
+   * @param position the position of the length of the string.
+   * @param key the UTF-8 bytes of the other string.
+   * @return a negative number, zero, or a positive number if the string of
+   *		 the record is less than, equal to, or greater than the other one.
+   */
+	private static int compare(ByteBuffer body, int position, byte[] key) {
+		int length = body.getInt(position);
+		int common = Math.min(length, key.length);
+		for(int k = 0; k < common; k++) {
+			int compare = (body.get(position + 4 + k) & 0xFF) - (key[k] & 0xFF);
+			if(compare != 0) {
+				return compare;
+			}
+		}
+		return length - key.length;
+	}
+
+   /**
+   * This is the getHistory method which finds an ASURITE in every date.
+   * @param ASURITE the ASURITE of the attendee.
+   * @return the minutes keyed by date, in the order of the dates.
+   */
+	@Override
+	public LinkedHashMap<String, Integer> getHistory(String ASURITE) {
+		LinkedHashMap<String, Integer> history = new LinkedHashMap<String, Integer>();
+		byte[] key = ASURITE.getBytes(StandardCharsets.UTF_8);
+		for(int j = 0; j < dates.size(); j++) {
+			int minutes = getMinutes(bodies.get(j), key);
+			if(minutes >= 0) {
+				history.put(dates.get(j), minutes);
+			}
+		}
+		return history;
+	}
+
+   /**
+   * This is the close method which closes the log file and releases the lock
+   * of the store.
+   * @throws IOException if the log file cannot be closed.
+   */
+	@Override
+	public void close() throws IOException {
+		channel.close();
+		lock.release();
+		lockChannel.close();
+	}
+
+}
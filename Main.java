@@ -10,12 +10,12 @@ import java.awt.*;
 import javax.swing.*;
 import javax.swing.filechooser.*;
 import org.jfree.chart.*;
-import org.jfree.chart.plot.XYPlot;
-import org.jfree.data.xy.*;
 
 
 public class Main extends JFrame {
 
+	public static final String TITLE = "CSE360 Final Project";
+
 	private Repository repository;
 	private View view;
 	private Controller controller;
@@ -28,7 +28,12 @@ public class Main extends JFrame {
 	private JMenuItem roster;
 	private JMenuItem add;
 	private JMenuItem save;
+	private JMenuItem openSnapshot;
+	private JMenuItem saveSnapshot;
+	private JMenuItem watch;
 	private JMenuItem plot;
+	private JMenuItem analyze;
+	private JMenuItem risk;
 	
    /**
    * This is Main's constructor which initializes the model, the controller,
@@ -63,9 +68,14 @@ public class Main extends JFrame {
 		roster = new JMenuItem("Load a Roster");
 		add = new JMenuItem("Add Attendance");
 		save = new JMenuItem("Save");
+		openSnapshot = new JMenuItem("Open Snapshot");
+		saveSnapshot = new JMenuItem("Save Snapshot");
+		watch = new JMenuItem("Watch a Folder");
 		plot = new JMenuItem("Plot Data");
+		analyze = new JMenuItem("Analyze Data");
+		risk = new JMenuItem("At-Risk Students");
 		
-		JMenuItem[] items = {roster, add, save, plot};
+		JMenuItem[] items = {roster, add, save, openSnapshot, saveSnapshot, watch, plot, analyze, risk};
 		
 		for(int i = 0; i < items.length; i++)
 		{
@@ -79,7 +89,12 @@ public class Main extends JFrame {
 		controller.addActionListener(roster, "Roster");
 		controller.addActionListener(add, "Add");
 		controller.addActionListener(save, "Save");
+		controller.addActionListener(openSnapshot, "OpenSnapshot");
+		controller.addActionListener(saveSnapshot, "SaveSnapshot");
+		controller.addActionListener(watch, "Watch");
 		controller.addActionListener(plot, "Plot");
+		controller.addActionListener(analyze, "Analyze");
+		controller.addActionListener(risk, "Risk");
 		controller.addJButtonActionListener(about, "About");
 
 	}
@@ -123,13 +138,74 @@ public class Main extends JFrame {
 	}
 
    /**
-   * This is the saveFile method which opens a JFileChooser save dialog. It
-   * returns the JFileChooser if the user clicks the "OK" button on the dialog,
-   * and returns null otherwise.
+   * This is the openFiles method which opens a JFileChooser open dialog in
+   * which several files can be selected. It returns the selected files if the
+   * user clicks the "OK" button on the dialog, and returns null otherwise.
+   * @return The files that the user selected.
+   */
+	public File[] openFiles() {
+		JFileChooser fc = fileChooser();
+		fc.setMultiSelectionEnabled(true);
+		if(fc.showOpenDialog(this) == JFileChooser.APPROVE_OPTION) {
+			return fc.getSelectedFiles();
+		}
+		return null;
+	}
+
+   /**
+   * This is the openFolder method which opens a JFileChooser open dialog in
+   * which only a folder can be selected. It returns the selected folder if
+   * the user clicks the "OK" button on the dialog, and returns null otherwise.
+   * @return The folder that the user selected.
+   */
+	public File openFolder() {
+		JFileChooser fc = fileChooser();
+		fc.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+		if(fc.showOpenDialog(this) == JFileChooser.APPROVE_OPTION) {
+			return fc.getSelectedFile();
+		}
+		return null;
+	}
+
+   /**
+   * This is the saveFile method which opens a JFileChooser save dialog that
+   * also lists compressed CSV files. It returns the JFileChooser if the user
+   * clicks the "OK" button on the dialog, and returns null otherwise.
    * @return A JFileChooser with a file name that the user selected or entered.
    */
 	public JFileChooser saveFile() {
 		JFileChooser fc = fileChooser();
+		fc.addChoosableFileFilter(new FileNameExtensionFilter("Compressed CSV Files (.csv.gz)", "gz"));
+		if(fc.showSaveDialog(this) == JFileChooser.APPROVE_OPTION) {
+			return fc;
+		}
+		return null;
+	}
+
+   /**
+   * This is the openSnapshotFile method which opens a JFileChooser open dialog
+   * that shows snapshot files. It returns the JFileChooser if the user clicks
+   * the "OK" button on the dialog, and returns null otherwise.
+   * @return A JFileChooser with a file that the user selected.
+   */
+	public JFileChooser openSnapshotFile() {
+		JFileChooser fc = fileChooser();
+		fc.setFileFilter(new FileNameExtensionFilter("Snapshot Files", SnapshotFile.EXTENSION));
+		if(fc.showOpenDialog(this) == JFileChooser.APPROVE_OPTION) {
+			return fc;
+		}
+		return null;
+	}
+
+   /**
+   * This is the saveSnapshotFile method which opens a JFileChooser save
+   * dialog that shows snapshot files. It returns the JFileChooser if the user
+   * clicks the "OK" button on the dialog, and returns null otherwise.
+   * @return A JFileChooser with a file name that the user selected or entered.
+   */
+	public JFileChooser saveSnapshotFile() {
+		JFileChooser fc = fileChooser();
+		fc.setFileFilter(new FileNameExtensionFilter("Snapshot Files", SnapshotFile.EXTENSION));
 		if(fc.showSaveDialog(this) == JFileChooser.APPROVE_OPTION) {
 			return fc;
 		}
@@ -145,37 +221,97 @@ public class Main extends JFrame {
 		JOptionPane.showMessageDialog(this, message, "Error", JOptionPane.ERROR_MESSAGE);
 	}
 
+   /**
+   * This is the watchingChanged method which shows the watched folder and the
+   * number of files added from it in the title, and lets the watch JMenuItem
+   * stop watching while a folder is watched.
+   * @param folder the watched folder, or null if no folder is watched.
+   * @param added the number of files in the last batch, or 0.
+   */
+	public void watchingChanged(File folder, int added) {
+		if(folder == null) {
+			setTitle(TITLE);
+			watch.setText("Watch a Folder");
+			return;
+		}
+		String title = TITLE + " - watching " + folder.getName();
+		if(added > 0) {
+			String s = "";
+			if(added > 1) {
+				s = "s";
+			}
+			title += ", " + added + " file" + s + " added";
+		}
+		setTitle(title);
+		watch.setText("Stop Watching " + folder.getName());
+	}
+
    /**
    * This is the attendanceDialog method which creates a new JDialog that
    * displays information about the loaded attendance file (number of people
    * found in roster, number of additional attendee(s), and how long additional
-   * attendees connected).
+   * attendees connected). The additional attendees are listed by an
+   * UnmatchedList below the message.
    */
 	public void attendanceDialog() {
 		JDialog dialog = new JDialog(this, "Attendance added", true);
 		JLabel text = new JLabel(repository.getAttendanceLoadedMessage());
 		text.setHorizontalAlignment(SwingConstants.CENTER);
-		dialog.add(text);
-		dialog.setSize(350, 175);
+		if(repository.getUnmatched().size() == 0) {
+			dialog.add(text);
+			dialog.setSize(350, 175);
+		} else {
+			text.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+			dialog.add(text, BorderLayout.NORTH);
+			dialog.add(new UnmatchedList(repository, repository.getAdditionalCount()), BorderLayout.CENTER);
+			dialog.setSize(450, 450);
+		}
 		dialog.setLocationRelativeTo(null);
 		dialog.setVisible(true);
 	}
 
    /**
    * This is the plotDialog method which creates a new JDialog that displays
-   * a scatter plot of the attendance data. It uses the JFreeChart library
-   * to generate a scatter plot.
-   * @param seriesCollection The x and y values of the scatter plot.
+   * the scatter plot of an AttendanceChart, which is kept between plots, and
+   * a SessionPanel above it to change the session length and the bucket
+   * width. The ChartPanel stops listening to the chart when the dialog is
+   * closed.
+   * @param attendanceChart the AttendanceChart, already updated.
    */
-	public void plotDialog(XYSeriesCollection seriesCollection) {
+	public void plotDialog(AttendanceChart attendanceChart) {
 		JDialog dialog = new JDialog(this, "Plot", true);
-		XYDataset dataset = seriesCollection;
-		JFreeChart chart = ChartFactory.createScatterPlot("", "Percentage of Attendance", "Count", dataset);
-		XYPlot plot = (XYPlot)chart.getPlot();
-		plot.setBackgroundPaint(new Color(255, 228, 196));
-		ChartPanel panel = new ChartPanel(chart);
-		dialog.add(panel);
-		dialog.setSize(600, 300);
+		ChartPanel panel = new ChartPanel(attendanceChart.getChart());
+		dialog.add(new SessionPanel(repository, attendanceChart), BorderLayout.NORTH);
+		dialog.add(panel, BorderLayout.CENTER);
+		dialog.setSize(600, 350);
+		dialog.setLocationRelativeTo(null);
+		dialog.setVisible(true);
+		panel.setChart(null);
+	}
+
+   /**
+   * This is the analyticsDialog method which creates a new JDialog that
+   * displays the attendance broken down by program, level, date and week in
+   * an AnalyticsPanel.
+   * @param analytics the AttendanceAnalytics of the attendance data.
+   */
+	public void analyticsDialog(AttendanceAnalytics analytics) {
+		JDialog dialog = new JDialog(this, "Analytics", true);
+		dialog.add(new AnalyticsPanel(analytics));
+		dialog.setSize(900, 450);
+		dialog.setLocationRelativeTo(null);
+		dialog.setVisible(true);
+	}
+
+   /**
+   * This is the riskDialog method which creates a new JDialog that displays
+   * the students who are most at risk in a RiskPanel.
+   * @param data the AttendanceData of the roster.
+   */
+	public void riskDialog(AttendanceData data) {
+		JDialog dialog = new JDialog(this, "At-Risk Students", true);
+		dialog.add(new RiskPanel(data));
+		dialog.setSize(800, 450);
 		dialog.setLocationRelativeTo(null);
 		dialog.setVisible(true);
 	}
@@ -195,17 +331,18 @@ public class Main extends JFrame {
 	}
 	
    /**
-   * This is the main method which instantiates a new instance of Main and sets
-   * up the JFrame.
+   * This is the main method which instantiates a new instance of Main, sets
+   * up the JFrame and restores the data kept in the attendance store, if any.
    * @param args Unused.
    */
 	public static void main(String[] args) {
 		Main frame = new Main();
-		frame.setTitle("CSE360 Final Project");
+		frame.setTitle(TITLE);
 		frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
 		frame.setSize(700, 700);
 		frame.setLocationRelativeTo(null);
 		frame.setVisible(true);
+		frame.repository.openStore();
 	}
 
 }
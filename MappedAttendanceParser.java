@@ -0,0 +1,168 @@
+/**
+ * This is the MappedAttendanceParser class which is responsible for parsing
+ * very large attendance files. It splits the file on line boundaries into
+ * chunks, memory-maps each chunk with FileChannel.map, and parses the chunks
+ * in parallel. Each chunk sums the minutes of its attendees, and the partial
+ * sums are merged in the order of the chunks, so the result is the same as
+ * reading the file from start to end. Quoted fields must not contain line
+ * breaks, since a chunk may start after any line break.
+ * Architecture:MVC-Model
+ * @author Xiang Luo
+ */
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+public class MappedAttendanceParser {
+
+	public static final long MIN_SIZE = 8L << 20;
+	private static final long MIN_CHUNK = 8L << 20;
+	private static final long MAX_CHUNK = 256L << 20;
+
+   /**
+   * This is the parse method which parses the given file as the attendance
+   * file for the given date in memory-mapped chunks.
+   * @param file the file to parse as an attendance file.
+   * @param selectedDate the date of the attendance file.
+   * @param progress the LoadProgress to report to, or null.
+   * @return the parsed attendance, or null if the file is not a valid
+   *		 attendance file.
+   * @throws IOException if the file cannot be read.
+   * @throws CancellationException if the progress was cancelled.
+   */
+	public static AttendanceFile parse(File file, String selectedDate, final LoadProgress progress) throws IOException {
+		final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		try {
+			long[] bounds = split(channel);
+			final AtomicLong totalBytes = new AtomicLong();
+			final AtomicLong totalRows = new AtomicLong();
+			ArrayList<Callable<AttendanceFile>> tasks = new ArrayList<Callable<AttendanceFile>>();
+			for(int i = 0; i < bounds.length - 1; i++) {
+				final long start = bounds[i];
+				final long size = bounds[i + 1] - bounds[i];
+				tasks.add(new Callable<AttendanceFile>() {
+					public AttendanceFile call() throws IOException {
+						LoadProgress chunkProgress = null;
+						if(progress != null) {
+							chunkProgress = new PartialProgress(progress, totalBytes, totalRows);
+						}
+						CSVReader reader = new CSVReader(channel.map(FileChannel.MapMode.READ_ONLY, start, size));
+						LinkedHashMap<String, Integer> attendeesMinutes = new LinkedHashMap<String, Integer>();
+						int lines = AttendanceData.sumAttendance(reader, attendeesMinutes, chunkProgress);
+						if(lines < 0) {
+							return null;
+						}
+						return new AttendanceFile(null, attendeesMinutes, lines);
+					}
+				});
+			}
+			ArrayList<AttendanceFile> chunks = AttendanceImport.invokeAll(ForkJoinPool.commonPool(), tasks);
+			return merge(chunks, selectedDate);
+		} finally {
+			channel.close();
+		}
+	}
+
+   /**
+   * This is the merge method which adds up the partial sums of the chunks in
+   * the order of the chunks.
+   * @param chunks the parsed chunks, with null for a chunk that is not valid.
+   * @param selectedDate the date of the attendance file.
+   * @return the parsed attendance, or null if a chunk is not valid.
+   */
+	private static AttendanceFile merge(ArrayList<AttendanceFile> chunks, String selectedDate) {
+		LinkedHashMap<String, Integer> attendeesMinutes = null;
+		int lines = 0;
+		for(AttendanceFile chunk : chunks) {
+			if(chunk == null) {
+				return null;
+			}
+			lines += chunk.getLines();
+			if(attendeesMinutes == null) {
+				attendeesMinutes = chunk.getAttendeesMinutes();
+				continue;
+			}
+			for(Map.Entry<String, Integer> entry : chunk.getAttendeesMinutes().entrySet()) {
+				Integer previousTime = attendeesMinutes.get(entry.getKey());
+				if(previousTime == null) {
+					attendeesMinutes.put(entry.getKey(), entry.getValue());
+				} else {
+					attendeesMinutes.put(entry.getKey(), previousTime + entry.getValue());
+				}
+			}
+		}
+		if(attendeesMinutes == null) {
+			attendeesMinutes = new LinkedHashMap<String, Integer>();
+		}
+		return new AttendanceFile(selectedDate, attendeesMinutes, lines);
+	}
+
+   /**
+   * This is the split method which finds the chunk boundaries of the file.
+   * There are about four chunks per processor (one chunk if there is a single
+   * processor, since each chunk has its own map to merge), between 8 MB and
+   * 256 MB each, and every chunk but the last ends right after a line break.
+   * @param channel the channel of the file.
+   * @return the offsets where the chunks start, followed by the file size.
+   * @throws IOException if the file cannot be read.
+   */
+	static long[] split(FileChannel channel) throws IOException {
+		long size = channel.size();
+		int processors = Runtime.getRuntime().availableProcessors();
+		long chunk = size + 1;
+		if(processors > 1) {
+			chunk = size / (processors * 4) + 1;
+		}
+		chunk = Math.min(MAX_CHUNK, Math.max(MIN_CHUNK, chunk));
+		ArrayList<Long> bounds = new ArrayList<Long>();
+		bounds.add(0L);
+		ByteBuffer probe = ByteBuffer.allocate(4096);
+		long position = chunk;
+		while(position < size) {
+			long end = nextLine(channel, position, probe);
+			if(end >= size) {
+				break;
+			}
+			bounds.add(end);
+			position = end + chunk;
+		}
+		bounds.add(size);
+		long[] result = new long[bounds.size()];
+		for(int i = 0; i < result.length; i++) {
+			result[i] = bounds.get(i);
+		}
+		return result;
+	}
+
+   /**
+   * This is the nextLine method which finds the start of the first line after
+   * the given offset.
+   * @param channel the channel of the file.
+   * @param position the offset to search from.
+   * @param probe a buffer to read the file into.
+   * @return the offset right after the next line break, or the file size if
+   *		 there is none.
+   * @throws IOException if the file cannot be read.
+   */
+	private static long nextLine(FileChannel channel, long position, ByteBuffer probe) throws IOException {
+		while(true) {
+			probe.clear();
+			int count = channel.read(probe, position);
+			if(count <= 0) {
+				return channel.size();
+			}
+			for(int i = 0; i < count; i++) {
+				if(probe.get(i) == '\n') {
+					return position + i + 1;
+				}
+			}
+			position += count;
+		}
+	}
+
+}
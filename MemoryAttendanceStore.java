@@ -0,0 +1,210 @@
+/**
+ * This is the MemoryAttendanceStore class which is the default AttendanceStore.
+ * It keeps the roster and the attendees of every date in ArrayLists, so
+ * nothing is kept when the program exits. Looking up an ASURITE scans the
+ * attendees of each date, since the AttendanceData class matches attendees to
+ * the roster through its own ASURITE index.
+ * Architecture:MVC-Model
+ * @author Xiang Luo
+ */
+import java.util.*;
+
+
+public class MemoryAttendanceStore implements AttendanceStore {
+
+	private ArrayList<Student> students;
+	private ArrayList<String> dates;
+	private HashMap<String, Integer> columns;
+	private ArrayList<ArrayList<String>> attendeesLists;
+	private ArrayList<ArrayList<Integer>> attendeesTimesLists;
+	private ArrayList<Integer> sessions;
+
+   /**
+   * This is MemoryAttendanceStore's constructor which allocates memory for
+   * the ArrayLists.
+   */
+	public MemoryAttendanceStore()
+	{
+		dates = new ArrayList<String>();
+		columns = new HashMap<String, Integer>();
+		attendeesLists = new ArrayList<ArrayList<String>>();
+		attendeesTimesLists = new ArrayList<ArrayList<Integer>>();
+		sessions = new ArrayList<Integer>();
+	}
+
+   /**
+   * This is the setRoster method which keeps the given roster and removes the
+   * attendees of every date.
+   * @param students the students of the new roster.
+   */
+	@Override
+	public void setRoster(ArrayList<Student> students) {
+		this.students = students;
+		dates.clear();
+		columns.clear();
+		attendeesLists.clear();
+		attendeesTimesLists.clear();
+		sessions.clear();
+	}
+
+   /**
+   * This is the getRoster method which gets the roster with a new ASURITE
+   * index.
+   * @return the roster, or null if no roster was set.
+   */
+	@Override
+	public RosterFile getRoster() {
+		if(students == null) {
+			return null;
+		}
+		HashMap<String, Student> studentsByASURITE = new HashMap<String, Student>(students.size() * 2);
+		for(Student student : students) {
+			studentsByASURITE.put(student.getASURITE(), student);
+		}
+		return new RosterFile(students, studentsByASURITE, students.size());
+	}
+
+   /**
+   * This is the addDate method which copies the attendees of a date into
+   * the ArrayLists, in place of the previous ones if the date is already
+   * stored.
+   * @param date the date.
+   * @param attendees the ASURITEs of the attendees.
+   * @param attendeesTimes the minutes of the attendees.
+   * @param sessionMinutes the length of the session of the date.
+   */
+	@Override
+	public void addDate(String date, List<String> attendees, List<Integer> attendeesTimes, int sessionMinutes) {
+		Integer column = columns.get(date);
+		if(column != null) {
+			attendeesLists.set(column, new ArrayList<String>(attendees));
+			attendeesTimesLists.set(column, new ArrayList<Integer>(attendeesTimes));
+			sessions.set(column, sessionMinutes);
+			return;
+		}
+		columns.put(date, dates.size());
+		dates.add(date);
+		attendeesLists.add(new ArrayList<String>(attendees));
+		attendeesTimesLists.add(new ArrayList<Integer>(attendeesTimes));
+		sessions.add(sessionMinutes);
+	}
+
+   /**
+   * This is the setSessionMinutes method which copies the length of the
+   * session of every date that is stored.
+   * @param sessionMinutes the length of the session of every date.
+   */
+	@Override
+	public void setSessionMinutes(int[] sessionMinutes) {
+		for(int j = 0; j < sessions.size() && j < sessionMinutes.length; j++) {
+			sessions.set(j, sessionMinutes[j]);
+		}
+	}
+
+   /**
+   * This is the getSessionMinutes getter which gets the length of the
+   * session of a date.
+   * @param column the index of the date.
+   * @return the length of the session.
+   */
+	@Override
+	public int getSessionMinutes(int column) {
+		return sessions.get(column);
+	}
+
+   /**
+   * This is the getDateCount getter which gets the number of dates.
+   * @return the number of dates.
+   */
+	@Override
+	public int getDateCount() {
+		return dates.size();
+	}
+
+   /**
+   * This is the getDate getter which gets a date.
+   * @param column the index of the date.
+   * @return the date.
+   */
+	@Override
+	public String getDate(int column) {
+		return dates.get(column);
+	}
+
+   /**
+   * This is the getColumn method which looks up the index of a date.
+   * @param date the date.
+   * @return the index of the date, or -1 if it is not stored.
+   */
+	@Override
+	public int getColumn(String date) {
+		Integer column = columns.get(date);
+		if(column == null) {
+			return -1;
+		}
+		return column;
+	}
+
+   /**
+   * This is the getAttendees getter which gets the attendees of a date.
+   * @param column the index of the date.
+   * @return the attendees ArrayList.
+   */
+	@Override
+	public ArrayList<String> getAttendees(int column) {
+		return attendeesLists.get(column);
+	}
+
+   /**
+   * This is the getAttendeesTimes getter which gets the minutes of the
+   * attendees of a date.
+   * @param column the index of the date.
+   * @return the attendeesTimes ArrayList.
+   */
+	@Override
+	public ArrayList<Integer> getAttendeesTimes(int column) {
+		return attendeesTimesLists.get(column);
+	}
+
+   /**
+   * This is the getMinutes method which scans the attendees of a date for an
+   * ASURITE.
+   * @param column the index of the date.
+   * @param ASURITE the ASURITE of the attendee.
+   * @return the minutes, or -1 if the ASURITE did not attend on that date.
+   */
+	@Override
+	public int getMinutes(int column, String ASURITE) {
+		int i = attendeesLists.get(column).indexOf(ASURITE);
+		if(i < 0) {
+			return -1;
+		}
+		return attendeesTimesLists.get(column).get(i);
+	}
+
+   /**
+   * This is the getHistory method which scans every date for an ASURITE.
+   * @param ASURITE the ASURITE of the attendee.
+   * @return the minutes keyed by date, in the order of the dates.
+   */
+	@Override
+	public LinkedHashMap<String, Integer> getHistory(String ASURITE) {
+		LinkedHashMap<String, Integer> history = new LinkedHashMap<String, Integer>();
+		for(int j = 0; j < dates.size(); j++) {
+			int minutes = getMinutes(j, ASURITE);
+			if(minutes >= 0) {
+				history.put(dates.get(j), minutes);
+			}
+		}
+		return history;
+	}
+
+   /**
+   * This is the close method which does nothing, since nothing is kept
+   * outside of the memory.
+   */
+	@Override
+	public void close() {
+	}
+
+}
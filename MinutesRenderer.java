@@ -0,0 +1,129 @@
+/**
+ * This is the MinutesRenderer class which is responsible for drawing the
+ * minutes in the date columns of the JTable. The text of every number of
+ * minutes up to CACHE_SIZE is created once and shared by all the cells, and
+ * the colors and borders are looked up once, so drawing a cell only sets the
+ * text and the colors of one label. The JTable of the View class hands the
+ * minutes to the getMinutesComponent method as an int, so no Integer is
+ * created for a cell when it is drawn.
+ * Architecture:MVC-View
+ * @author Xiang Luo
+ */
+import java.awt.*;
+import javax.swing.*;
+import javax.swing.border.Border;
+import javax.swing.table.DefaultTableCellRenderer;
+
+
+public class MinutesRenderer extends DefaultTableCellRenderer {
+
+	private static final int CACHE_SIZE = 1440;
+	private static final String[] TEXTS = new String[CACHE_SIZE + 1];
+
+	static {
+		for(int i = 0; i < TEXTS.length; i++) {
+			TEXTS[i] = Integer.toString(i);
+		}
+	}
+
+	private Border focusBorder;
+	private Border border;
+
+   /**
+   * This is MinutesRenderer's constructor which aligns the minutes to the
+   * right like the numbers of a default JTable.
+   */
+	public MinutesRenderer()
+	{
+		setHorizontalAlignment(SwingConstants.RIGHT);
+	}
+
+   /**
+   * This is the updateUI method which looks up the borders again when the
+   * look and feel changes.
+   */
+	@Override
+	public void updateUI() {
+		super.updateUI();
+		focusBorder = UIManager.getBorder("Table.focusCellHighlightBorder");
+		border = UIManager.getBorder("Table.cellNoFocusBorder");
+		if(border == null) {
+			border = noFocusBorder;
+		}
+	}
+
+   /**
+   * This is the getText method which gets the text of a number of minutes,
+   * from the cache if it is in it.
+   * @param minutes the number of minutes.
+   * @return the text of the number.
+   */
+	public static String getText(int minutes) {
+		if(minutes >= 0 && minutes <= CACHE_SIZE) {
+			return TEXTS[minutes];
+		}
+		return Integer.toString(minutes);
+	}
+
+   /**
+   * This is the getTableCellRendererComponent method which sets the text and
+   * the colors of the label for one cell whose minutes were read with
+   * getValueAt.
+   * @param table the JTable.
+   * @param value the minutes of the cell, as an Integer.
+   * @param isSelected true if the cell is selected.
+   * @param hasFocus true if the cell has the focus.
+   * @param row the index of the row.
+   * @param column the index of the column.
+   * @return the label.
+   */
+	@Override
+	public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected, boolean hasFocus, int row, int column) {
+		setColors(table, isSelected, hasFocus);
+		if(value instanceof Integer) {
+			setText(getText(((Integer)value).intValue()));
+		} else {
+			setText("");
+		}
+		return this;
+	}
+
+   /**
+   * This is the getMinutesComponent method which sets the text and the
+   * colors of the label for one cell from its minutes as an int.
+   * @param table the JTable.
+   * @param minutes the minutes of the cell.
+   * @param isSelected true if the cell is selected.
+   * @param hasFocus true if the cell has the focus.
+   * @return the label.
+   */
+	public Component getMinutesComponent(JTable table, int minutes, boolean isSelected, boolean hasFocus) {
+		setColors(table, isSelected, hasFocus);
+		setText(getText(minutes));
+		return this;
+	}
+
+   /**
+   * This is the setColors method which sets the colors, the font and the
+   * border of the label for one cell.
+   * @param table the JTable.
+   * @param isSelected true if the cell is selected.
+   * @param hasFocus true if the cell has the focus.
+   */
+	private void setColors(JTable table, boolean isSelected, boolean hasFocus) {
+		if(isSelected) {
+			setForeground(table.getSelectionForeground());
+			setBackground(table.getSelectionBackground());
+		} else {
+			setForeground(table.getForeground());
+			setBackground(table.getBackground());
+		}
+		setFont(table.getFont());
+		if(hasFocus && focusBorder != null) {
+			setBorder(focusBorder);
+		} else {
+			setBorder(border);
+		}
+	}
+
+}
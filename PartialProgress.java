@@ -0,0 +1,58 @@
+/**
+ * This is the PartialProgress class which follows the progress of one part of
+ * a parse that runs in several parts at once, such as one file of an import or
+ * one chunk of a file, and reports the total of all the parts to a single
+ * LoadProgress.
+ * Architecture:MVC-Model
+ * @author Xiang Luo
+ */
+import java.util.concurrent.atomic.AtomicLong;
+
+
+public class PartialProgress implements LoadProgress {
+
+	private LoadProgress total;
+	private AtomicLong totalBytes;
+	private AtomicLong totalRows;
+	private long bytes;
+	private long rows;
+
+   /**
+   * This is PartialProgress's constructor which initializes member variables.
+   * @param total the LoadProgress that follows all the parts.
+   * @param totalBytes the number of bytes parsed by all the parts, shared by
+   *		 the parts.
+   * @param totalRows the number of rows parsed by all the parts, shared by the
+   *		 parts.
+   */
+	public PartialProgress(LoadProgress total, AtomicLong totalBytes, AtomicLong totalRows)
+	{
+		this.total = total;
+		this.totalBytes = totalBytes;
+		this.totalRows = totalRows;
+	}
+
+   /**
+   * This is the update method which adds what this part parsed since its last
+   * update to the totals and reports the totals.
+   * @param bytes the number of bytes parsed by this part so far.
+   * @param rows the number of rows parsed by this part so far.
+   */
+	public void update(long bytes, long rows) {
+		long newBytes = totalBytes.addAndGet(bytes - this.bytes);
+		long newRows = totalRows.addAndGet(rows - this.rows);
+		this.bytes = bytes;
+		this.rows = rows;
+		total.update(newBytes, newRows);
+	}
+
+   /**
+   * This is the isCancelled method which tells the part whether the whole
+   * parse was cancelled.
+   * @return true if the parse should stop.
+   */
+	public boolean isCancelled() {
+		return total.isCancelled();
+	}
+
+}
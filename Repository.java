@@ -9,8 +9,6 @@ import java.io.*;
 import java.util.*;
 import java.text.*;
 import javax.swing.*;
-import javax.swing.table.*;
-import javax.swing.filechooser.*;
 import javax.swing.JFormattedTextField.AbstractFormatter;
 import org.jdatepicker.impl.*;
 import org.jfree.data.xy.*;
@@ -56,36 +54,53 @@ public class Repository extends Observable {
 	private Main main;
 	private View view;
 
-	private ArrayList<String> dates;
-	private ArrayList<Student> students;
-	private ArrayList<ArrayList<String>> attendeesLists;
-	private ArrayList<ArrayList<Integer>> attendeesTimesLists;
-	private boolean rosterLoaded;
-	private boolean attendanceAdded;
+	private AttendanceData data;
 	private boolean tableAdded;
-	private int studentsCount;
-	private int additionalCount;
-	private String loadedMessage;
-	private String additionalMessage;
-	private String additionalDetail;
+	private AttendanceWatcher watcher;
+	private HashMap<String, File> watchedDates;
+	private boolean watchedBatch;
+	private AttendanceChart chart;
 
    /**
-   * This is Repository's constructor which allocates memory for the ArrayLists
-   * and initializes member variables.
+   * This is one of Repository's constructors which creates the AttendanceData
+   * that holds the roster and the attendance data and initializes member
+   * variables.
    * @param main an instance of the Main class.
    */
 	public Repository(Main main)
+	{
+		this(main, createData());
+	}
+
+   /**
+   * This is one of Repository's constructors which uses the given
+   * AttendanceData, for example to plot data that is already loaded without
+   * the user interface.
+   * @param main an instance of the Main class, or null.
+   * @param data the roster and the attendance data.
+   */
+	public Repository(Main main, AttendanceData data)
 	{
 		this.main = main;
-		dates = new ArrayList<String>();
-		students = new ArrayList<Student>();
-		attendeesLists = new ArrayList<ArrayList<String>>();
-		attendeesTimesLists = new ArrayList<ArrayList<Integer>>();
-		rosterLoaded = false;
-		attendanceAdded = false;
+		this.data = data;
 		tableAdded = false;
 	}
 
+   /**
+   * This is the createData method which creates the AttendanceData with the
+   * AttendanceStore named by the attendance.store system property. If the
+   * store cannot be opened, the data is only kept in memory.
+   * @return the AttendanceData.
+   */
+	private static AttendanceData createData() {
+		try {
+			return new AttendanceData(AttendanceData.createStore());
+		} catch(Exception e) {
+			e.printStackTrace();
+			return new AttendanceData();
+		}
+	}
+
    /**
    * This is the setView method which assigns the given object to the view
    * field.
@@ -95,12 +110,21 @@ public class Repository extends Observable {
 		this.view = view;
 	}
 
+   /**
+   * This is the getData getter which gets the AttendanceData that holds the
+   * roster and the attendance data.
+   * @return the AttendanceData.
+   */
+	public AttendanceData getData() {
+		return data;
+	}
+
    /**
    * This is the getDates getter which gets the dates ArrayList.
    * @return the dates ArrayList.
    */
 	public ArrayList<String> getDates() {
-		return dates;
+		return data.getDates();
 	}
 
    /**
@@ -108,36 +132,44 @@ public class Repository extends Observable {
    * @return the students ArrayList.
    */
 	public ArrayList<Student> getStudents() {
-		return students;
+		return data.getStudents();
 	}
 
    /**
-   * This is the getAttendeesLists getter which gets the attendeesLists
-   * ArrayList.
-   * @return the attendeesLists ArrayList.
+   * This is the getStore getter which gets the AttendanceStore that keeps the
+   * roster and the attendees of every date.
+   * @return the AttendanceStore.
    */
-	public ArrayList<ArrayList<String>> getAttendeesLists() {
-		return attendeesLists;
+	public AttendanceStore getStore() {
+		return data.getStore();
 	}
 
    /**
-   * This is the getAttendeesTimesLists getter which gets the
-   * attendeesTimesLists ArrayList.
-   * @return the attendeesTimesLists ArrayList.
+   * This is the getAttendanceLoadedMessage method which gets the message that
+   * is shown to the user after attendance file is loaded.
+   * @return the message that is shown to the user after attendance file is
+   *		 loaded.
    */
-	public ArrayList<ArrayList<Integer>> getAttendeesTimesLists() {
-		return attendeesTimesLists;
+	public String getAttendanceLoadedMessage() {
+		return data.getAttendanceLoadedMessage();
 	}
 
    /**
-   * This is the getAttendanceLoadedMessage method which creates and returns
-   * the message that is shown to the user after attendance file is loaded.
-   * @return the message that is shown to the user after attendance file is
-   *		 loaded.
+   * This is the getAdditionalCount getter which gets the number of additional
+   * attendees found in the last loaded attendance files.
+   * @return the number of additional attendees.
    */
-	public String getAttendanceLoadedMessage() {
-		String message = "<html>" + loadedMessage + "<br><br>" + additionalMessage + "<br><br>" + additionalDetail + "</html>";
-		return message;
+	public int getAdditionalCount() {
+		return data.getAdditionalCount();
+	}
+
+   /**
+   * This is the getUnmatched getter which gets the attendees of the last
+   * loaded attendance files that are not in the roster.
+   * @return the UnmatchedAttendees.
+   */
+	public UnmatchedAttendees getUnmatched() {
+		return data.getUnmatched();
 	}
 
    /**
@@ -145,7 +177,35 @@ public class Repository extends Observable {
    * @return a boolean which indicates whether a roster file is loaded.
    */
 	public boolean rosterIsLoaded() {
-		return rosterLoaded;
+		return data.rosterIsLoaded();
+	}
+
+   /**
+   * This is the attendanceIsAdded getter which checks if attendance was added
+   * to the roster.
+   * @return true if at least one attendance file is loaded.
+   */
+	public boolean attendanceIsAdded() {
+		return data.attendanceIsAdded();
+	}
+
+   /**
+   * This is the isWatching getter which checks if a folder is watched for
+   * new attendance files.
+   * @return true if a folder is watched.
+   */
+	public boolean isWatching() {
+		return watcher != null;
+	}
+
+   /**
+   * This is the isWatchedBatch getter which checks if the View class is being
+   * notified of files that were added from the watched folder, so it can
+   * refresh the JTable without showing a dialog for every batch.
+   * @return true while a watched batch is being added.
+   */
+	public boolean isWatchedBatch() {
+		return watchedBatch;
 	}
 
    /**
@@ -177,16 +237,20 @@ public class Repository extends Observable {
 	}
 
    /**
-   * This is the addAttendance method which asks the user to select a file to
-   * open as an attendance file and opens the file. If the user has not loaded
-   * a roster file first, it shows an error message in a JOptionPane instead.
+   * This is the addAttendance method which asks the user to select one or
+   * more files to open as attendance files and opens them. A single file is
+   * opened with a date chosen by the user, and several files are imported
+   * together with the dates found by the AttendanceImport class. If the user
+   * has not loaded a roster file first, it shows an error message in a
+   * JOptionPane instead.
    */
 	public void addAttendance() {
 		if(rosterIsLoaded()) {
-			JFileChooser fc = main.openFile();
-			if(fc != null) {
-				File file = fc.getSelectedFile();
-				openAttendanceFile(file);
+			File[] files = main.openFiles();
+			if(files != null && files.length == 1) {
+				openAttendanceFile(files[0]);
+			} else if(files != null && files.length > 1) {
+				importAttendanceFiles(files);
 			}
 		} else {
 			main.showErrorMessage("Roster file must to be loaded before adding attendance");
@@ -200,7 +264,7 @@ public class Repository extends Observable {
    * error message in a JOptionPane instead.
    */
 	public void save() {
-		if(attendanceAdded) {
+		if(data.attendanceIsAdded()) {
 			JFileChooser fc = main.saveFile();
 			if(fc != null) {
 				File file = fc.getSelectedFile();
@@ -211,6 +275,85 @@ public class Repository extends Observable {
 		}
 	}
 
+   /**
+   * This is the saveUnmatched method which asks the user to enter a file name
+   * and saves the additional attendees of the last loaded attendance files in
+   * a CSV file with that file name.
+   */
+	public void saveUnmatched() {
+		JFileChooser fc = main.saveFile();
+		if(fc != null) {
+			try {
+				data.getUnmatched().saveToCSV(new File(withCSVExtension(fc.getSelectedFile().getPath())));
+			} catch(Exception e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+   /**
+   * This is the openSnapshot method which asks the user to select a snapshot
+   * file and restores the roster and the attendance data saved in it.
+   */
+	public void openSnapshot() {
+		JFileChooser fc = main.openSnapshotFile();
+		if(fc != null) {
+			openSnapshotFile(fc.getSelectedFile());
+		}
+	}
+
+   /**
+   * This is the saveSnapshot method which asks the user to enter a file name
+   * and saves the roster and the attendance data in a snapshot file with that
+   * file name. If the user has not loaded a roster file first, it shows an
+   * error message in a JOptionPane instead.
+   */
+	public void saveSnapshot() {
+		if(rosterIsLoaded()) {
+			JFileChooser fc = main.saveSnapshotFile();
+			if(fc != null) {
+				saveSnapshotFile(fc.getSelectedFile());
+			}
+		} else {
+			main.showErrorMessage("Roster file must be loaded before saving a snapshot");
+		}
+	}
+
+   /**
+   * This is the watchFolder method which asks the user to select a folder and
+   * then imports every attendance file that is saved in it, or stops watching
+   * if a folder is already watched. If the user has not loaded a roster file
+   * first, it shows an error message in a JOptionPane instead.
+   */
+	public void watchFolder() {
+		if(isWatching()) {
+			stopWatching();
+		} else if(rosterIsLoaded()) {
+			File folder = main.openFolder();
+			if(folder != null) {
+				startWatching(folder);
+			}
+		} else {
+			main.showErrorMessage("Roster file must to be loaded before watching a folder");
+		}
+	}
+
+   /**
+   * This is the openStore method which restores the roster and the
+   * attendance data kept in the AttendanceStore when the program starts, and
+   * notifies the View class if there was a roster.
+   */
+	public void openStore() {
+		try {
+			if(data.openStore()) {
+				setChanged();
+				notifyObservers(this);
+			}
+		} catch(Exception e) {
+			e.printStackTrace();
+		}
+	}
+
    /**
    * This is the plotData method which calls the plotDialog method of main to
    * display a JDialog with a scatter plot in it. If the user has not loaded
@@ -218,25 +361,66 @@ public class Repository extends Observable {
    * JOptionPane instead.
    */
 	public void plotData() {
-		if(attendanceAdded) {
-			main.plotDialog(createDataset());		
+		if(data.attendanceIsAdded()) {
+			main.plotDialog(getChart());
 		} else {
 			main.showErrorMessage("Both roster file and attendance file(s) must be loaded before plotting");
 		}
 	}
 
+   /**
+   * This is the getChart method which gets the AttendanceChart, which is
+   * created the first time and kept for the next plots, updated with the
+   * attendance data.
+   * @return the AttendanceChart.
+   */
+	public AttendanceChart getChart() {
+		if(chart == null) {
+			chart = new AttendanceChart(data);
+		}
+		chart.update();
+		return chart;
+	}
+
+   /**
+   * This is the analyzeData method which shows the attendance broken down by
+   * group if attendance has been added, and an error message otherwise.
+   */
+	public void analyzeData() {
+		if(data.attendanceIsAdded()) {
+			main.analyticsDialog(data.getAnalytics());
+		} else {
+			main.showErrorMessage("Both roster file and attendance file(s) must be loaded before analyzing");
+		}
+	}
+
+   /**
+   * This is the showAtRisk method which shows the students who are most at
+   * risk if attendance has been added, and an error message otherwise.
+   */
+	public void showAtRisk() {
+		if(data.attendanceIsAdded()) {
+			main.riskDialog(data);
+		} else {
+			main.showErrorMessage("Both roster file and attendance file(s) must be loaded before ranking students");
+		}
+	}
+
    /**
    * This is the createDataset method which creates a XYSeriesCollection from
-   * the attendance data.
+   * the attendance data, with a point at the start of every bucket of the
+   * histogram.
    * @return the generated dataset.
    */
 	public XYSeriesCollection createDataset() {
 		XYSeriesCollection dataset = new XYSeriesCollection();
+		ArrayList<String> dates = data.getDates();
+		int[][] histogram = data.getHistogram();
+		int bucketWidth = data.getBucketWidth();
 		for(int i = 0; i < dates.size(); i++) {
 			XYSeries series = new XYSeries(dates.get(i));
-			int[][] data = getSeries(dates.get(i));
-			for(int j = 0; j < 11; j++) {
-				series.add(data[j][0], data[j][1]);
+			for(int j = 0; j < histogram[i].length; j++) {
+				series.add(AttendanceHistogram.getBucketPercent(j, bucketWidth), histogram[i][j]);
 			}
 			dataset.addSeries(series);
 		}
@@ -244,238 +428,398 @@ public class Repository extends Observable {
 	}
 
    /**
-   * This is the openRosterFile method which opens the given file as the roster
-   * file, parses the file, and stores the data into the students ArrayList. It
-   * also notifies the View class that new data was loaded.
-   * @param file the file to open as the roster file.
+   * This is the getSessionMinutes method which gets the length of the session
+   * of a date.
+   * @param column the column index of the date, or -1 for the length of the
+   *		 dates that are added.
+   * @return the length of the session in minutes.
    */
-	private void openRosterFile(File file) {
+	public int getSessionMinutes(int column) {
+		if(column < 0) {
+			return data.getMatrix().getDefaultSessionMinutes();
+		}
+		return data.getMatrix().getSessionMinutes(column);
+	}
+
+   /**
+   * This is the setSessionMinutes method which sets the length of the session
+   * of a date and refreshes the View class, whose filter depends on it.
+   * @param column the column index of the date, or -1 for every date.
+   * @param minutes the length of the session in minutes.
+   */
+	public void setSessionMinutes(int column, int minutes) {
 		try {
-			FileReader fr = new FileReader(file);
-			BufferedReader br = new BufferedReader(fr);
-			String line = "";
-			String[] info;
-			boolean valid = true;
-			students.clear();
-			loadedMessage = "";
-			additionalMessage = "";
-			additionalDetail = "";
-			attendeesLists.clear();
-			attendeesTimesLists.clear();
-			while((line = br.readLine()) != null) {
-				info = line.split(",");
-				if(info.length != 6) {
-					valid = false;
-					break;
-				}
-				boolean exist = false;
-				for(int i = 0; !exist && i < students.size(); i++) {
-					if(students.get(i).getASURITE().equals(info[5])) {
-						exist = true;
-					}
+			if(column < 0) {
+				data.setSessionMinutes(minutes);
+			} else {
+				data.setSessionMinutes(column, minutes);
+			}
+		} catch(Exception e) {
+			e.printStackTrace();
+		}
+		if(view != null) {
+			view.applyFilter();
+		}
+	}
+
+   /**
+   * This is the getBucketWidth getter which gets the width of the buckets of
+   * the plot.
+   * @return the width of a bucket, in percent of the session.
+   */
+	public int getBucketWidth() {
+		return data.getBucketWidth();
+	}
+
+   /**
+   * This is the setBucketWidth setter which sets the width of the buckets of
+   * the plot.
+   * @param bucketWidth the width of a bucket, in percent of the session.
+   */
+	public void setBucketWidth(int bucketWidth) {
+		data.setBucketWidth(bucketWidth);
+	}
+
+   /**
+   * This is the openRosterFile method which parses the given file as the
+   * roster file on a background thread while a progress dialog is shown. Once
+   * it is parsed, it shows an error message if the file is not a valid roster
+   * file, and otherwise replaces the roster and notifies the View class that
+   * new data was loaded.
+   * @param file the file to open as the roster file.
+   */
+	private void openRosterFile(final File file) {
+		new LoadWorker<RosterFile>(main, "Loading roster", file.length()) {
+			protected RosterFile load() throws Exception {
+				return AttendanceData.parseRosterFile(file, this);
+			}
+
+			protected void finish(RosterFile roster) {
+				if(roster == null) {
+					main.showErrorMessage("Not a valid roster file, please try again");
+					return;
 				}
-				if(!exist) {
-					Student student = new Student(info[0], info[1], info[2], info[3], info[4], info[5]);
-					students.add(student);
+				try {
+					data.setRoster(roster);
+					setChanged();
+					notifyObservers(Repository.this);
+				} catch(Exception e) {
+					e.printStackTrace();
 				}
 			}
-			if(!valid) {
-				main.showErrorMessage("Not a valid roster file, please try again");
-				return;
+		}.start();
+	}
+
+   /**
+   * This is the openSnapshotFile method which reads the given snapshot file
+   * on a background thread while a progress dialog is shown. Once it is read,
+   * it shows an error message if the file is not a valid snapshot, and
+   * otherwise restores the data and notifies the View class.
+   * @param file the snapshot file.
+   */
+	private void openSnapshotFile(final File file) {
+		new LoadWorker<SnapshotFile>(main, "Opening snapshot", file.length()) {
+			protected SnapshotFile load() throws Exception {
+				return SnapshotFile.read(file, this);
 			}
-			rosterLoaded = true;
-			br.close();
 
-			setChanged();
-			notifyObservers(this);
-		} catch(Exception e) {
-			e.printStackTrace();
-		}
+			protected void finish(SnapshotFile snapshot) {
+				if(snapshot == null) {
+					main.showErrorMessage("Not a valid snapshot file, please try again");
+					return;
+				}
+				try {
+					data.restore(snapshot);
+					setChanged();
+					notifyObservers(Repository.this);
+				} catch(Exception e) {
+					e.printStackTrace();
+				}
+			}
+		}.start();
 	}
 
    /**
    * This is the openAttendanceFile method which asks the user for the date of
-   * the attendance file, opens the given file as the attendance file, parses
-   * the file, stores the data into the attendees and the attendeesTimes
-   * ArrayLists, and generate a report about the loaded attendance file. It
-   * also notifies the View class that new data was loaded.
+   * the attendance file and then loads the given file for that date.
    * @param file the file to open as the attendance file.
    */
 	private void openAttendanceFile(File file) {
-		try {
-			String selectedDate = "";
-			boolean validDate = false;
-			while(!validDate) {
-				UtilDateModel model = new UtilDateModel();
-				Properties p = new Properties();
-				p.put("text.today", "Today");
-				p.put("text.month", "Month");
-				p.put("text.year", "Year");
-				JDatePanelImpl datePanel = new JDatePanelImpl(model, p);
-				JDatePickerImpl datePicker = new JDatePickerImpl(datePanel, new DateLabelFormatter());
-				int result = JOptionPane.showConfirmDialog(null, datePicker, "Choose a date", JOptionPane.OK_CANCEL_OPTION);
-				if(result == JOptionPane.OK_OPTION) {
-					selectedDate = (String)datePicker.getJFormattedTextField().getText();
-					if(selectedDate.length() == 0) {
-						main.showErrorMessage("You have not entered a date, please try again");
-						continue;
-					}
-					else if(dates.contains(selectedDate)) {
-						main.showErrorMessage("You have already selected this date for another attendance file, please try again");
-						continue;
-					}
-					validDate = true;
-					dates.add(selectedDate);
+		String selectedDate = askDate("Choose a date", data.getDates());
+		if(selectedDate != null) {
+			loadAttendanceFile(file, selectedDate);
+		}
+	}
+
+   /**
+   * This is the askDate method which asks the user for the date of an
+   * attendance file until a date that is not taken yet is chosen.
+   * @param title the title of the dialog.
+   * @param taken the dates that are already used.
+   * @return the date, or null if the user cancelled.
+   */
+	private String askDate(String title, List<String> taken) {
+		String selectedDate = "";
+		boolean validDate = false;
+		while(!validDate) {
+			UtilDateModel model = new UtilDateModel();
+			Properties p = new Properties();
+			p.put("text.today", "Today");
+			p.put("text.month", "Month");
+			p.put("text.year", "Year");
+			JDatePanelImpl datePanel = new JDatePanelImpl(model, p);
+			JDatePickerImpl datePicker = new JDatePickerImpl(datePanel, new DateLabelFormatter());
+			int result = JOptionPane.showConfirmDialog(null, datePicker, title, JOptionPane.OK_CANCEL_OPTION);
+			if(result == JOptionPane.OK_OPTION) {
+				selectedDate = (String)datePicker.getJFormattedTextField().getText();
+				if(selectedDate.length() == 0) {
+					main.showErrorMessage("You have not entered a date, please try again");
+					continue;
+				}
+				else if(taken.contains(selectedDate)) {
+					main.showErrorMessage("You have already selected this date for another attendance file, please try again");
+					continue;
 				}
-				else {
+				validDate = true;
+			}
+			else {
+				return null;
+			}
+		}
+		return selectedDate;
+	}
+
+   /**
+   * This is the loadAttendanceFile method which parses the given file as the
+   * attendance file for the given date on a background thread while a
+   * progress dialog is shown. Once it is parsed, it shows an error message if
+   * the file is not a valid attendance file, and otherwise adds the attendance
+   * and notifies the View class that new data was loaded.
+   * @param file the file to open as the attendance file.
+   * @param selectedDate the date of the attendance file.
+   */
+	private void loadAttendanceFile(final File file, final String selectedDate) {
+		new LoadWorker<AttendanceFile>(main, "Loading attendance", file.length()) {
+			protected AttendanceFile load() throws Exception {
+				return AttendanceData.parseAttendanceFile(file, selectedDate, this);
+			}
+
+			protected void finish(AttendanceFile attendance) {
+				if(attendance == null) {
+					main.showErrorMessage("Not a valid attendance file, please try again");
 					return;
 				}
+				try {
+					data.addAttendance(attendance);
+					setChanged();
+					notifyObservers(Repository.this);
+				} catch(Exception e) {
+					e.printStackTrace();
+				}
 			}
+		}.start();
+	}
 
-			FileReader fr = new FileReader(file);
-			BufferedReader br = new BufferedReader(fr);
-			String line = "";
-			String[] info;
-			ArrayList<String> attendees = new ArrayList<String>();
-			ArrayList<Integer> attendeesTimes = new ArrayList<Integer>();
-			boolean valid = true;
-			studentsCount = 0;
-			additionalCount = 0;
-			loadedMessage = "";
-			additionalMessage = "";
-			additionalDetail = "";
-			while((line = br.readLine()) != null) {
-				info = line.split(",");
-				if(info.length != 2) {
-					valid = false;
-					break;
+   /**
+   * This is the importAttendanceFiles method which finds the date of each of
+   * the given attendance files in a manifest or in its name, parses the files
+   * concurrently on a background thread while a progress dialog is shown, and
+   * then adds all of them and notifies the View class once. If a date cannot
+   * be found, the user is asked for it, and if the user cancels, a date is
+   * used twice, or a file is not a valid attendance file, none of the files
+   * are added.
+   * @param files the files to open as attendance files.
+   */
+	private void importAttendanceFiles(File[] files) {
+		try {
+			final AttendanceImport attendanceImport = new AttendanceImport();
+			ArrayList<File> undated = attendanceImport.addAll(files);
+			for(int i = 0; i < undated.size(); i++) {
+				ArrayList<String> taken = new ArrayList<String>(data.getDates());
+				taken.addAll(attendanceImport.getDates());
+				String date = askDate("Choose a date for " + undated.get(i).getName(), taken);
+				if(date == null) {
+					return;
 				}
-				String ASURITE = info[0];
-				Integer time = Integer.parseInt(info[1]);
-				if(attendees.contains(ASURITE)) {
-					int index = attendees.indexOf(ASURITE);
-					Integer newTime = attendeesTimes.get(index) + time;
-					attendeesTimes.set(index, newTime);
-					boolean found = false;
-					for(int i = 0; !found && i < students.size(); i++) {
-						Student student = students.get(i);
-						String rosterASURITE = student.getASURITE();
-						if(ASURITE.equals(rosterASURITE)) {
-							student.updateAttendance(selectedDate, newTime);
-							found = true;
+				attendanceImport.add(undated.get(i), date);
+			}
+			String duplicate = attendanceImport.findDuplicateDate(data.getDates());
+			if(duplicate != null) {
+				main.showErrorMessage("The date " + duplicate + " is used by more than one attendance file, please try again");
+				return;
+			}
+			long size = 0;
+			for(int i = 0; i < files.length; i++) {
+				size += files[i].length();
+			}
+			new LoadWorker<ArrayList<AttendanceFile>>(main, "Loading attendance", size) {
+				protected ArrayList<AttendanceFile> load() throws Exception {
+					return attendanceImport.parse(this);
+				}
+
+				protected void finish(ArrayList<AttendanceFile> attendanceFiles) {
+					for(int i = 0; i < attendanceFiles.size(); i++) {
+						if(attendanceFiles.get(i) == null) {
+							main.showErrorMessage("Not a valid attendance file: " + attendanceImport.getFiles().get(i).getName());
+							return;
 						}
 					}
-				} else {
-					attendees.add(ASURITE);
-					attendeesTimes.add(time);
-					boolean found = false;
-					for(int i = 0; !found && i < students.size(); i++) {
-						Student student = students.get(i);
-						String rosterASURITE = student.getASURITE();
-						if(ASURITE.equals(rosterASURITE)) {
-							student.addAttendance(selectedDate, time);
-							studentsCount++;
-							found = true;
-						}
+					try {
+						data.addAttendance(attendanceFiles);
+						setChanged();
+						notifyObservers(Repository.this);
+					} catch(Exception e) {
+						e.printStackTrace();
 					}
-					if(!found) {
-						additionalCount++;
-						String s = "";
-						if(time > 1) {
-							s = "s";
+				}
+			}.start();
+		} catch(Exception e) {
+			e.printStackTrace();
+		}
+	}
+
+   /**
+   * This is the startWatching method which starts an AttendanceWatcher on the
+   * given folder. Each batch it parses is added on the event dispatch thread.
+   * @param folder the folder to watch.
+   */
+	private void startWatching(File folder) {
+		try {
+			watchedDates = new HashMap<String, File>();
+			watcher = new AttendanceWatcher(folder) {
+				protected void batchParsed(final AttendanceImport attendanceImport, final ArrayList<AttendanceFile> attendanceFiles, final ArrayList<File> undated) {
+					final AttendanceWatcher batchWatcher = this;
+					SwingUtilities.invokeLater(new Runnable() {
+						public void run() {
+							if(watcher == batchWatcher) {
+								addWatchedBatch(attendanceImport, attendanceFiles, undated);
+							}
 						}
-						additionalDetail += ASURITE + ", connected for " + time + " minute" + s + "<br>";
-					}
+					});
 				}
+			};
+			watcher.start();
+			main.watchingChanged(watcher.getFolder(), 0);
+		} catch(Exception e) {
+			e.printStackTrace();
+			watcher = null;
+			main.showErrorMessage("Cannot watch " + folder.getName() + ", please try again");
+		}
+	}
+
+   /**
+   * This is the stopWatching method which stops the AttendanceWatcher.
+   */
+	private void stopWatching() {
+		try {
+			watcher.close();
+		} catch(Exception e) {
+			e.printStackTrace();
+		}
+		watcher = null;
+		main.watchingChanged(null, 0);
+	}
+
+   /**
+   * This is the addWatchedBatch method which adds a batch of files from the
+   * watched folder and notifies the View class once for the whole batch. A
+   * file that changed after it was imported replaces its date. A file without
+   * a date, with a date that is already loaded from another file, or that is
+   * not a valid attendance file is skipped, and the skipped files are listed
+   * in one error message.
+   * @param attendanceImport the files of the batch and their dates.
+   * @param attendanceFiles the parsed files in the same order.
+   * @param undated the files of the batch for which no date was found.
+   */
+	private void addWatchedBatch(AttendanceImport attendanceImport, ArrayList<AttendanceFile> attendanceFiles, ArrayList<File> undated) {
+		ArrayList<AttendanceFile> added = new ArrayList<AttendanceFile>();
+		ArrayList<String> skipped = new ArrayList<String>();
+		for(File file : undated) {
+			skipped.add(file.getName() + " (no date)");
+		}
+		HashSet<String> loaded = new HashSet<String>(data.getDates());
+		HashSet<String> dates = new HashSet<String>();
+		for(int i = 0; i < attendanceFiles.size(); i++) {
+			File file = attendanceImport.getFiles().get(i);
+			String date = attendanceImport.getDates().get(i);
+			if(attendanceFiles.get(i) == null) {
+				skipped.add(file.getName() + " (not a valid attendance file)");
+			} else if(!dates.add(date) || (loaded.contains(date) && !file.equals(watchedDates.get(date)))) {
+				skipped.add(file.getName() + " (" + date + " is already loaded)");
+			} else {
+				added.add(attendanceFiles.get(i));
+				watchedDates.put(date, file);
 			}
-			if(!valid) {
-				main.showErrorMessage("Not a valid attendance file, please try again");
-				return;
-			}
-			attendanceAdded = true;
-			attendeesLists.add(attendees);
-			attendeesTimesLists.add(attendeesTimes);
-			String s = " ";
-			String was = "was";
-			if(additionalCount > 1) {
-				s = "s ";
-				was = "were";
+		}
+		if(!added.isEmpty() && rosterIsLoaded()) {
+			try {
+				data.addAttendance(added);
+				watchedBatch = true;
+				setChanged();
+				notifyObservers(this);
+			} catch(Exception e) {
+				e.printStackTrace();
+			} finally {
+				watchedBatch = false;
 			}
-			additionalMessage = "" + additionalCount + " additional attendee" + s + was + " found:";
-			s = "";
-			if(studentsCount > 1) {
+			main.watchingChanged(watcher.getFolder(), added.size());
+		}
+		if(!skipped.isEmpty()) {
+			String s = "";
+			if(skipped.size() > 1) {
 				s = "s";
 			}
-			loadedMessage = "Data loaded for " + studentsCount + " user" + s + " in the roster.";
-			br.close();
+			StringBuilder message = new StringBuilder("<html>Skipped " + skipped.size() + " file" + s + " in " + watcher.getFolder().getName() + ":");
+			for(String file : skipped) {
+				message.append("<br>").append(file);
+			}
+			main.showErrorMessage(message.append("</html>").toString());
+		}
+	}
 
-			setChanged();
-			notifyObservers(this);
+   /**
+   * This is the saveSnapshotFile method which saves the roster and the
+   * attendance data in a snapshot file with a file name set by the user.
+   * @param file the file name to save the snapshot in.
+   */
+	private void saveSnapshotFile(File file) {
+		try {
+			String filename = file.getPath();
+			if(!filename.toLowerCase().endsWith("." + SnapshotFile.EXTENSION)) {
+				filename += "." + SnapshotFile.EXTENSION;
+			}
+			data.saveSnapshot(new File(filename));
 		} catch(Exception e) {
 			e.printStackTrace();
 		}
 	}
 
    /**
-   * This is the saveToCSV method which saves the contents of the JTable in a
-   * CSV file with a file name set by the user.
+   * This is the saveToCSV method which saves the roster and the attendance
+   * data in a CSV file with a file name set by the user. A file name ending
+   * with .gz is saved gzip-compressed.
    * @param file the file name to save the data in.
    */
 	private void saveToCSV(File file) {
 		try {
-			String filename = file.getPath();
-			if(!filename.toLowerCase().endsWith(".csv")) {
-				filename += ".csv";
-			}
-			FileWriter fw = new FileWriter(filename);
-			DefaultTableModel model = view.getTableModel();
-			fw.write("ID,First Name,Last Name,Program,Level,ASURITE");
-			for(int i = 6; i < model.getColumnCount(); i++) {
-				fw.write("," + model.getColumnName(i));
-			}
-			fw.write("\n");
-			for(int i = 0; i < model.getRowCount(); i++) {
-				for(int j = 0; j < model.getColumnCount(); j++) {
-					fw.write(model.getValueAt(i, j).toString());
-					if(j < model.getColumnCount() - 1) {
-						fw.write(",");
-					}
-				}
-				if(i < model.getRowCount() - 1) {
-					fw.write("\n");
-				}
-			}
-			fw.flush();
-			fw.close();
+			data.saveToCSV(new File(withCSVExtension(file.getPath())));
 		} catch(Exception e) {
 			e.printStackTrace();
 		}
 	}
 
    /**
-   * This is the getSeries method which generate a series of x and y value pairs
-   * that is used to plot the attendance data. It calculates percentages of
-   * attendance and counts how many students are in each percentage of
-   * attendance.
-   * @param date the date of attendance.
+   * This is the withCSVExtension method which adds .csv to a file name that
+   * ends with neither .csv nor .gz.
+   * @param filename the file name set by the user.
+   * @return the file name to save the CSV file in.
    */
-	private int[][] getSeries(String date) {
-		int[][] series = new int[11][2];
-		for(int i = 0; i < 11; i++) {
-			int x = i * 10;
-			series[i][0] = x;
-			series[i][1] = 0;
-		}
-		for(int i = 0; i < students.size(); i++) {
-			Integer time = students.get(i).getAttendanceForDate(date);
-			int percentage = (int)(time.doubleValue() / 75.0 * 100.0);
-			if(percentage > 100) {
-				percentage = 100;
-			}
-			percentage -= percentage % 10;
-			series[percentage / 10][1]++;
+	private static String withCSVExtension(String filename) {
+		String lower = filename.toLowerCase();
+		if(!lower.endsWith(".csv") && !lower.endsWith(".gz")) {
+			filename += ".csv";
 		}
-		return series;
+		return filename;
 	}
 
 }
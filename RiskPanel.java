@@ -0,0 +1,183 @@
+/**
+ * This is the RiskPanel class which is responsible for showing the students
+ * who are most at risk in the at-risk dialog, ranked by the AttendanceRisk
+ * class with their moving average, slope and absences in a row. The window
+ * and the number of students shown can be changed, and only the ranked
+ * students are read, so the table stays fast for a large roster.
+ * Architecture:MVC-View
+ * @author Xiang Luo
+ */
+import java.awt.*;
+import java.util.*;
+import javax.swing.*;
+import javax.swing.event.*;
+import javax.swing.table.*;
+
+/**
+* This is the RiskTableModel class which is responsible for giving the JTable
+* the columns of the ranked students.
+*/
+class RiskTableModel extends AbstractTableModel {
+	private static final String[] COLUMNS = {"Rank", "First Name", "Last Name", "ASURITE", "Average %", "Slope", "Absences", "Score"};
+
+	private ArrayList<Student> students;
+	private AttendanceRisk risk;
+	private int[] rows;
+
+   /**
+   * This is RiskTableModel's constructor which initializes member variables.
+   * @param students the students, indexed by row.
+   * @param risk the AttendanceRisk of the students.
+   */
+	public RiskTableModel(ArrayList<Student> students, AttendanceRisk risk)
+	{
+		this.students = students;
+		this.risk = risk;
+		rows = new int[0];
+	}
+
+   /**
+   * This is the setRows method which shows the given students.
+   * @param rows the rows of the students, in the order of their rank.
+   */
+	public void setRows(int[] rows) {
+		this.rows = rows;
+		fireTableDataChanged();
+	}
+
+   /**
+   * This is the getRowCount getter which gets the number of ranked students.
+   * @return the number of rows.
+   */
+	@Override
+	public int getRowCount() {
+		return rows.length;
+	}
+
+   /**
+   * This is the getColumnCount getter which gets the number of columns.
+   * @return the number of columns.
+   */
+	@Override
+	public int getColumnCount() {
+		return COLUMNS.length;
+	}
+
+   /**
+   * This is the getColumnName getter which gets the name of a column.
+   * @param column the index of the column.
+   * @return the name of the column.
+   */
+	@Override
+	public String getColumnName(int column) {
+		return COLUMNS[column];
+	}
+
+   /**
+   * This is the getColumnClass method which gets the class of the values of a
+   * column, so numbers are sorted and aligned as numbers.
+   * @param column the index of the column.
+   * @return the class of the values.
+   */
+	@Override
+	public Class<?> getColumnClass(int column) {
+		if(column == 0 || column == 6) {
+			return Integer.class;
+		}
+		if(column < 4) {
+			return String.class;
+		}
+		return Double.class;
+	}
+
+   /**
+   * This is the getValueAt method which gets a value of a ranked student.
+   * @param row the rank of the student, from 0.
+   * @param column the index of the column.
+   * @return the value.
+   */
+	@Override
+	public Object getValueAt(int row, int column) {
+		Student student = students.get(rows[row]);
+		switch(column) {
+			case 0:
+				return row + 1;
+			case 1:
+				return student.getFirstName();
+			case 2:
+				return student.getLastName();
+			case 3:
+				return student.getASURITE();
+			case 4:
+				return round(risk.getMovingAverage(rows[row]));
+			case 5:
+				return round(risk.getSlope(rows[row]));
+			case 6:
+				return risk.getStreak(rows[row]);
+			default:
+				return round(risk.getScore(rows[row]));
+		}
+	}
+
+   /**
+   * This is the round method which rounds a number to two decimals for the
+   * table.
+   * @param value the number.
+   * @return the rounded number.
+   */
+	private static double round(double value) {
+		return Math.round(value * 100) / 100.0;
+	}
+}
+
+
+public class RiskPanel extends JPanel {
+
+	private AttendanceData data;
+	private RiskTableModel model;
+	private JSpinner windowSpinner;
+	private JSpinner countSpinner;
+
+   /**
+   * This is RiskPanel's constructor which creates the JSpinners of the window
+   * and the number of students and the JTable of the ranked students.
+   * @param data the AttendanceData of the roster.
+   */
+	public RiskPanel(AttendanceData data)
+	{
+		this.data = data;
+		model = new RiskTableModel(data.getStudents(), data.getRisk());
+		windowSpinner = new JSpinner(new SpinnerNumberModel(data.getRiskWindow(), 1, 100, 1));
+		countSpinner = new JSpinner(new SpinnerNumberModel(100, 10, 10000, 10));
+		ChangeListener listener = new ChangeListener() {
+			public void stateChanged(ChangeEvent evt) {
+				refresh();
+			}
+		};
+		windowSpinner.addChangeListener(listener);
+		countSpinner.addChangeListener(listener);
+		JTable table = new JTable(model);
+		table.setAutoCreateRowSorter(true);
+		JPanel bar = new JPanel();
+		bar.add(new JLabel("Window of"));
+		bar.add(windowSpinner);
+		bar.add(new JLabel("dates, show"));
+		bar.add(countSpinner);
+		bar.add(new JLabel("students"));
+		setLayout(new BorderLayout());
+		add(bar, BorderLayout.NORTH);
+		add(new JScrollPane(table), BorderLayout.CENTER);
+		add(new JLabel("Average % of the session over the window; Slope is the change per date; Absences are the dates in a row under " + AttendanceRisk.ABSENT_PERCENT + "%."), BorderLayout.SOUTH);
+		refresh();
+	}
+
+   /**
+   * This is the refresh method which ranks the students again with the
+   * selected window.
+   */
+	private void refresh() {
+		data.setRiskWindow((Integer)windowSpinner.getValue());
+		model.setRows(data.getRisk().getAtRisk((Integer)countSpinner.getValue()));
+	}
+
+}
@@ -0,0 +1,104 @@
+/**
+ * This is the RosterFile class which is responsible for storing the students
+ * parsed from a roster file, together with their ASURITE index and the
+ * dictionaries their programs and levels are encoded in, before they replace
+ * the roster of the AttendanceData class. Every roster has dictionaries of its
+ * own, so the values of a previous roster are dropped with it.
+ * Architecture:MVC-Model
+ * @author Xiang Luo
+ */
+import java.util.*;
+
+
+public class RosterFile {
+
+	private ArrayList<Student> students;
+	private HashMap<String, Student> studentsByASURITE;
+	private int lines;
+	private StringDictionary programs;
+	private StringDictionary levels;
+
+   /**
+   * This is one of RosterFile's constructors which initializes member
+   * variables with the dictionaries of the first student, which the students
+   * of a roster share, or empty dictionaries if there are no students.
+   * @param students the students in the order of the roster file.
+   * @param studentsByASURITE the students indexed by ASURITE.
+   * @param lines the number of lines parsed from the roster file.
+   */
+	public RosterFile(ArrayList<Student> students, HashMap<String, Student> studentsByASURITE, int lines)
+	{
+		this.students = students;
+		this.studentsByASURITE = studentsByASURITE;
+		this.lines = lines;
+		if(students.isEmpty()) {
+			programs = new StringDictionary();
+			levels = new StringDictionary();
+		} else {
+			programs = students.get(0).getPrograms();
+			levels = students.get(0).getLevels();
+		}
+	}
+
+   /**
+   * This is one of RosterFile's constructors which initializes member
+   * variables.
+   * @param students the students in the order of the roster file.
+   * @param studentsByASURITE the students indexed by ASURITE.
+   * @param lines the number of lines parsed from the roster file.
+   * @param programs the dictionary the programs of the students are encoded
+   *		 in.
+   * @param levels the dictionary the levels of the students are encoded in.
+   */
+	public RosterFile(ArrayList<Student> students, HashMap<String, Student> studentsByASURITE, int lines, StringDictionary programs, StringDictionary levels)
+	{
+		this.students = students;
+		this.studentsByASURITE = studentsByASURITE;
+		this.lines = lines;
+		this.programs = programs;
+		this.levels = levels;
+	}
+
+   /**
+   * This is the getStudents getter which gets the students ArrayList.
+   * @return the students ArrayList.
+   */
+	public ArrayList<Student> getStudents() {
+		return students;
+	}
+
+   /**
+   * This is the getStudentsByASURITE getter which gets the ASURITE index.
+   * @return the students indexed by ASURITE.
+   */
+	public HashMap<String, Student> getStudentsByASURITE() {
+		return studentsByASURITE;
+	}
+
+   /**
+   * This is the getLines getter which gets the number of lines parsed.
+   * @return the number of lines parsed from the roster file.
+   */
+	public int getLines() {
+		return lines;
+	}
+
+   /**
+   * This is the getPrograms getter which gets the program dictionary of the
+   * roster.
+   * @return the program dictionary.
+   */
+	public StringDictionary getPrograms() {
+		return programs;
+	}
+
+   /**
+   * This is the getLevels getter which gets the level dictionary of the
+   * roster.
+   * @return the level dictionary.
+   */
+	public StringDictionary getLevels() {
+		return levels;
+	}
+
+}
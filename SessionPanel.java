@@ -0,0 +1,80 @@
+/**
+ * This is the SessionPanel class which is responsible for the session length
+ * and the bucket width of the plot. The session length may be set for every
+ * date at once or for one date, and the plot is counted again as soon as a
+ * value changes; the minutes of the dates are already sorted by the model, so
+ * that takes a few binary searches per date.
+ * Architecture:MVC-View
+ * @author Xiang Luo
+ */
+import java.awt.event.*;
+import java.util.*;
+import javax.swing.*;
+import javax.swing.event.*;
+
+
+public class SessionPanel extends JPanel {
+
+	private Repository repository;
+	private AttendanceChart chart;
+	private JComboBox<String> dateBox;
+	private JSpinner sessionSpinner;
+	private JSpinner widthSpinner;
+	private boolean updating;
+
+   /**
+   * This is SessionPanel's constructor which creates the JComboBox of the
+   * dates and the JSpinners of the session length and the bucket width.
+   * @param repository an instance of the Repository class.
+   * @param chart the AttendanceChart to update.
+   */
+	public SessionPanel(Repository repository, AttendanceChart chart)
+	{
+		this.repository = repository;
+		this.chart = chart;
+		dateBox = new JComboBox<String>();
+		dateBox.addItem("All dates");
+		ArrayList<String> dates = repository.getDates();
+		for(int i = 0; i < dates.size(); i++) {
+			dateBox.addItem(dates.get(i));
+		}
+		sessionSpinner = new JSpinner(new SpinnerNumberModel(repository.getSessionMinutes(-1), 1, 1440, 5));
+		widthSpinner = new JSpinner(new SpinnerNumberModel(repository.getBucketWidth(), 1, 100, 5));
+		dateBox.addActionListener(new ActionListener() {
+			public void actionPerformed(ActionEvent evt) {
+				updating = true;
+				sessionSpinner.setValue(SessionPanel.this.repository.getSessionMinutes(dateBox.getSelectedIndex() - 1));
+				updating = false;
+			}
+		});
+		sessionSpinner.addChangeListener(new ChangeListener() {
+			public void stateChanged(ChangeEvent evt) {
+				if(!updating) {
+					SessionPanel.this.repository.setSessionMinutes(dateBox.getSelectedIndex() - 1, (Integer)sessionSpinner.getValue());
+					refresh();
+				}
+			}
+		});
+		widthSpinner.addChangeListener(new ChangeListener() {
+			public void stateChanged(ChangeEvent evt) {
+				SessionPanel.this.repository.setBucketWidth((Integer)widthSpinner.getValue());
+				refresh();
+			}
+		});
+		add(new JLabel("Session of"));
+		add(dateBox);
+		add(sessionSpinner);
+		add(new JLabel("minutes, buckets of"));
+		add(widthSpinner);
+		add(new JLabel("%"));
+	}
+
+   /**
+   * This is the refresh method which counts the histogram again and updates
+   * the series of the chart that changed.
+   */
+	private void refresh() {
+		chart.update();
+	}
+
+}
@@ -0,0 +1,521 @@
+/**
+ * This is the SnapshotFile class which is responsible for saving the whole
+ * state of the AttendanceData (the roster, the dates and their session
+ * lengths, the minutes of every student and the attendee lists) in a compact
+ * binary file, and for reading
+ * it back, so a semester is reopened without parsing its CSV files again.
+ *
+ * The file starts with the magic bytes SATS and a version number. Every
+ * string is stored once in a dictionary and referred to by its index. All
+ * counts, indexes and minutes are varints (minutes are zigzag-encoded), the
+ * minutes are stored column by column, and the file ends with the CRC32 of
+ * everything before it. Version 2 stores the session length of every date
+ * after the dates; a version 1 file is still read, with the session length
+ * the dates are added with. The file is written through a FileChannel and
+ * read through a memory map.
+ * Architecture:MVC-Model
+ * @author Xiang Luo
+ */
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.BufferUnderflowException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.CRC32;
+
+
+public class SnapshotFile {
+
+	public static final String EXTENSION = "snap";
+	public static final int VERSION = 2;
+
+	private static final byte[] MAGIC = {'S', 'A', 'T', 'S'};
+	private static final int BUFFER_SIZE = 1 << 16;
+	private static final int ATTENDANCE_ADDED = 1;
+
+	private RosterFile roster;
+	private ArrayList<String> dates;
+	private int[][] columns;
+	private int[] sessionMinutes;
+	private ArrayList<ArrayList<String>> attendeesLists;
+	private ArrayList<ArrayList<Integer>> attendeesTimesLists;
+	private boolean attendanceAdded;
+
+   /**
+   * This is SnapshotFile's constructor which initializes member variables.
+   * @param roster the students of the snapshot.
+   * @param dates the dates of the snapshot.
+   * @param columns the minutes of every student for each date.
+   * @param sessionMinutes the length of the session of each date, or 0 for
+   *		 the length the dates are added with.
+   * @param attendeesLists the attendees of every attendance file.
+   * @param attendeesTimesLists the minutes of the attendees.
+   * @param attendanceAdded true if attendance was added to the roster.
+   */
+	public SnapshotFile(RosterFile roster, ArrayList<String> dates, int[][] columns, int[] sessionMinutes, ArrayList<ArrayList<String>> attendeesLists, ArrayList<ArrayList<Integer>> attendeesTimesLists, boolean attendanceAdded)
+	{
+		this.roster = roster;
+		this.dates = dates;
+		this.columns = columns;
+		this.sessionMinutes = sessionMinutes;
+		this.attendeesLists = attendeesLists;
+		this.attendeesTimesLists = attendeesTimesLists;
+		this.attendanceAdded = attendanceAdded;
+	}
+
+   /**
+   * This is the getRoster getter which gets the students of the snapshot.
+   * @return the RosterFile.
+   */
+	public RosterFile getRoster() {
+		return roster;
+	}
+
+   /**
+   * This is the getDates getter which gets the dates of the snapshot.
+   * @return the dates ArrayList.
+   */
+	public ArrayList<String> getDates() {
+		return dates;
+	}
+
+   /**
+   * This is the getColumns getter which gets the minutes of every student for
+   * each date.
+   * @return the minutes, indexed by date and then by row.
+   */
+	public int[][] getColumns() {
+		return columns;
+	}
+
+   /**
+   * This is the getSessionMinutes getter which gets the length of the
+   * session of each date.
+   * @return the lengths in minutes, or 0 for the dates of a version 1 file.
+   */
+	public int[] getSessionMinutes() {
+		return sessionMinutes;
+	}
+
+   /**
+   * This is the getAttendeesLists getter which gets the attendees of every
+   * attendance file.
+   * @return the attendeesLists ArrayList.
+   */
+	public ArrayList<ArrayList<String>> getAttendeesLists() {
+		return attendeesLists;
+	}
+
+   /**
+   * This is the getAttendeesTimesLists getter which gets the minutes of the
+   * attendees of every attendance file.
+   * @return the attendeesTimesLists ArrayList.
+   */
+	public ArrayList<ArrayList<Integer>> getAttendeesTimesLists() {
+		return attendeesTimesLists;
+	}
+
+   /**
+   * This is the attendanceIsAdded method which checks if attendance was added
+   * to the roster of the snapshot.
+   * @return true if attendance was added.
+   */
+	public boolean attendanceIsAdded() {
+		return attendanceAdded;
+	}
+
+   /**
+   * This is the write method which saves the state of the given
+   * AttendanceData in the given file. The snapshot is written to a temporary
+   * file next to it, which then replaces the file.
+   * @param data the AttendanceData to save.
+   * @param file the file to save the snapshot in.
+   * @throws IOException if the file cannot be written.
+   */
+	public static void write(AttendanceData data, File file) throws IOException {
+		Path target = file.getAbsoluteFile().toPath();
+		Path temporary = File.createTempFile("." + target.getFileName(), ".tmp", target.getParent().toFile()).toPath();
+		boolean written = false;
+		try {
+			FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE);
+			try {
+				new Encoder(channel).encode(data);
+			} finally {
+				channel.close();
+			}
+			try {
+				Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} catch(AtomicMoveNotSupportedException e) {
+				Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+			}
+			written = true;
+		} finally {
+			if(!written) {
+				Files.deleteIfExists(temporary);
+			}
+		}
+	}
+
+   /**
+   * This is the read method which reads a snapshot file.
+   * @param file the snapshot file.
+   * @param progress the LoadProgress to report to, or null.
+   * @return the snapshot, or null if the file is not a valid snapshot of this
+   *		 version or of version 1.
+   * @throws IOException if the file cannot be read.
+   */
+	public static SnapshotFile read(File file, LoadProgress progress) throws IOException {
+		FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		try {
+			long size = channel.size();
+			if(size < MAGIC.length + 4 + 4 || size > Integer.MAX_VALUE) {
+				return null;
+			}
+			ByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			ByteBuffer body = in.duplicate();
+			body.limit((int)size - 4);
+			CRC32 crc = new CRC32();
+			crc.update(body);
+			if((int)crc.getValue() != in.getInt((int)size - 4)) {
+				return null;
+			}
+			in.limit((int)size - 4);
+			for(int i = 0; i < MAGIC.length; i++) {
+				if(in.get() != MAGIC[i]) {
+					return null;
+				}
+			}
+			int version = in.getInt();
+			if(version != VERSION && version != 1) {
+				return null;
+			}
+			return decode(in, version, size, progress);
+		} catch(BufferUnderflowException e) {
+			return null;
+		} catch(IndexOutOfBoundsException e) {
+			return null;
+		} finally {
+			channel.close();
+		}
+	}
+
+   /**
+   * This is the decode method which decodes the snapshot after the version
+   * number.
+   * @param in the bytes of the snapshot.
+   * @param version the version number of the snapshot.
+   * @param size the size of the file, for the progress.
+   * @param progress the LoadProgress to report to, or null.
+   * @return the snapshot.
+   */
+	private static SnapshotFile decode(ByteBuffer in, int version, long size, LoadProgress progress) {
+		boolean attendanceAdded = (in.get() & ATTENDANCE_ADDED) != 0;
+		String[] strings = new String[readCount(in)];
+		byte[] bytes = new byte[256];
+		for(int i = 0; i < strings.length; i++) {
+			int length = readCount(in);
+			if(length > bytes.length) {
+				bytes = new byte[Math.max(length, bytes.length * 2)];
+			}
+			in.get(bytes, 0, length);
+			strings[i] = new String(bytes, 0, length, StandardCharsets.UTF_8);
+		}
+
+		int studentCount = readCount(in);
+		ArrayList<Student> students = new ArrayList<Student>(studentCount);
+		HashMap<String, Student> studentsByASURITE = new HashMap<String, Student>(studentCount * 2);
+		StringDictionary programs = new StringDictionary();
+		StringDictionary levels = new StringDictionary();
+		for(int i = 0; i < studentCount; i++) {
+			Student student = new Student(strings[readCount(in)], strings[readCount(in)], strings[readCount(in)], strings[readCount(in)], strings[readCount(in)], strings[readCount(in)], programs, levels);
+			students.add(student);
+			studentsByASURITE.put(student.getASURITE(), student);
+		}
+		report(progress, in.position(), studentCount);
+
+		ArrayList<String> dates = new ArrayList<String>();
+		int dateCount = readCount(in);
+		for(int j = 0; j < dateCount; j++) {
+			dates.add(strings[readCount(in)]);
+		}
+		int[] sessionMinutes = new int[dateCount];
+		if(version >= 2) {
+			for(int j = 0; j < dateCount; j++) {
+				sessionMinutes[j] = readCount(in);
+			}
+		}
+		int[][] columns = new int[dateCount][studentCount];
+		for(int j = 0; j < dateCount; j++) {
+			int[] minutes = columns[j];
+			for(int i = 0; i < studentCount; i++) {
+				minutes[i] = readSignedVarint(in);
+			}
+			report(progress, in.position(), 0);
+		}
+
+		int listCount = readCount(in);
+		ArrayList<ArrayList<String>> attendeesLists = new ArrayList<ArrayList<String>>(listCount);
+		ArrayList<ArrayList<Integer>> attendeesTimesLists = new ArrayList<ArrayList<Integer>>(listCount);
+		for(int j = 0; j < listCount; j++) {
+			int attendeeCount = readCount(in);
+			ArrayList<String> attendees = new ArrayList<String>(attendeeCount);
+			ArrayList<Integer> attendeesTimes = new ArrayList<Integer>(attendeeCount);
+			for(int i = 0; i < attendeeCount; i++) {
+				attendees.add(strings[readCount(in)]);
+			}
+			for(int i = 0; i < attendeeCount; i++) {
+				attendeesTimes.add(readSignedVarint(in));
+			}
+			attendeesLists.add(attendees);
+			attendeesTimesLists.add(attendeesTimes);
+		}
+		if(in.hasRemaining()) {
+			throw new IndexOutOfBoundsException("Unexpected bytes at the end of the snapshot");
+		}
+		report(progress, size, 0);
+		RosterFile roster = new RosterFile(students, studentsByASURITE, studentCount, programs, levels);
+		return new SnapshotFile(roster, dates, columns, sessionMinutes, attendeesLists, attendeesTimesLists, attendanceAdded);
+	}
+
+   /**
+   * This is the report method which reports the bytes read so far.
+   * @param progress the LoadProgress to report to, or null.
+   * @param bytes the bytes read so far.
+   * @param rows the rows read since the last report.
+   */
+	private static void report(LoadProgress progress, long bytes, long rows) {
+		if(progress != null) {
+			progress.update(bytes, rows);
+		}
+	}
+
+   /**
+   * This is the readVarint method which reads an unsigned varint: seven bits
+   * per byte, least significant first, with the high bit set on every byte
+   * but the last.
+   * @param in the bytes to read from.
+   * @return the value.
+   */
+	private static int readVarint(ByteBuffer in) {
+		int value = 0;
+		for(int shift = 0; shift < 35; shift += 7) {
+			byte b = in.get();
+			value |= (b & 0x7F) << shift;
+			if(b >= 0) {
+				return value;
+			}
+		}
+		throw new IndexOutOfBoundsException("Varint is too long");
+	}
+
+   /**
+   * This is the readCount method which reads a varint that is a count or an
+   * index, so it cannot be negative.
+   * @param in the bytes to read from.
+   * @return the count or index.
+   */
+	private static int readCount(ByteBuffer in) {
+		int value = readVarint(in);
+		if(value < 0) {
+			throw new IndexOutOfBoundsException("Negative count " + value);
+		}
+		return value;
+	}
+
+   /**
+   * This is the readSignedVarint method which reads a zigzag-encoded varint.
+   * @param in the bytes to read from.
+   * @return the value.
+   */
+	private static int readSignedVarint(ByteBuffer in) {
+		int value = readVarint(in);
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	/**
+	* This is the Encoder class which writes a snapshot through one reusable
+	* ByteBuffer and computes its CRC32 as the buffer is written. It first
+	* looks up the dictionary index of every string once, and then writes the
+	* dictionary followed by the indexes.
+	*/
+	private static class Encoder {
+
+		private FileChannel channel;
+		private ByteBuffer buffer;
+		private CRC32 crc;
+		private HashMap<String, Integer> ids;
+
+	   /**
+	   * This is Encoder's constructor which allocates the buffer.
+	   * @param channel the channel to write to.
+	   */
+		Encoder(FileChannel channel)
+		{
+			this.channel = channel;
+			buffer = ByteBuffer.allocate(BUFFER_SIZE);
+			crc = new CRC32();
+		}
+
+	   /**
+	   * This is the encode method which writes the whole snapshot.
+	   * @param data the AttendanceData to save.
+	   * @throws IOException if the file cannot be written.
+	   */
+		void encode(AttendanceData data) throws IOException {
+			ArrayList<Student> students = data.getStudents();
+			ArrayList<String> dates = data.getDates();
+			AttendanceStore store = data.getStore();
+			ArrayList<String> strings = new ArrayList<String>();
+			ids = new HashMap<String, Integer>(students.size() * 4);
+			int[] studentIds = new int[students.size() * 6];
+			for(int i = 0; i < students.size(); i++) {
+				Student student = students.get(i);
+				studentIds[i * 6] = id(strings, student.getID());
+				studentIds[i * 6 + 1] = id(strings, student.getFirstName());
+				studentIds[i * 6 + 2] = id(strings, student.getLastName());
+				studentIds[i * 6 + 3] = id(strings, student.getProgram());
+				studentIds[i * 6 + 4] = id(strings, student.getLevel());
+				studentIds[i * 6 + 5] = id(strings, student.getASURITE());
+			}
+			int[] dateIds = new int[dates.size()];
+			for(int j = 0; j < dates.size(); j++) {
+				dateIds[j] = id(strings, dates.get(j));
+			}
+			int[][] attendeeIds = new int[store.getDateCount()][];
+			for(int j = 0; j < attendeeIds.length; j++) {
+				ArrayList<String> attendees = store.getAttendees(j);
+				attendeeIds[j] = new int[attendees.size()];
+				for(int i = 0; i < attendees.size(); i++) {
+					attendeeIds[j][i] = id(strings, attendees.get(i));
+				}
+			}
+			ids = null;
+
+			buffer.put(MAGIC);
+			buffer.putInt(VERSION);
+			int flags = 0;
+			if(data.attendanceIsAdded()) {
+				flags |= ATTENDANCE_ADDED;
+			}
+			buffer.put((byte)flags);
+			writeVarint(strings.size());
+			for(String string : strings) {
+				byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+				writeVarint(bytes.length);
+				for(int i = 0; i < bytes.length; i += BUFFER_SIZE) {
+					int count = Math.min(bytes.length - i, BUFFER_SIZE);
+					reserve(count);
+					buffer.put(bytes, i, count);
+				}
+			}
+
+			writeVarint(students.size());
+			for(int i = 0; i < studentIds.length; i++) {
+				writeVarint(studentIds[i]);
+			}
+
+			writeVarint(dates.size());
+			for(int j = 0; j < dateIds.length; j++) {
+				writeVarint(dateIds[j]);
+			}
+			AttendanceMatrix matrix = data.getMatrix();
+			for(int j = 0; j < dates.size(); j++) {
+				writeVarint(matrix.getSessionMinutes(j));
+			}
+			for(int j = 0; j < dates.size(); j++) {
+				int[] minutes = matrix.getColumn(j);
+				for(int i = 0; i < minutes.length; i++) {
+					writeSignedVarint(minutes[i]);
+				}
+			}
+
+			writeVarint(attendeeIds.length);
+			for(int j = 0; j < attendeeIds.length; j++) {
+				writeVarint(attendeeIds[j].length);
+				for(int i = 0; i < attendeeIds[j].length; i++) {
+					writeVarint(attendeeIds[j][i]);
+				}
+				for(Integer time : store.getAttendeesTimes(j)) {
+					writeSignedVarint(time);
+				}
+			}
+			flush();
+			buffer.putInt((int)crc.getValue());
+			buffer.flip();
+			while(buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		}
+
+	   /**
+	   * This is the id method which gets the index of a string in the
+	   * dictionary, adding the string if it is not there yet.
+	   * @param strings the strings of the dictionary in the order of their ids.
+	   * @param string the string.
+	   * @return the index of the string.
+	   */
+		private int id(ArrayList<String> strings, String string) {
+			Integer id = ids.get(string);
+			if(id == null) {
+				id = strings.size();
+				ids.put(string, id);
+				strings.add(string);
+			}
+			return id;
+		}
+
+	   /**
+	   * This is the reserve method which writes the buffer to the file if it has
+	   * less room than the given number of bytes.
+	   * @param count the number of bytes that are about to be added.
+	   * @throws IOException if the file cannot be written.
+	   */
+		private void reserve(int count) throws IOException {
+			if(buffer.remaining() < count) {
+				flush();
+			}
+		}
+
+	   /**
+	   * This is the flush method which adds the buffer to the CRC32 and writes
+	   * it to the file.
+	   * @throws IOException if the file cannot be written.
+	   */
+		private void flush() throws IOException {
+			buffer.flip();
+			crc.update(buffer.array(), 0, buffer.limit());
+			while(buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			buffer.clear();
+		}
+
+	   /**
+	   * This is the writeVarint method which writes an unsigned varint.
+	   * @param value the value, read as unsigned.
+	   * @throws IOException if the file cannot be written.
+	   */
+		private void writeVarint(int value) throws IOException {
+			reserve(5);
+			while((value & ~0x7F) != 0) {
+				buffer.put((byte)((value & 0x7F) | 0x80));
+				value >>>= 7;
+			}
+			buffer.put((byte)value);
+		}
+
+	   /**
+	   * This is the writeSignedVarint method which writes a zigzag-encoded
+	   * varint, so small negative values stay short.
+	   * @param value the value.
+	   * @throws IOException if the file cannot be written.
+	   */
+		private void writeSignedVarint(int value) throws IOException {
+			writeVarint((value << 1) ^ (value >> 31));
+		}
+
+	}
+
+}
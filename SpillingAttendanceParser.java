@@ -0,0 +1,267 @@
+/**
+ * This is the SpillingAttendanceParser class which is responsible for parsing
+ * attendance files with more distinct attendees than fit in the memory budget
+ * set with the attendance.memory system property. The lines of the file are
+ * hashed by ASURITE into partition files on disk, so every line of an
+ * attendee lands in the same partition, and each partition is small enough to
+ * be summed (or merged, for join and leave events) in memory on its own. A
+ * partition that is still too large is split again with another hash. The
+ * minutes of every attendee are written to one result file that the
+ * AttendanceData class reads back one attendee at a time.
+ * Architecture:MVC-Model
+ * @author Xiang Luo
+ */
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.CancellationException;
+
+
+public class SpillingAttendanceParser {
+
+	public static final int MEMORY_PER_BYTE = 8;
+
+	private static final int MAX_PARTITIONS = 1024;
+	private static final int MAX_DEPTH = 3;
+	private static final int MAX_BUFFER = 1 << 16;
+	private static final int MIN_BUFFER = 1 << 10;
+	private static final int PROGRESS_LINES = 4096;
+
+	private String date;
+	private long budget;
+	private File folder;
+	private DataOutputStream result;
+	private int attendeeCount;
+	private int partitionCount;
+
+   /**
+   * This is SpillingAttendanceParser's constructor which initializes member
+   * variables.
+   * @param date the date of the attendance file.
+   * @param budget the memory budget in bytes.
+   */
+	private SpillingAttendanceParser(String date, long budget)
+	{
+		this.date = date;
+		this.budget = budget;
+	}
+
+   /**
+   * This is the needsSpilling method which checks if summing the given file
+   * in memory could take more than the budget. A line takes about
+   * MEMORY_PER_BYTE times its size in memory if every line is a new attendee.
+   * @param file the attendance file.
+   * @param budget the memory budget in bytes, or 0 for no budget.
+   * @return true if the file should be parsed by this class.
+   */
+	public static boolean needsSpilling(File file, long budget) {
+		return budget > 0 && file.length() > budget / MEMORY_PER_BYTE;
+	}
+
+   /**
+   * This is the parse method which partitions the given file on disk, sums
+   * every partition on its own and writes the minutes of every attendee to a
+   * temporary result file. The attendees are in the order of the partitions,
+   * not in the order they first appear.
+   * @param file the file to parse as an attendance file.
+   * @param selectedDate the date of the attendance file.
+   * @param budget the memory budget in bytes.
+   * @param progress the LoadProgress to report to, or null.
+   * @return the parsed attendance, which refers to the result file, or null
+   *		 if the file is not a valid attendance file.
+   * @throws IOException if a file cannot be read or written.
+   * @throws CancellationException if the progress was cancelled.
+   */
+	public static AttendanceFile parse(File file, String selectedDate, long budget, LoadProgress progress) throws IOException {
+		SpillingAttendanceParser parser = new SpillingAttendanceParser(selectedDate, budget);
+		File resultFile = File.createTempFile("attendance", ".spill");
+		resultFile.deleteOnExit();
+		boolean done = false;
+		parser.folder = Files.createTempDirectory("attendance-spill").toFile();
+		try {
+			parser.result = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(resultFile), MAX_BUFFER));
+			int lines;
+			try {
+				lines = parser.partition(file, 0, progress);
+				if(lines >= 0 && !parser.aggregate(0, 0)) {
+					lines = -1;
+				}
+			} finally {
+				parser.result.close();
+			}
+			if(lines < 0) {
+				return null;
+			}
+			done = true;
+			return new AttendanceFile(selectedDate, resultFile, parser.attendeeCount, lines);
+		} finally {
+			deleteFolder(parser.folder);
+			if(!done) {
+				resultFile.delete();
+			}
+		}
+	}
+
+   /**
+   * This is the partition method which copies every line of the given file
+   * into the partition file of its ASURITE. The number of partitions is
+   * chosen so that each one fits in the budget if the ASURITEs are spread
+   * evenly.
+   * @param file the attendance file or the partition file to split.
+   * @param depth 0 for the attendance file, and one more for each split.
+   * @param progress the LoadProgress to report to, or null.
+   * @return the number of lines, or -1 if a line does not have the fields of
+   *		 the first line or the file is empty.
+   * @throws IOException if a file cannot be read or written.
+   * @throws CancellationException if the progress was cancelled.
+   */
+	private int partition(File file, int depth, LoadProgress progress) throws IOException {
+		int count = (int)Math.min(MAX_PARTITIONS, Math.max(2, file.length() * MEMORY_PER_BYTE / budget + 1));
+		int bufferSize = (int)Math.max(MIN_BUFFER, Math.min(MAX_BUFFER, budget / 4 / count));
+		int first = partitionCount;
+		partitionCount += count;
+		OutputStream[] outs = new OutputStream[count];
+		CSVReader reader = new CSVReader(file);
+		int lines = 0;
+		try {
+			for(int p = 0; p < count; p++) {
+				outs[p] = new BufferedOutputStream(new FileOutputStream(getPartition(first + p)), bufferSize);
+			}
+			byte[] field = new byte[64];
+			int fieldCount = -1;
+			while(reader.next()) {
+				lines++;
+				if(progress != null && lines % PROGRESS_LINES == 0) {
+					AttendanceData.report(progress, reader.getBytesRead(), lines);
+				}
+				if(fieldCount < 0) {
+					fieldCount = reader.getFieldCount();
+				}
+				if(reader.getFieldCount() != fieldCount || fieldCount < 2) {
+					return -1;
+				}
+				int hash = reader.hashField(0) * (0x9E3779B1 + 2 * depth);
+				OutputStream out = outs[Math.floorMod(hash ^ hash >>> 15, count)];
+				for(int i = 0; i < fieldCount; i++) {
+					int length = reader.getFieldLength(i);
+					if(length > field.length) {
+						field = new byte[Math.max(length, field.length * 2)];
+					}
+					reader.copyField(i, field, 0);
+					if(i > 0) {
+						out.write(',');
+					}
+					writeField(out, field, length);
+				}
+				out.write('\n');
+			}
+			if(progress != null) {
+				AttendanceData.report(progress, reader.getBytesRead(), lines);
+			}
+		} finally {
+			reader.close();
+			for(int p = 0; p < count; p++) {
+				if(outs[p] != null) {
+					outs[p].close();
+				}
+			}
+		}
+		if(lines == 0) {
+			return -1;
+		}
+		return lines;
+	}
+
+   /**
+   * This is the aggregate method which sums the partitions made by the last
+   * split, one at a time, and writes the minutes of their attendees to the
+   * result file. A partition that is larger than the budget allows is split
+   * again first, up to MAX_DEPTH times. A partition that is still large
+   * after that holds a few ASURITEs with many lines, which need little
+   * memory.
+   * @param first the index of the first partition of the split.
+   * @param depth the depth of the split.
+   * @return false if a partition is not a valid attendance file.
+   * @throws IOException if a file cannot be read or written.
+   */
+	private boolean aggregate(int first, int depth) throws IOException {
+		int last = partitionCount;
+		for(int p = first; p < last; p++) {
+			File partition = getPartition(p);
+			if(partition.length() == 0) {
+				partition.delete();
+				continue;
+			}
+			if(needsSpilling(partition, budget) && depth + 1 < MAX_DEPTH) {
+				int next = partitionCount;
+				if(partition(partition, depth + 1, null) < 0) {
+					return false;
+				}
+				partition.delete();
+				if(!aggregate(next, depth + 1)) {
+					return false;
+				}
+				continue;
+			}
+			AttendanceFile attendance = AttendanceData.parseInMemory(partition, date, null);
+			partition.delete();
+			if(attendance == null) {
+				return false;
+			}
+			for(Map.Entry<String, Integer> entry : attendance.getAttendeesMinutes().entrySet()) {
+				result.writeUTF(entry.getKey());
+				result.writeInt(entry.getValue());
+				attendeeCount++;
+			}
+		}
+		return true;
+	}
+
+   /**
+   * This is the writeField method which writes the bytes of a field,
+   * between quotes if it contains a comma, a quote or a line break.
+   * @param out the stream of the partition.
+   * @param field the bytes of the field.
+   * @param length the number of bytes.
+   * @throws IOException if the partition cannot be written.
+   */
+	private static void writeField(OutputStream out, byte[] field, int length) throws IOException {
+		boolean quote = false;
+		for(int i = 0; i < length && !quote; i++) {
+			byte b = field[i];
+			quote = b == ',' || b == '"' || b == '\n' || b == '\r';
+		}
+		if(!quote) {
+			out.write(field, 0, length);
+			return;
+		}
+		byte[] quoted = CSVWriter.quote(new String(field, 0, length, StandardCharsets.UTF_8)).getBytes(StandardCharsets.UTF_8);
+		out.write(quoted);
+	}
+
+   /**
+   * This is the getPartition method which gets the file of a partition.
+   * @param index the index of the partition.
+   * @return the partition file.
+   */
+	private File getPartition(int index) {
+		return new File(folder, "partition-" + index + ".csv");
+	}
+
+   /**
+   * This is the deleteFolder method which deletes the partition folder and
+   * the partitions left in it.
+   * @param folder the partition folder.
+   */
+	private static void deleteFolder(File folder) {
+		File[] files = folder.listFiles();
+		if(files != null) {
+			for(int i = 0; i < files.length; i++) {
+				files[i].delete();
+			}
+		}
+		folder.delete();
+	}
+
+}
@@ -0,0 +1,85 @@
+/**
+ * This is the StringDictionary class which is responsible for encoding the
+ * values of a field that has few distinct values, such as the program or the
+ * level of a student, as small int codes. Each distinct value is kept once
+ * and every student refers to it by its code, so a roster of thousands of
+ * students holds a handful of strings, and students are grouped by comparing
+ * ints. The codes are numbered in the order the values are first encoded and
+ * never change.
+ * Architecture:MVC-Model
+ * @author Xiang Luo
+ */
+import java.util.*;
+
+
+public class StringDictionary {
+
+	private HashMap<String, Integer> codes;
+	private volatile String[] values;
+	private int size;
+
+   /**
+   * This is StringDictionary's constructor which creates an empty
+   * dictionary.
+   */
+	public StringDictionary()
+	{
+		codes = new HashMap<String, Integer>();
+		values = new String[16];
+	}
+
+   /**
+   * This is the encode method which gets the code of a value, and gives the
+   * next code to a new value. Rosters may be read on a background thread, so
+   * new values are added one at a time.
+   * @param value the value to encode.
+   * @return the code of the value.
+   */
+	public synchronized int encode(String value) {
+		Integer code = codes.get(value);
+		if(code != null) {
+			return code;
+		}
+		String[] current = values;
+		if(size == current.length) {
+			current = Arrays.copyOf(current, size * 2);
+		}
+		current[size] = value;
+		values = current;
+		codes.put(value, size);
+		return size++;
+	}
+
+   /**
+   * This is the find method which gets the code of a value without adding
+   * it.
+   * @param value the value to look up.
+   * @return the code of the value, or -1 if it was never encoded.
+   */
+	public synchronized int find(String value) {
+		Integer code = codes.get(value);
+		if(code == null) {
+			return -1;
+		}
+		return code;
+	}
+
+   /**
+   * This is the decode method which gets the value of a code.
+   * @param code the code of the value.
+   * @return the value.
+   */
+	public String decode(int code) {
+		return values[code];
+	}
+
+   /**
+   * This is the size getter which gets the number of distinct values, which
+   * is one more than the largest code.
+   * @return the number of values.
+   */
+	public synchronized int size() {
+		return size;
+	}
+
+}
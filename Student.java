@@ -1,34 +1,46 @@
 /**
  * This is the Student class which is responsible for storing data about each
- * student on the roster.
+ * student on the roster. The attendance of the student is stored in its row
+ * of the AttendanceMatrix of the roster, and the program and the level are
+ * stored as codes of the program and level dictionaries of the roster, which
+ * every student of the roster shares and which are dropped with the roster.
  * Architecture:MVC-Model
  * @author Xiang Luo
  */
-import java.util.LinkedHashMap;
 
 
 public class Student {
-	
+
 	private String ID;
 	private String fName;
 	private String lName;
-	private String program;
-	private String level;
+	private int program;
+	private int level;
+	private StringDictionary programs;
+	private StringDictionary levels;
 	private String ASURITE;
-	private LinkedHashMap<String, Integer> times;
+	private AttendanceMatrix matrix;
+	private int row;
 
    /**
-   * This is one of Student's constructors which allocates memory for storing
-   * the attendance data of the student.
+   * This is one of Student's constructors which creates a student that is not
+   * placed on a roster yet, with dictionaries of its own.
    */
 	public Student()
 	{
-		this.times = new LinkedHashMap<String, Integer>();
+		this.programs = new StringDictionary();
+		this.levels = new StringDictionary();
+		this.program = programs.encode(null);
+		this.level = levels.encode(null);
+		this.matrix = null;
+		this.row = 0;
 	}
 
    /**
    * This is one of Student's constructors which initializes member variables
-   * and allocates memory for storing the attendance data of the student.
+   * of a student that is not placed on a roster yet, with dictionaries of its
+   * own. The students of a roster should share the dictionaries of the roster
+   * through the other constructor.
    * @param ID the ID of the student.
    * @param fName the first name of the student.
    * @param lName the last name of the student.
@@ -37,14 +49,35 @@ public class Student {
    * @param ASURITE the ASURITE of the student.
    */
 	public Student(String ID, String fName, String lName, String program, String level, String ASURITE)
+	{
+		this(ID, fName, lName, program, level, ASURITE, new StringDictionary(), new StringDictionary());
+	}
+
+   /**
+   * This is one of Student's constructors which initializes member variables
+   * of a student that is not placed on a roster yet, and encodes its program
+   * and level in the dictionaries of its roster.
+   * @param ID the ID of the student.
+   * @param fName the first name of the student.
+   * @param lName the last name of the student.
+   * @param program the program that the student is in.
+   * @param level whether the student is undergraduate or graduate.
+   * @param ASURITE the ASURITE of the student.
+   * @param programs the program dictionary of the roster.
+   * @param levels the level dictionary of the roster.
+   */
+	public Student(String ID, String fName, String lName, String program, String level, String ASURITE, StringDictionary programs, StringDictionary levels)
 	{
 		this.ID = ID;
 		this.fName = fName;
 		this.lName = lName;
-		this.program = program;
-		this.level = level;
+		this.programs = programs;
+		this.levels = levels;
+		this.program = programs.encode(program);
+		this.level = levels.encode(level);
 		this.ASURITE = ASURITE;
-		this.times = new LinkedHashMap<String, Integer>();
+		this.matrix = null;
+		this.row = 0;
 	}
 
    /**
@@ -76,7 +109,7 @@ public class Student {
    * @param program the program the student is in.
    */
 	public void setProgram(String program) {
-		this.program = program;
+		this.program = programs.encode(program);
 	}
 
    /**
@@ -84,7 +117,7 @@ public class Student {
    * @param level the level the student is in.
    */
 	public void setLevel(String level) {
-		this.level = level;
+		this.level = levels.encode(level);
 	}
 
    /**
@@ -96,12 +129,37 @@ public class Student {
 	}
 
    /**
-   * This is the addAttendance method which adds attendance data.
+   * This is the setRow method which places the student in the given row of
+   * the AttendanceMatrix of a roster.
+   * @param matrix the AttendanceMatrix of the roster.
+   * @param row the row of the student.
+   */
+	public void setRow(AttendanceMatrix matrix, int row) {
+		this.matrix = matrix;
+		this.row = row;
+	}
+
+   /**
+   * This is the getRow getter which gets the row of the student in the
+   * AttendanceMatrix.
+   * @return the row of the student.
+   */
+	public int getRow() {
+		return row;
+	}
+
+   /**
+   * This is the addAttendance method which adds attendance data. The date is
+   * added to the AttendanceMatrix if it is not there yet, and a student that
+   * is not placed on a roster gets an AttendanceMatrix of its own.
    * @param date the date of attendance.
    * @param time the total number of minutes the student is connected.
    */
 	public void addAttendance(String date, Integer time) {
-		this.times.put(date, time);
+		if(matrix == null) {
+			setRow(new AttendanceMatrix(1), 0);
+		}
+		matrix.setMinutes(row, matrix.addDate(date), time);
 	}
 
    /**
@@ -110,7 +168,7 @@ public class Student {
    * @param time the total number of minutes the student is connected.
    */
 	public void updateAttendance(String date, Integer time) {
-		this.times.put(date, time);
+		addAttendance(date, time);
 	}
 
    /**
@@ -142,6 +200,15 @@ public class Student {
    * @return student's program.
    */
 	public String getProgram() {
+		return programs.decode(program);
+	}
+
+   /**
+   * This is the getProgramCode getter which gets the code of the student's
+   * program in the program dictionary of its roster.
+   * @return the code of the program.
+   */
+	public int getProgramCode() {
 		return program;
 	}
 
@@ -150,9 +217,36 @@ public class Student {
    * @return student's level.
    */
 	public String getLevel() {
+		return levels.decode(level);
+	}
+
+   /**
+   * This is the getLevelCode getter which gets the code of the student's
+   * level in the level dictionary of its roster.
+   * @return the code of the level.
+   */
+	public int getLevelCode() {
 		return level;
 	}
 
+   /**
+   * This is the getPrograms getter which gets the dictionary the student's
+   * program is encoded in.
+   * @return the program dictionary.
+   */
+	public StringDictionary getPrograms() {
+		return programs;
+	}
+
+   /**
+   * This is the getLevels getter which gets the dictionary the student's
+   * level is encoded in.
+   * @return the level dictionary.
+   */
+	public StringDictionary getLevels() {
+		return levels;
+	}
+
    /**
    * This is the getASURITE getter which gets the student's ASURITE.
    * @return student's ASURITE.
@@ -167,11 +261,27 @@ public class Student {
    * @return total time of attendance for the given date.
    */
 	public Integer getAttendanceForDate(String date) {
-		Integer time = times.get(date);
-		if(time == null) {
-			time = 0;
+		if(matrix == null) {
+			return 0;
+		}
+		int column = matrix.getDateIndex(date);
+		if(column < 0) {
+			return 0;
+		}
+		return matrix.getMinutes(row, column);
+	}
+
+   /**
+   * This is the getMinutes method which gets the total time of attendance for
+   * the date at the given column index of the AttendanceMatrix.
+   * @param column the column index of the date.
+   * @return total time of attendance for the date.
+   */
+	public int getMinutes(int column) {
+		if(matrix == null) {
+			return 0;
 		}
-		return time;
+		return matrix.getMinutes(row, column);
 	}
 
 }
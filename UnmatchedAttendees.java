@@ -0,0 +1,139 @@
+/**
+ * This is the UnmatchedAttendees class which is responsible for keeping the
+ * attendees of the last loaded attendance files that are not in the roster,
+ * with the date and the minutes of each. The entries are appended to parallel
+ * arrays, so collecting them takes linear time however many guests an event
+ * had, and the report only formats the entries that are shown.
+ * Architecture:MVC-Model
+ * @author Xiang Luo
+ */
+import java.io.*;
+import java.util.*;
+
+
+public class UnmatchedAttendees {
+
+	private ArrayList<String> dates;
+	private String[] attendees;
+	private int[] minutes;
+	private int[] dateIndexes;
+	private int size;
+
+   /**
+   * This is UnmatchedAttendees's constructor which allocates memory for the
+   * arrays.
+   */
+	public UnmatchedAttendees()
+	{
+		dates = new ArrayList<String>();
+		attendees = new String[16];
+		minutes = new int[16];
+		dateIndexes = new int[16];
+	}
+
+   /**
+   * This is the clear method which removes every entry.
+   */
+	public void clear() {
+		dates.clear();
+		Arrays.fill(attendees, 0, size, null);
+		size = 0;
+	}
+
+   /**
+   * This is the add method which appends an attendee of the given date. The
+   * dates are expected one after the other, as the files are loaded.
+   * @param date the date of the attendance file.
+   * @param ASURITE the ASURITE of the attendee.
+   * @param time the minutes of the attendee.
+   */
+	public void add(String date, String ASURITE, int time) {
+		if(dates.isEmpty() || !dates.get(dates.size() - 1).equals(date)) {
+			dates.add(date);
+		}
+		if(size == attendees.length) {
+			attendees = Arrays.copyOf(attendees, size * 2);
+			minutes = Arrays.copyOf(minutes, size * 2);
+			dateIndexes = Arrays.copyOf(dateIndexes, size * 2);
+		}
+		attendees[size] = ASURITE;
+		minutes[size] = time;
+		dateIndexes[size] = dates.size() - 1;
+		size++;
+	}
+
+   /**
+   * This is the size getter which gets the number of entries.
+   * @return the number of entries.
+   */
+	public int size() {
+		return size;
+	}
+
+   /**
+   * This is the getASURITE getter which gets the ASURITE of an entry.
+   * @param index the index of the entry.
+   * @return the ASURITE.
+   */
+	public String getASURITE(int index) {
+		return attendees[index];
+	}
+
+   /**
+   * This is the getMinutes getter which gets the minutes of an entry.
+   * @param index the index of the entry.
+   * @return the minutes.
+   */
+	public int getMinutes(int index) {
+		return minutes[index];
+	}
+
+   /**
+   * This is the getDate getter which gets the date of an entry.
+   * @param index the index of the entry.
+   * @return the date of the attendance file the entry was found in.
+   */
+	public String getDate(int index) {
+		return dates.get(dateIndexes[index]);
+	}
+
+   /**
+   * This is the getDescription method which describes an entry the way the
+   * report lists it.
+   * @param index the index of the entry.
+   * @return the date, the ASURITE and the minutes of the entry.
+   */
+	public String getDescription(int index) {
+		String s = "";
+		if(minutes[index] > 1) {
+			s = "s";
+		}
+		return getDate(index) + ": " + attendees[index] + ", connected for " + minutes[index] + " minute" + s;
+	}
+
+   /**
+   * This is the saveToCSV method which saves every entry in a CSV file with
+   * the columns Date, ASURITE and Minutes, through the CSVWriter class.
+   * @param file the file to save the entries in.
+   * @throws IOException if the file cannot be written.
+   */
+	public void saveToCSV(File file) throws IOException {
+		CSVWriter writer = new CSVWriter(file);
+		try {
+			writer.writeField("Date");
+			writer.writeField("ASURITE");
+			writer.writeField("Minutes");
+			writer.endRecord();
+			for(int i = 0; i < size; i++) {
+				writer.writeField(getDate(i));
+				writer.writeField(attendees[i]);
+				writer.writeInt(minutes[i]);
+				writer.endRecord();
+			}
+			writer.commit();
+		} finally {
+			writer.close();
+		}
+	}
+
+}
@@ -0,0 +1,147 @@
+/**
+ * This is the UnmatchedList class which is responsible for showing the
+ * attendees that are not in the roster in the attendance dialog. They are
+ * shown PAGE_SIZE at a time in a JList whose model formats an entry only when
+ * its cell is drawn, and every cell has the same height, so an event with
+ * thousands of guests opens as fast as one with a few. The Export button
+ * saves all of them in a CSV file.
+ * Architecture:MVC-View
+ * @author Xiang Luo
+ */
+import java.awt.*;
+import java.awt.event.*;
+import javax.swing.*;
+
+/**
+* This is the UnmatchedPageModel class which is responsible for giving the
+* JList the entries of the current page of the UnmatchedAttendees.
+*/
+class UnmatchedPageModel extends AbstractListModel<String> {
+	private UnmatchedAttendees unmatched;
+	private int first;
+	private int size;
+
+   /**
+   * This is UnmatchedPageModel's constructor which initializes member
+   * variables.
+   * @param unmatched the additional attendees.
+   */
+	public UnmatchedPageModel(UnmatchedAttendees unmatched)
+	{
+		this.unmatched = unmatched;
+	}
+
+   /**
+   * This is the setPage method which shows the entries from first to first
+   * plus PAGE_SIZE.
+   * @param first the index of the first entry of the page.
+   */
+	public void setPage(int first) {
+		int previousSize = size;
+		this.first = first;
+		size = Math.max(0, Math.min(UnmatchedList.PAGE_SIZE, unmatched.size() - first));
+		if(previousSize > size) {
+			fireIntervalRemoved(this, size, previousSize - 1);
+		} else if(previousSize < size) {
+			fireIntervalAdded(this, previousSize, size - 1);
+		}
+		if(Math.min(previousSize, size) > 0) {
+			fireContentsChanged(this, 0, Math.min(previousSize, size) - 1);
+		}
+	}
+
+   /**
+   * This is the getSize getter which gets the number of entries of the page.
+   * @return the number of entries of the page.
+   */
+	@Override
+	public int getSize() {
+		return size;
+	}
+
+   /**
+   * This is the getElementAt method which formats an entry of the page.
+   * @param index the index of the entry in the page.
+   * @return the description of the entry.
+   */
+	@Override
+	public String getElementAt(int index) {
+		return unmatched.getDescription(first + index);
+	}
+}
+
+
+public class UnmatchedList extends JPanel {
+
+	public static final int PAGE_SIZE = 1000;
+
+	private UnmatchedAttendees unmatched;
+	private UnmatchedPageModel model;
+	private JList<String> list;
+	private JButton previous;
+	private JButton next;
+	private JLabel pageLabel;
+	private int page;
+
+   /**
+   * This is UnmatchedList's constructor which creates the JList, the paging
+   * buttons and the Export button.
+   * @param repository an instance of the Repository class.
+   * @param additionalCount the number of additional attendees found, which is
+   *		 more than the number listed if some were not kept.
+   */
+	public UnmatchedList(final Repository repository, int additionalCount)
+	{
+		unmatched = repository.getUnmatched();
+		model = new UnmatchedPageModel(unmatched);
+		list = new JList<String>(model);
+		list.setPrototypeCellValue("Sep 01: abcdefghij, connected for 100 minutes");
+		previous = new JButton("Previous");
+		next = new JButton("Next");
+		pageLabel = new JLabel();
+		JButton export = new JButton("Export");
+		previous.addActionListener(new ActionListener() {
+			public void actionPerformed(ActionEvent evt) {
+				showPage(page - 1);
+			}
+		});
+		next.addActionListener(new ActionListener() {
+			public void actionPerformed(ActionEvent evt) {
+				showPage(page + 1);
+			}
+		});
+		export.addActionListener(new ActionListener() {
+			public void actionPerformed(ActionEvent evt) {
+				repository.saveUnmatched();
+			}
+		});
+		JPanel buttons = new JPanel();
+		buttons.add(previous);
+		buttons.add(pageLabel);
+		buttons.add(next);
+		buttons.add(export);
+		setLayout(new BorderLayout());
+		if(additionalCount > unmatched.size()) {
+			add(new JLabel("The first " + unmatched.size() + " of " + additionalCount + " are listed."), BorderLayout.NORTH);
+		}
+		add(new JScrollPane(list), BorderLayout.CENTER);
+		add(buttons, BorderLayout.SOUTH);
+		showPage(0);
+	}
+
+   /**
+   * This is the showPage method which shows a page of the additional
+   * attendees and enables the buttons that lead to another page.
+   * @param page the index of the page.
+   */
+	private void showPage(int page) {
+		int pages = Math.max(1, (unmatched.size() + PAGE_SIZE - 1) / PAGE_SIZE);
+		this.page = page;
+		model.setPage(page * PAGE_SIZE);
+		list.ensureIndexIsVisible(0);
+		pageLabel.setText("Page " + (page + 1) + " of " + pages);
+		previous.setEnabled(page > 0);
+		next.setEnabled(page < pages - 1);
+	}
+
+}
@@ -1,12 +1,22 @@
 /**
  * This is the View class. It is responsible for creating the JTable and the
  * JScrollPane. It also responds to notifications from the Repository class.
+ * The ID and name columns are shown by a second JTable with the same model in
+ * the row header of the JScrollPane, so they stay in place and are not
+ * repainted when the dates are scrolled horizontally. Both JTables only draw
+ * the rows and columns in view, and the minutes are drawn by a
+ * MinutesRenderer straight from the int in the AttendanceMatrix. The bar
+ * above the table searches the students by ASURITE or name and shows only the
+ * students under a percentage of attendance, and clicking a column header
+ * sorts by that column, all through the AttendanceIndex class.
  * Architecture:MVC-View
  * @author Xiang Luo
  */
 import java.util.*;
 import java.awt.*;
+import java.awt.event.*;
 import javax.swing.*;
+import javax.swing.event.*;
 import javax.swing.table.*;
 
 
@@ -17,6 +27,14 @@ public class View extends JPanel implements Observer {
 
 	private JScrollPane scrollPane;
 	private JTable table;
+	private JTable frozenTable;
+
+	private JTextField searchField;
+	private JComboBox<String> filterBox;
+	private JSpinner percentSpinner;
+	private JLabel countLabel;
+	private int sortColumn;
+	private boolean descending;
 
         /**
 	* This is View's constructor. It creates a new JTable and JScrollPane.
@@ -28,101 +46,223 @@ public class View extends JPanel implements Observer {
 		this.main = main;
 		this.repository = repository;
 
-		DefaultTableModel model = generateModel();
-		table = new JTable(model);
+		final AttendanceTableModel model = new AttendanceTableModel(repository.getData());
+		table = new JTable(model) {
+			@Override
+			public Component prepareRenderer(TableCellRenderer renderer, int row, int column) {
+				if(!(renderer instanceof MinutesRenderer)) {
+					return super.prepareRenderer(renderer, row, column);
+				}
+				boolean isSelected = false;
+				boolean hasFocus = false;
+				if(!isPaintingForPrint()) {
+					isSelected = isCellSelected(row, column);
+					hasFocus = getSelectionModel().getLeadSelectionIndex() == row
+						&& getColumnModel().getSelectionModel().getLeadSelectionIndex() == column && isFocusOwner();
+				}
+				int minutes = model.getMinutes(row, convertColumnIndexToModel(column));
+				return ((MinutesRenderer)renderer).getMinutesComponent(this, minutes, isSelected, hasFocus);
+			}
+		};
+		table.setAutoCreateColumnsFromModel(false);
 		table.setAutoResizeMode(JTable.AUTO_RESIZE_OFF);
+		table.setDefaultRenderer(Integer.class, new MinutesRenderer());
+		frozenTable = new JTable(model);
+		frozenTable.setAutoCreateColumnsFromModel(false);
+		frozenTable.setAutoResizeMode(JTable.AUTO_RESIZE_OFF);
+		frozenTable.setSelectionModel(table.getSelectionModel());
+		frozenTable.getTableHeader().setReorderingAllowed(false);
 		initTable();
 		scrollPane = new JScrollPane(table);
+		scrollPane.setRowHeaderView(frozenTable);
+		scrollPane.setCorner(ScrollPaneConstants.UPPER_LEFT_CORNER, frozenTable.getTableHeader());
 		scrollPane.setVerticalScrollBarPolicy(ScrollPaneConstants.VERTICAL_SCROLLBAR_AS_NEEDED);
 		scrollPane.setHorizontalScrollBarPolicy(ScrollPaneConstants.HORIZONTAL_SCROLLBAR_AS_NEEDED);
 		scrollPane.setPreferredSize(new Dimension(560, 500));
-		setLayout(new GridLayout(1, 1));
-		add(scrollPane);
+		sortColumn = -1;
+		setLayout(new BorderLayout());
+		add(createFilterBar(), BorderLayout.NORTH);
+		add(scrollPane, BorderLayout.CENTER);
 	}
 
         /**
-	* This is the generateModel method. It generates a new DefaultTableModel
-	* that is initialized with the headers of the roster file.
-	* @return a DefaultTableModel that can be set as the model in a JTable.
+	* This is the createFilterBar method. It creates the search field, the
+	* attendance filter and the label that counts the students shown, and
+	* makes the column headers sort the rows when they are clicked.
+	* @return the JPanel of the filter bar.
 	*/
-	public DefaultTableModel generateModel() {
-		DefaultTableModel model = new DefaultTableModel();
-		model.addColumn("ID");
-		model.addColumn("First Name");
-		model.addColumn("Last Name");
-		model.addColumn("Program");
-		model.addColumn("Level");
-		model.addColumn("ASURITE");
-		return model;
+	private JPanel createFilterBar() {
+		searchField = new JTextField(12);
+		filterBox = new JComboBox<String>(new String[]{"All students", "Average"});
+		percentSpinner = new JSpinner(new SpinnerNumberModel(50, 0, 100, 5));
+		countLabel = new JLabel();
+		searchField.getDocument().addDocumentListener(new DocumentListener() {
+			public void insertUpdate(DocumentEvent e) {
+				applyFilter();
+			}
+
+			public void removeUpdate(DocumentEvent e) {
+				applyFilter();
+			}
+
+			public void changedUpdate(DocumentEvent e) {
+				applyFilter();
+			}
+		});
+		filterBox.addActionListener(new ActionListener() {
+			public void actionPerformed(ActionEvent e) {
+				applyFilter();
+			}
+		});
+		percentSpinner.addChangeListener(new ChangeListener() {
+			public void stateChanged(ChangeEvent e) {
+				applyFilter();
+			}
+		});
+		MouseAdapter sorter = new MouseAdapter() {
+			public void mouseClicked(MouseEvent e) {
+				JTableHeader header = (JTableHeader)e.getSource();
+				int column = header.columnAtPoint(e.getPoint());
+				if(column >= 0) {
+					sortBy(header.getTable().convertColumnIndexToModel(column));
+				}
+			}
+		};
+		table.getTableHeader().addMouseListener(sorter);
+		frozenTable.getTableHeader().addMouseListener(sorter);
+		JPanel bar = new JPanel(new FlowLayout(FlowLayout.LEFT));
+		bar.add(new JLabel("Search"));
+		bar.add(searchField);
+		bar.add(filterBox);
+		bar.add(new JLabel("under"));
+		bar.add(percentSpinner);
+		bar.add(new JLabel("%"));
+		bar.add(countLabel);
+		return bar;
+	}
+
+        /**
+	* This is the sortBy method. It sorts the rows by the given column, in
+	* ascending order the first time the column is clicked and then in the
+	* other order each time.
+	* @param column the index of the column in the model.
+	*/
+	private void sortBy(int column) {
+		if(column == sortColumn) {
+			descending = !descending;
+		} else {
+			sortColumn = column;
+			descending = false;
+		}
+		applyFilter();
 	}
 
         /**
-	* This is the initTable method. It sets the widths of the columns in the
-	* JTable.
+	* This is the applyFilter method. It asks the AttendanceIndex for the rows
+	* that match the search and the attendance filter, in the sorted order,
+	* and shows them in both JTables. It is also called when the session
+	* length of a date changes, since the filter is a percentage of it.
+	*/
+	public void applyFilter() {
+		AttendanceTableModel model = getTableModel();
+		if(sortColumn >= model.getColumnCount()) {
+			sortColumn = -1;
+		}
+		int date = AttendanceIndex.ANY;
+		if(filterBox.getSelectedIndex() == 1) {
+			date = AttendanceIndex.AVERAGE;
+		} else if(filterBox.getSelectedIndex() > 1) {
+			date = filterBox.getSelectedIndex() - 2;
+		}
+		int percent = (Integer)percentSpinner.getValue();
+		AttendanceIndex index = repository.getData().getIndex();
+		model.setRows(index.select(searchField.getText().trim(), date, percent, sortColumn, descending));
+		countLabel.setText(model.getRowCount() + " of " + model.getStudentCount() + " students");
+	}
+
+        /**
+	* This is the initTable method. It keeps the ID and name columns in the
+	* frozen JTable and the other roster columns in the main JTable, and sets
+	* their widths. It is only called once, since the roster columns never
+	* change.
 	*/
 	public void initTable() {
-		TableColumnModel colModel = table.getColumnModel();
-		colModel.getColumn(0).setPreferredWidth(100);
-		colModel.getColumn(1).setPreferredWidth(100);
-		colModel.getColumn(2).setPreferredWidth(100);
-		colModel.getColumn(3).setPreferredWidth(150);
-		colModel.getColumn(4).setPreferredWidth(150);
-		colModel.getColumn(5).setPreferredWidth(100);
+		int[] widths = {100, 100, 100, 150, 150, 100};
+		JTable[] tables = {table, frozenTable};
+		for(JTable t : tables) {
+			TableColumnModel colModel = t.getColumnModel();
+			for(int i = colModel.getColumnCount() - 1; i >= 0; i--) {
+				TableColumn column = colModel.getColumn(i);
+				int index = column.getModelIndex();
+				boolean frozen = index < AttendanceTableModel.FROZEN_COLUMNS;
+				if(frozen != (t == frozenTable)) {
+					colModel.removeColumn(column);
+				} else if(index < AttendanceTableModel.ROSTER_COLUMNS) {
+					column.setPreferredWidth(widths[index]);
+				}
+			}
+		}
+		frozenTable.setPreferredScrollableViewportSize(frozenTable.getPreferredSize());
 	}
 
         /**
 	* This is the getTableModel method. It gets the model of the JTable.
 	* @return the model of the JTable.
 	*/
-	public DefaultTableModel getTableModel() {
-		return (DefaultTableModel)table.getModel();
+	public AttendanceTableModel getTableModel() {
+		return (AttendanceTableModel)table.getModel();
 	}
 
         /**
 	* This is the update method. It updates the JTable when the View class
-	* receives a notification from the Repository class.
+	* receives a notification from the Repository class. When a roster was
+	* loaded or a snapshot restored, it removes the date columns and replaces
+	* the rows. When dates were added, it only adds a column for each new date
+	* and keeps the rows and the column widths, and when attendance was loaded
+	* again for dates that are shown, it repaints their cells. The search and
+	* the filter are then applied again to the new data. The attendance dialog
+	* is not shown for the files added from a watched folder.
 	* @param o an Observable object.
 	* @param repository an instance of the Repository class.
 	*/
 	@Override
 	public void update(Observable o, Object repository) {
 		this.repository = (Repository)repository;
-		DefaultTableModel model = generateModel();
-		ArrayList<Student> students = this.repository.getStudents();
-		ArrayList<ArrayList<String>> attendeesLists = this.repository.getAttendeesLists();
-		ArrayList<ArrayList<Integer>> attendeesTimesLists = this.repository.getAttendeesTimesLists();
-		ArrayList<String> dates = this.repository.getDates();
+		AttendanceTableModel model = getTableModel();
 		if(!this.repository.tableIsAdded() && this.repository.rosterIsLoaded()) {
 			main.showTable();
 			this.repository.setTableAdded();
 		}
-		if(attendeesLists.isEmpty()) {
-			for(int i = 0; i < students.size(); i++) {
-				Student student = students.get(i);
-				model.addRow(new Object[]{student.getID(), student.getFirstName(), student.getLastName(), student.getProgram(), student.getLevel(), student.getASURITE()});
+		boolean rosterChanged = model.rosterChanged();
+		if(rosterChanged) {
+			TableColumnModel colModel = table.getColumnModel();
+			for(int i = colModel.getColumnCount() - 1; i >= 0; i--) {
+				TableColumn column = colModel.getColumn(i);
+				if(column.getModelIndex() >= AttendanceTableModel.ROSTER_COLUMNS) {
+					colModel.removeColumn(column);
+				}
 			}
-			table.setModel(model);
-			initTable();
-		} else {
-			for(int i = 0; i < dates.size(); i++) {
-				model.addColumn(dates.get(i));
+			model.rosterLoaded();
+		}
+		if(this.repository.getDates().size() > model.getDateCount()) {
+			int firstColumn = model.datesAdded();
+			for(int i = firstColumn; i < model.getColumnCount(); i++) {
+				table.addColumn(new TableColumn(i, 75));
 			}
-			for(int i = 0; i < students.size(); i++) {
-				Student student = students.get(i);
-				Object[] row = new Object[6 + dates.size()];
-				row[0] = student.getID();
-				row[1] = student.getFirstName();
-				row[2] = student.getLastName();
-				row[3] = student.getProgram();
-				row[4] = student.getLevel();
-				row[5] = student.getASURITE();
-				for(int j = 0; j < dates.size(); j++) {
-					row[6 + j] = "" + student.getAttendanceForDate(dates.get(j));
-				}
-				model.addRow(row);
+		} else if(!rosterChanged && model.getRowCount() > 0) {
+			model.fireTableRowsUpdated(0, model.getRowCount() - 1);
+		}
+		if(rosterChanged) {
+			while(filterBox.getItemCount() > 2) {
+				filterBox.removeItemAt(2);
 			}
-			table.setModel(model);
-			initTable();
+		}
+		ArrayList<String> dates = this.repository.getDates();
+		for(int i = filterBox.getItemCount() - 2; i < dates.size(); i++) {
+			filterBox.addItem(dates.get(i));
+		}
+		applyFilter();
+		if(this.repository.attendanceIsAdded() && !this.repository.isWatchedBatch()) {
 			main.attendanceDialog();
 		}
 	}
@@ -0,0 +1,56 @@
+/**
+ * This is the AttendanceImportTest class which checks the dates that the
+ * AttendanceImport class infers from the names of attendance files.
+ * Architecture:MVC-Controller
+ * @author Xiang Luo
+ */
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+
+public class AttendanceImportTest {
+
+   /**
+   * This is the datesAreInferred test which checks the names that hold a
+   * date in one of the recognized forms.
+   */
+	@Test
+	public void datesAreInferred() {
+		assertEquals("Sep 01", AttendanceImport.inferDate("2020-09-01.csv"));
+		assertEquals("Sep 01", AttendanceImport.inferDate("attendance_20200901.csv"));
+		assertEquals("Sep 01", AttendanceImport.inferDate("2020.09.01.csv"));
+		assertEquals("Sep 01", AttendanceImport.inferDate("09-01.csv"));
+		assertEquals("Sep 01", AttendanceImport.inferDate("attendance_09_01.csv"));
+		assertEquals("Sep 01", AttendanceImport.inferDate("Sep 01.csv"));
+		assertEquals("Sep 01", AttendanceImport.inferDate("cse360-september-1.csv"));
+		assertEquals("Feb 29", AttendanceImport.inferDate("02-29.csv"));
+	}
+
+   /**
+   * This is the versionsAreNotDates test which checks that version numbers,
+   * IDs and words that start like a month are not taken for dates.
+   */
+	@Test
+	public void versionsAreNotDates() {
+		assertNull(AttendanceImport.inferDate("roster-v1.2.csv"));
+		assertNull(AttendanceImport.inferDate("roster-v01-02.csv"));
+		assertNull(AttendanceImport.inferDate("report-1.2.3.csv"));
+		assertNull(AttendanceImport.inferDate("build-1-2.csv"));
+		assertNull(AttendanceImport.inferDate("export-01.02.csv"));
+		assertNull(AttendanceImport.inferDate("decimal-3.csv"));
+		assertNull(AttendanceImport.inferDate("1210101010.csv"));
+	}
+
+   /**
+   * This is the impossibleDatesAreSkipped test which checks that a day that
+   * is not in its month is not rolled over to the next month.
+   */
+	@Test
+	public void impossibleDatesAreSkipped() {
+		assertNull(AttendanceImport.inferDate("02-30.csv"));
+		assertNull(AttendanceImport.inferDate("2020-13-01.csv"));
+		assertNull(AttendanceImport.inferDate("12345678.csv"));
+	}
+
+}
@@ -0,0 +1,126 @@
+/**
+ * This is the AttendanceIndexTest class which checks that the AttendanceIndex
+ * finds and sorts the same rows as a scan of the AttendanceMatrix, also after
+ * a date is loaded again.
+ * Architecture:MVC-Model
+ * @author Xiang Luo
+ */
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+
+public class AttendanceIndexTest {
+
+	private static final int STUDENTS = 60;
+
+	@TempDir
+	Path directory;
+
+   /**
+   * This is the reloadedDateIsSortedByNewMinutes test which sorts a search by
+   * a date, loads the date again with other minutes, and checks that the
+   * same search is sorted by the new minutes.
+   * @throws IOException if a file cannot be written or read.
+   */
+	@Test
+	public void reloadedDateIsSortedByNewMinutes() throws IOException {
+		AttendanceData data = new AttendanceData();
+		data.setRoster(AttendanceData.parseRosterFile(writeRoster(), null));
+		int sortColumn = AttendanceTableModel.ROSTER_COLUMNS;
+		data.addAttendance(AttendanceData.parseAttendanceFile(writeAttendance("first.csv", false), "Jan 01", null));
+		assertArrayEquals(expected(data, "s1", sortColumn), data.getIndex().select("s1", AttendanceIndex.ANY, 0, sortColumn, false));
+
+		data.addAttendance(AttendanceData.parseAttendanceFile(writeAttendance("second.csv", true), "Jan 01", null));
+		assertEquals(1, data.getDates().size());
+		int[] rows = data.getIndex().select("s1", AttendanceIndex.ANY, 0, sortColumn, false);
+		assertArrayEquals(expected(data, "s1", sortColumn), rows);
+		assertEquals("s1", data.getStudents().get(rows[0]).getASURITE());
+		assertEquals("s10", data.getStudents().get(rows[1]).getASURITE());
+	}
+
+   /**
+   * This is the writeRoster method which writes a roster of the students s1
+   * to s60.
+   * @return the roster file.
+   * @throws IOException if the file cannot be written.
+   */
+	private File writeRoster() throws IOException {
+		StringBuilder text = new StringBuilder();
+		for(int i = 1; i <= STUDENTS; i++) {
+			text.append(1000000000L + i).append(",First").append(i).append(",Last").append(i).append(",Computer Science,Graduate,s").append(i).append('\n');
+		}
+		return write("roster.csv", text.toString());
+	}
+
+   /**
+   * This is the writeAttendance method which writes an attendance file where
+   * every student attended a different number of minutes.
+   * @param name the name of the file.
+   * @param ascending true to give s1 the fewest minutes, false to give it the
+   *		 most.
+   * @return the attendance file.
+   * @throws IOException if the file cannot be written.
+   */
+	private File writeAttendance(String name, boolean ascending) throws IOException {
+		StringBuilder text = new StringBuilder();
+		for(int i = 1; i <= STUDENTS; i++) {
+			int minutes = STUDENTS + 1 - i;
+			if(ascending) {
+				minutes = i;
+			}
+			text.append('s').append(i).append(',').append(minutes).append('\n');
+		}
+		return write(name, text.toString());
+	}
+
+   /**
+   * This is the write method which writes a file in the temporary directory.
+   * @param name the name of the file.
+   * @param text the text of the file.
+   * @return the file.
+   * @throws IOException if the file cannot be written.
+   */
+	private File write(String name, String text) throws IOException {
+		return Files.write(directory.resolve(name), text.getBytes(StandardCharsets.UTF_8)).toFile();
+	}
+
+   /**
+   * This is the expected method which finds the rows whose ASURITE starts with
+   * a prefix by scanning the roster, sorted by the minutes of a date and then
+   * by row.
+   * @param data the AttendanceData.
+   * @param prefix the prefix of the ASURITE.
+   * @param sortColumn the index of the date column in the
+   *		 AttendanceTableModel.
+   * @return the rows.
+   */
+	private static int[] expected(AttendanceData data, String prefix, int sortColumn) {
+		final int[] minutes = data.getMatrix().getColumn(sortColumn - AttendanceTableModel.ROSTER_COLUMNS);
+		ArrayList<Integer> rows = new ArrayList<Integer>();
+		for(int i = 0; i < data.getStudents().size(); i++) {
+			if(data.getStudents().get(i).getASURITE().startsWith(prefix)) {
+				rows.add(i);
+			}
+		}
+		Collections.sort(rows, new Comparator<Integer>() {
+			public int compare(Integer a, Integer b) {
+				if(minutes[a] != minutes[b]) {
+					return Integer.compare(minutes[a], minutes[b]);
+				}
+				return Integer.compare(a, b);
+			}
+		});
+		int[] result = new int[rows.size()];
+		for(int i = 0; i < result.length; i++) {
+			result[i] = rows.get(i);
+		}
+		return result;
+	}
+
+}
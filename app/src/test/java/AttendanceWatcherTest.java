@@ -0,0 +1,75 @@
+/**
+ * This is the AttendanceWatcherTest class which checks that the
+ * AttendanceWatcher keeps importing the files saved in the folder after one
+ * that is not a valid attendance file.
+ * Architecture:MVC-Controller
+ * @author Xiang Luo
+ */
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+
+public class AttendanceWatcherTest {
+
+	private static final long QUIET_MILLIS = 200;
+	private static final long TIMEOUT_SECONDS = 20;
+
+	@TempDir
+	Path directory;
+
+   /**
+   * This is the badFileIsFollowedByGoodFile test which saves a file with a
+   * header row, whose minutes are not a number, and then a valid file, and
+   * checks that the first is handed on as not valid and the second is still
+   * parsed.
+   * @throws Exception if the folder cannot be watched or a batch is late.
+   */
+	@Test
+	public void badFileIsFollowedByGoodFile() throws Exception {
+		final BlockingQueue<Map<String, AttendanceFile>> batches = new LinkedBlockingQueue<Map<String, AttendanceFile>>();
+		AttendanceWatcher watcher = new AttendanceWatcher(directory.toFile(), QUIET_MILLIS) {
+			protected void batchParsed(AttendanceImport attendanceImport, ArrayList<AttendanceFile> attendanceFiles, ArrayList<File> undated) {
+				HashMap<String, AttendanceFile> batch = new HashMap<String, AttendanceFile>();
+				for(int i = 0; i < attendanceFiles.size(); i++) {
+					batch.put(attendanceImport.getFiles().get(i).getName(), attendanceFiles.get(i));
+				}
+				batches.add(batch);
+			}
+		};
+		try {
+			watcher.start();
+			write("2026-01-05.csv", "ASURITE,Minutes\ns1,10\n");
+			Map<String, AttendanceFile> batch = batches.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+			assertNotNull(batch);
+			assertTrue(batch.containsKey("2026-01-05.csv"));
+			assertNull(batch.get("2026-01-05.csv"));
+
+			write("2026-01-06.csv", "s1,10\ns2,20\n");
+			batch = batches.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+			assertNotNull(batch);
+			AttendanceFile attendance = batch.get("2026-01-06.csv");
+			assertNotNull(attendance);
+			assertEquals(Integer.valueOf(20), attendance.getAttendeesMinutes().get("s2"));
+		} finally {
+			watcher.close();
+		}
+	}
+
+   /**
+   * This is the write method which saves a file in the watched folder.
+   * @param name the name of the file.
+   * @param text the text of the file.
+   * @throws IOException if the file cannot be written.
+   */
+	private void write(String name, String text) throws IOException {
+		Files.write(directory.resolve(name), text.getBytes(StandardCharsets.UTF_8));
+	}
+
+}
@@ -0,0 +1,51 @@
+package benchmark;
+
+/**
+ * This is the AggregateBenchmark class which measures building the plot
+ * dataset (the attendance histogram of every date) for 1k to 1M students,
+ * both from the counts that the data keeps and counted from scratch.
+ * @author Xiang Luo
+ */
+import java.util.concurrent.TimeUnit;
+import org.jfree.data.xy.XYSeriesCollection;
+import org.openjdk.jmh.annotations.*;
+
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class AggregateBenchmark {
+
+	@Param({"1000", "10000", "100000", "1000000"})
+	public int rows;
+
+	@Param({"30"})
+	public int dates;
+
+	private Object data;
+	private Object repository;
+
+   /**
+   * This is the load method which loads a generated semester into a
+   * Repository without a user interface.
+   */
+	@Setup(Level.Trial)
+	public void load() throws Throwable {
+		data = Fixtures.semester(rows, dates);
+		repository = Program.newRepository(data);
+	}
+
+	@Benchmark
+	public XYSeriesCollection createDataset() throws Throwable {
+		return Program.createDataset(repository);
+	}
+
+	@Benchmark
+	public int[][] countHistogram() throws Throwable {
+		return Program.countHistogram(data);
+	}
+
+}
@@ -0,0 +1,150 @@
+package benchmark;
+
+/**
+ * This is the Fixtures class which generates roster and attendance files of
+ * any size from the Tests/*.csv fixtures, which are packaged as resources. A
+ * generated roster repeats the programs, levels and names of Tests/roster.csv
+ * with a unique ID and ASURITE per student. A generated attendance file
+ * repeats the minutes of Tests/attendance.csv, lists each attendee twice on
+ * average, as people rejoin a meeting, and has about 3% attendees that are
+ * not in the roster, like the fixtures.
+ * @author Xiang Luo
+ */
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+
+public class Fixtures {
+
+	private static final List<String[]> ROSTER = read("roster.csv");
+	private static final List<String[]> ATTENDANCE = read("attendance.csv");
+	private static final int GUEST_EVERY = 33;
+
+   /**
+   * This is the read method which reads the records of a fixture.
+   * @param name the file name of the fixture.
+   * @return the fields of every record.
+   */
+	private static List<String[]> read(String name) {
+		ArrayList<String[]> records = new ArrayList<String[]>();
+		InputStream in = Fixtures.class.getResourceAsStream("/fixtures/" + name);
+		if(in == null) {
+			throw new IllegalStateException("Missing fixture " + name);
+		}
+		try {
+			BufferedReader br = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+			try {
+				String line;
+				while((line = br.readLine()) != null) {
+					if(line.trim().length() > 0) {
+						records.add(line.split(","));
+					}
+				}
+			} finally {
+				br.close();
+			}
+		} catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return records;
+	}
+
+   /**
+   * This is the getASURITE method which gets the ASURITE of a generated
+   * student.
+   * @param row the row of the student in the generated roster.
+   * @return the ASURITE.
+   */
+	public static String getASURITE(int row) {
+		return ROSTER.get(row % ROSTER.size())[5] + row;
+	}
+
+   /**
+   * This is the roster method which writes a generated roster file.
+   * @param students the number of students.
+   * @return the temporary roster file, deleted when the JVM exits.
+   * @throws IOException if the file cannot be written.
+   */
+	public static File roster(int students) throws IOException {
+		File file = File.createTempFile("roster", ".csv");
+		file.deleteOnExit();
+		BufferedWriter bw = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8));
+		try {
+			for(int i = 0; i < students; i++) {
+				String[] template = ROSTER.get(i % ROSTER.size());
+				bw.write((1000000000L + i) + "," + template[1] + "," + template[2] + "," + template[3] + "," + template[4] + "," + getASURITE(i) + "\r\n");
+			}
+		} finally {
+			bw.close();
+		}
+		return file;
+	}
+
+   /**
+   * This is the attendance method which writes a generated attendance file
+   * for a generated roster.
+   * @param students the number of students in the roster.
+   * @param lines the number of lines in the attendance file.
+   * @param guests true to include attendees that are not in the roster.
+   * @return the temporary attendance file, deleted when the JVM exits.
+   * @throws IOException if the file cannot be written.
+   */
+	public static File attendance(int students, int lines, boolean guests) throws IOException {
+		File file = File.createTempFile("attendance", ".csv");
+		file.deleteOnExit();
+		Random random = new Random(42);
+		int attendees = Math.max(1, lines / 2);
+		BufferedWriter bw = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8));
+		try {
+			for(int i = 0; i < lines; i++) {
+				int attendee = random.nextInt(attendees);
+				String ASURITE;
+				if(guests && attendee % GUEST_EVERY == 0) {
+					ASURITE = "guest" + attendee;
+				} else {
+					ASURITE = getASURITE(attendee % students);
+				}
+				bw.write(ASURITE + "," + ATTENDANCE.get(i % ATTENDANCE.size())[1] + "\n");
+			}
+		} finally {
+			bw.close();
+		}
+		return file;
+	}
+
+   /**
+   * This is the dates method which generates distinct dates.
+   * @param count the number of dates.
+   * @return the dates.
+   */
+	public static List<String> dates(int count) {
+		ArrayList<String> dates = new ArrayList<String>();
+		for(int i = 0; i < count; i++) {
+			dates.add("Day " + (i + 1));
+		}
+		return dates;
+	}
+
+   /**
+   * This is the semester method which creates an AttendanceData with a
+   * generated roster and the same generated attendance for every date.
+   * @param students the number of students.
+   * @param dateCount the number of dates.
+   * @return the AttendanceData.
+   */
+	public static Object semester(int students, int dateCount) throws Throwable {
+		Object data = Program.newData();
+		File roster = roster(students);
+		File attendance = attendance(students, students, false);
+		try {
+			Program.openRosterFile(data, roster);
+			Program.addAttendance(data, Program.parseAttendanceFile(attendance, "Day 1"), dates(dateCount));
+		} finally {
+			roster.delete();
+			attendance.delete();
+		}
+		return data;
+	}
+
+}
@@ -0,0 +1,88 @@
+package benchmark;
+
+/**
+ * This is the IngestBenchmark class which measures loading a roster file,
+ * parsing and summing an attendance file, and adding an attendance file to a
+ * loaded roster, for generated files of 1k to 1M rows.
+ * @author Xiang Luo
+ */
+import java.io.*;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class IngestBenchmark {
+
+	@Param({"1000", "10000", "100000", "1000000"})
+	public int rows;
+
+	private File roster;
+	private File attendance;
+
+	/**
+	* This is the Loaded class which holds an AttendanceData with the roster
+	* loaded and no attendance, made again before every call of
+	* openAttendanceFile, so each call measures a first load of the date
+	* rather than loading it again over the previous call.
+	*/
+	@State(Scope.Thread)
+	public static class Loaded {
+
+		private Object data;
+
+	   /**
+	   * This is the reset method which loads the roster into a new
+	   * AttendanceData. It is not part of the measured time.
+	   * @param benchmark the IngestBenchmark with the generated roster file.
+	   */
+		@Setup(Level.Invocation)
+		public void reset(IngestBenchmark benchmark) throws Throwable {
+			data = Program.newData();
+			Program.openRosterFile(data, benchmark.roster);
+		}
+
+	}
+
+   /**
+   * This is the generate method which writes the roster file and the
+   * attendance file, both with the given number of rows.
+   */
+	@Setup(Level.Trial)
+	public void generate() throws IOException {
+		roster = Fixtures.roster(rows);
+		attendance = Fixtures.attendance(rows, rows, true);
+	}
+
+   /**
+   * This is the delete method which deletes the generated files.
+   */
+	@TearDown(Level.Trial)
+	public void delete() {
+		roster.delete();
+		attendance.delete();
+	}
+
+	@Benchmark
+	public Object openRosterFile() throws Throwable {
+		Object fresh = Program.newData();
+		Program.openRosterFile(fresh, roster);
+		return fresh;
+	}
+
+	@Benchmark
+	public Object parseAttendanceFile() throws Throwable {
+		return Program.parseAttendanceFile(attendance, "Day 1");
+	}
+
+	@Benchmark
+	public boolean openAttendanceFile(Loaded loaded) throws Throwable {
+		return Program.openAttendanceFile(loaded.data, attendance, "Day 1");
+	}
+
+}
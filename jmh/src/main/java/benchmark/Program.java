@@ -0,0 +1,186 @@
+package benchmark;
+
+/**
+ * This is the Program class which calls the classes of the program through
+ * method handles. The classes of the program are in the default package, which
+ * other packages cannot import and JMH benchmarks cannot be in, so they are
+ * looked up by name once and the handles are called by the benchmarks.
+ * @author Xiang Luo
+ */
+import java.io.*;
+import java.lang.invoke.*;
+import java.util.*;
+import org.jfree.data.xy.XYSeriesCollection;
+
+
+public class Program {
+
+	private static final MethodHandle NEW_DATA;
+	private static final MethodHandle OPEN_ROSTER_FILE;
+	private static final MethodHandle OPEN_ATTENDANCE_FILE;
+	private static final MethodHandle PARSE_ATTENDANCE_FILE;
+	private static final MethodHandle NEW_ATTENDANCE_FILE;
+	private static final MethodHandle GET_ATTENDEES_MINUTES;
+	private static final MethodHandle ADD_ATTENDANCE;
+	private static final MethodHandle SAVE_TO_CSV;
+	private static final MethodHandle SAVE_SNAPSHOT;
+	private static final MethodHandle OPEN_SNAPSHOT;
+	private static final MethodHandle NEW_REPOSITORY;
+	private static final MethodHandle CREATE_DATASET;
+	private static final MethodHandle GET_MATRIX;
+	private static final MethodHandle NEW_HISTOGRAM;
+	private static final MethodHandle GET_COUNTS;
+
+	static {
+		try {
+			MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+			Class<?> data = Class.forName("AttendanceData");
+			Class<?> attendanceFile = Class.forName("AttendanceFile");
+			Class<?> loadProgress = Class.forName("LoadProgress");
+			Class<?> repository = Class.forName("Repository");
+			Class<?> main = Class.forName("Main", false, Program.class.getClassLoader());
+			Class<?> matrix = Class.forName("AttendanceMatrix");
+			Class<?> histogram = Class.forName("AttendanceHistogram");
+			NEW_DATA = lookup.findConstructor(data, MethodType.methodType(void.class));
+			OPEN_ROSTER_FILE = lookup.findVirtual(data, "openRosterFile", MethodType.methodType(boolean.class, File.class));
+			OPEN_ATTENDANCE_FILE = lookup.findVirtual(data, "openAttendanceFile", MethodType.methodType(boolean.class, File.class, String.class));
+			PARSE_ATTENDANCE_FILE = lookup.findStatic(data, "parseAttendanceFile", MethodType.methodType(attendanceFile, File.class, String.class, loadProgress));
+			NEW_ATTENDANCE_FILE = lookup.findConstructor(attendanceFile, MethodType.methodType(void.class, String.class, LinkedHashMap.class, int.class));
+			GET_ATTENDEES_MINUTES = lookup.findVirtual(attendanceFile, "getAttendeesMinutes", MethodType.methodType(LinkedHashMap.class));
+			ADD_ATTENDANCE = lookup.findVirtual(data, "addAttendance", MethodType.methodType(void.class, List.class));
+			SAVE_TO_CSV = lookup.findVirtual(data, "saveToCSV", MethodType.methodType(void.class, File.class));
+			SAVE_SNAPSHOT = lookup.findVirtual(data, "saveSnapshot", MethodType.methodType(void.class, File.class));
+			OPEN_SNAPSHOT = lookup.findVirtual(data, "openSnapshot", MethodType.methodType(boolean.class, File.class));
+			NEW_REPOSITORY = lookup.findConstructor(repository, MethodType.methodType(void.class, main, data));
+			CREATE_DATASET = lookup.findVirtual(repository, "createDataset", MethodType.methodType(XYSeriesCollection.class));
+			GET_MATRIX = lookup.findVirtual(data, "getMatrix", MethodType.methodType(matrix));
+			NEW_HISTOGRAM = lookup.findConstructor(histogram, MethodType.methodType(void.class, matrix));
+			GET_COUNTS = lookup.findVirtual(histogram, "getCounts", MethodType.methodType(int[][].class));
+		} catch(ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+   /**
+   * This is the newData method which creates an empty AttendanceData.
+   * @return the AttendanceData.
+   */
+	public static Object newData() throws Throwable {
+		return NEW_DATA.invoke();
+	}
+
+   /**
+   * This is the openRosterFile method which loads the given roster file into
+   * the given AttendanceData.
+   * @param data the AttendanceData.
+   * @param file the roster file.
+   * @return true if the file was loaded.
+   */
+	public static boolean openRosterFile(Object data, File file) throws Throwable {
+		return (boolean)OPEN_ROSTER_FILE.invoke(data, file);
+	}
+
+   /**
+   * This is the openAttendanceFile method which loads the given attendance
+   * file into the given AttendanceData.
+   * @param data the AttendanceData.
+   * @param file the attendance file.
+   * @param date the date of the attendance file.
+   * @return true if the file was loaded.
+   */
+	public static boolean openAttendanceFile(Object data, File file, String date) throws Throwable {
+		return (boolean)OPEN_ATTENDANCE_FILE.invoke(data, file, date);
+	}
+
+   /**
+   * This is the parseAttendanceFile method which parses the given attendance
+   * file into an AttendanceFile without adding it to any AttendanceData.
+   * @param file the attendance file.
+   * @param date the date of the attendance file.
+   * @return the AttendanceFile, or null if the file is not valid.
+   */
+	public static Object parseAttendanceFile(File file, String date) throws Throwable {
+		return PARSE_ATTENDANCE_FILE.invoke(file, date, null);
+	}
+
+   /**
+   * This is the addAttendance method which adds the attendees of one parsed
+   * AttendanceFile to the given AttendanceData once for each of the given
+   * dates, so a semester of attendance is loaded without parsing a file for
+   * every date.
+   * @param data the AttendanceData.
+   * @param attendance the parsed AttendanceFile.
+   * @param dates the dates to add the attendees for.
+   */
+	public static void addAttendance(Object data, Object attendance, List<String> dates) throws Throwable {
+		LinkedHashMap<?, ?> attendeesMinutes = (LinkedHashMap<?, ?>)GET_ATTENDEES_MINUTES.invoke(attendance);
+		ArrayList<Object> attendanceFiles = new ArrayList<Object>();
+		for(String date : dates) {
+			attendanceFiles.add(NEW_ATTENDANCE_FILE.invoke(date, attendeesMinutes, attendeesMinutes.size()));
+		}
+		ADD_ATTENDANCE.invoke(data, attendanceFiles);
+	}
+
+   /**
+   * This is the saveToCSV method which saves the given AttendanceData to the
+   * given file.
+   * @param data the AttendanceData.
+   * @param file the file to save the data in.
+   */
+	public static void saveToCSV(Object data, File file) throws Throwable {
+		SAVE_TO_CSV.invoke(data, file);
+	}
+
+   /**
+   * This is the saveSnapshot method which saves the given AttendanceData in a
+   * snapshot file.
+   * @param data the AttendanceData.
+   * @param file the file to save the snapshot in.
+   */
+	public static void saveSnapshot(Object data, File file) throws Throwable {
+		SAVE_SNAPSHOT.invoke(data, file);
+	}
+
+   /**
+   * This is the openSnapshot method which restores the given snapshot file
+   * into the given AttendanceData.
+   * @param data the AttendanceData.
+   * @param file the snapshot file.
+   * @return true if the snapshot was restored.
+   */
+	public static boolean openSnapshot(Object data, File file) throws Throwable {
+		return (boolean)OPEN_SNAPSHOT.invoke(data, file);
+	}
+
+   /**
+   * This is the newRepository method which creates a Repository without a
+   * user interface around the given AttendanceData.
+   * @param data the AttendanceData.
+   * @return the Repository.
+   */
+	public static Object newRepository(Object data) throws Throwable {
+		return NEW_REPOSITORY.invoke(null, data);
+	}
+
+   /**
+   * This is the createDataset method which creates the plot dataset of the
+   * given Repository.
+   * @param repository the Repository.
+   * @return the dataset.
+   */
+	public static XYSeriesCollection createDataset(Object repository) throws Throwable {
+		return (XYSeriesCollection)CREATE_DATASET.invoke(repository);
+	}
+
+   /**
+   * This is the countHistogram method which counts the histogram of every
+   * date of the given AttendanceData from scratch, without the counts that
+   * the AttendanceData keeps.
+   * @param data the AttendanceData.
+   * @return the counts of each date.
+   */
+	public static int[][] countHistogram(Object data) throws Throwable {
+		return (int[][])GET_COUNTS.invoke(NEW_HISTOGRAM.invoke(GET_MATRIX.invoke(data)));
+	}
+
+}
@@ -0,0 +1,57 @@
+package benchmark;
+
+/**
+ * This is the SaveBenchmark class which measures saving a generated semester
+ * of 1k to 1M students to a CSV file, plain and gzip-compressed.
+ * @author Xiang Luo
+ */
+import java.io.*;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class SaveBenchmark {
+
+	@Param({"1000", "10000", "100000", "1000000"})
+	public int rows;
+
+	@Param({"30"})
+	public int dates;
+
+	@Param({".csv", ".csv.gz"})
+	public String extension;
+
+	private Object data;
+	private File output;
+
+   /**
+   * This is the load method which loads a generated semester and picks the
+   * file to save it in.
+   */
+	@Setup(Level.Trial)
+	public void load() throws Throwable {
+		data = Fixtures.semester(rows, dates);
+		output = File.createTempFile("output", extension);
+	}
+
+   /**
+   * This is the delete method which deletes the saved file.
+   */
+	@TearDown(Level.Trial)
+	public void delete() {
+		output.delete();
+	}
+
+	@Benchmark
+	public File saveToCSV() throws Throwable {
+		Program.saveToCSV(data, output);
+		return output;
+	}
+
+}
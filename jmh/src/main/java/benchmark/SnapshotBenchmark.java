@@ -0,0 +1,65 @@
+package benchmark;
+
+/**
+ * This is the SnapshotBenchmark class which measures saving a generated
+ * semester of 1k to 1M students in a snapshot file and restoring it.
+ * @author Xiang Luo
+ */
+import java.io.*;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class SnapshotBenchmark {
+
+	@Param({"1000", "10000", "100000", "1000000"})
+	public int rows;
+
+	@Param({"30"})
+	public int dates;
+
+	private Object data;
+	private File snapshot;
+	private File output;
+
+   /**
+   * This is the load method which loads a generated semester and saves it in
+   * the snapshot file that openSnapshot restores.
+   */
+	@Setup(Level.Trial)
+	public void load() throws Throwable {
+		data = Fixtures.semester(rows, dates);
+		snapshot = File.createTempFile("semester", ".snap");
+		output = File.createTempFile("output", ".snap");
+		Program.saveSnapshot(data, snapshot);
+	}
+
+   /**
+   * This is the delete method which deletes the snapshot files.
+   */
+	@TearDown(Level.Trial)
+	public void delete() {
+		snapshot.delete();
+		output.delete();
+	}
+
+	@Benchmark
+	public File saveSnapshot() throws Throwable {
+		Program.saveSnapshot(data, output);
+		return output;
+	}
+
+	@Benchmark
+	public Object openSnapshot() throws Throwable {
+		Object restored = Program.newData();
+		Program.openSnapshot(restored, snapshot);
+		return restored;
+	}
+
+}